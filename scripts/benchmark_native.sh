@@ -0,0 +1,102 @@
+#!/bin/bash
+#
+# benchmark_native.sh - Startup time and memory of the custom handler, JVM build against the native image
+#
+# Starts the handler the way the Functions host does (an HTTP server on FUNCTIONS_CUSTOMHANDLER_PORT), then
+# reports the median time from process start to the first successful response of a route that needs the
+# Spring context, and the peak resident memory (VmHWM) after a short burst of requests.
+# Build the JVM side with `mvn -Pcold-start package` and the native side with `mvn -Pnative package` on a
+# GraalVM JDK, and point SPRING_DATASOURCE_URL/USERNAME/PASSWORD at a scratch database.
+#
+# $ ./benchmark_native.sh [runs]
+#
+# A variant whose build is missing is reported as skipped.
+
+RUNS=${1:-5}
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+STAGING=${STAGING:-"$ROOT/target/azure-functions/TrashTDLServerlessAuth"}
+NATIVE=${NATIVE:-"$ROOT/target/azure-native/handler"}
+PORT=${FUNCTIONS_CUSTOMHANDLER_PORT:-7071}
+PROBE="http://localhost:$PORT/api/auth/availability?email=benchmark%40example.com"
+
+# --- Color Codes for Output ---
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+export FUNCTIONS_CUSTOMHANDLER_PORT=$PORT
+PROPS=(-DAPP_URL="${APP_URL:-http://localhost}" -DSUPPORT_EMAIL="${SUPPORT_EMAIL:-training@localhost}"
+       -DAPP_PASSWORD="${APP_PASSWORD:-unused}")
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR) print v[int((NR + 1) / 2)] }'
+}
+
+# Prints "<ms to first response> <peak RSS in MB>" for one start of the given command, or nothing on failure
+run_once() {
+    local start pid ready=""
+    start=$(now_ms)
+    "$@" > /dev/null 2>&1 &
+    pid=$!
+    for ((t = 0; t < 1200; t++)); do
+        if curl -sf -o /dev/null "$PROBE"; then
+            ready=$(( $(now_ms) - start ))
+            break
+        fi
+        kill -0 "$pid" 2>/dev/null || break
+        sleep 0.05
+    done
+    if [ -n "$ready" ]; then
+        for ((r = 0; r < 100; r++)); do
+            curl -s -o /dev/null "$PROBE"
+        done
+        local rss
+        rss=$(awk '/VmHWM/ { printf "%d", $2 / 1024 }' "/proc/$pid/status")
+        echo "$ready $rss"
+    fi
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null
+}
+
+measure() {
+    local name=$1; shift
+    local results=()
+    for ((i = 0; i < RUNS; i++)); do
+        results+=("$(run_once "$@")")
+    done
+    local ready rss
+    ready=$(printf '%s\n' "${results[@]}" | awk 'NF { print $1 }' | median)
+    rss=$(printf '%s\n' "${results[@]}" | awk 'NF { print $2 }' | median)
+    printf '%-10s first response %8s ms   peak RSS %6s MB   (runs: %s)\n' \
+        "$name" "${ready:-FAILED}" "${rss:-?}" "$(IFS=';'; echo "${results[*]}")"
+}
+
+if curl -s -o /dev/null "$PROBE"; then
+    echo -e "${RED}Port $PORT is already in use; stop the process on it or set FUNCTIONS_CUSTOMHANDLER_PORT.${NC}"
+    exit 1
+fi
+
+echo "Median of $RUNS starts on $(nproc) CPU(s):"
+if JAR=$(ls "$STAGING"/ServerlessAuth-*.jar 2>/dev/null | head -1) && [ -n "$JAR" ]; then
+    # From the staging directory with the class path spelled as in the training run; the JVM silently ignores
+    # the archive when the class path differs, even if it names the same files
+    (
+        cd "$STAGING" || exit 1
+        CDS=()
+        [ -f app.jsa ] && CDS=(-XX:SharedArchiveFile=app.jsa -Xshare:auto -Xlog:cds=off -Xlog:cds+dynamic=off)
+        measure "jvm" java "${CDS[@]}" -Dspring.aot.enabled=true "${PROPS[@]}" -cp "$(basename "$JAR"):lib/*" \
+            com.TrashTDL.ServerlessAuth.handler.CustomHandler
+    )
+else
+    echo -e "${RED}jvm        skipped: no staged function app at $STAGING${NC}"
+fi
+if [ -x "$NATIVE" ]; then
+    measure "native" "$NATIVE" "${PROPS[@]}"
+else
+    echo -e "${RED}native     skipped: no executable at $NATIVE (build with -Pnative on GraalVM)${NC}"
+fi
+echo -e "${GREEN}Done.${NC}"
@@ -0,0 +1,74 @@
+#!/bin/bash
+#
+# measure_cold_start.sh - Cold-start timings of the packaged app, with and without Spring AOT and AppCDS
+#
+# Boots the context the way the function host does (ServerlessAuthApplication.main) and reports the median
+# "process running for" time Spring Boot logs once the context is up, i.e. JVM start included.
+# Build first with `mvn -Pcold-start package`, and point SPRING_DATASOURCE_URL/USERNAME/PASSWORD at a
+# scratch database (Flyway migrates it on the first boot).
+#
+# $ ./measure_cold_start.sh [runs]
+#
+# Set BUDGET_MS to fail (exit 1) when the AOT + CDS median is above it.
+
+RUNS=${1:-5}
+STAGING=${STAGING:-"$(dirname "$0")/../target/azure-functions/TrashTDLServerlessAuth"}
+
+# --- Color Codes for Output ---
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+cd "$STAGING" || { echo -e "${RED}No staged function app at $STAGING; run mvn -Pcold-start package first.${NC}"; exit 1; }
+JAR=$(ls ServerlessAuth-*.jar | head -1)
+if [ ! -f app.jsa ]; then
+    echo -e "${RED}No app.jsa in $STAGING; the cold-start profile writes it during package.${NC}"
+    exit 1
+fi
+
+COMMON=(-DAPP_URL="${APP_URL:-http://localhost}" -DSUPPORT_EMAIL="${SUPPORT_EMAIL:-training@localhost}"
+        -DAPP_PASSWORD="${APP_PASSWORD:-unused}" -Xlog:cds=off -Xlog:cds+dynamic=off
+        -cp "$JAR:lib/*")
+MAIN=com.TrashTDL.ServerlessAuth.ServerlessAuthApplication
+
+# Prints the milliseconds from JVM start until the context was up, or nothing if the boot failed
+boot() {
+    java "$@" "${COMMON[@]}" "$MAIN" 2>&1 \
+        | grep -o "process running for [0-9.]*" \
+        | awk '{ printf "%d\n", $4 * 1000 }'
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR) print v[int((NR + 1) / 2)] }'
+}
+
+measure() {
+    local name=$1; shift
+    local times=()
+    for ((i = 0; i < RUNS; i++)); do
+        times+=("$(boot "$@")")
+    done
+    local result
+    result=$(printf '%s\n' "${times[@]}" | grep . | median)
+    printf '%-12s %8s ms   (runs: %s)\n' "$name" "${result:-FAILED}" "${times[*]}" >&2
+    echo "$result"
+}
+
+# The build's archive was trained with AOT on; JIT-mode CDS needs its own
+JIT_ARCHIVE=$(mktemp -u /tmp/jit-XXXXXX.jsa)
+boot -XX:ArchiveClassesAtExit="$JIT_ARCHIVE" > /dev/null
+
+echo "Median of $RUNS cold starts on $(nproc) CPU(s), $(java -version 2>&1 | head -1):" >&2
+measure "baseline" > /dev/null
+measure "cds" -XX:SharedArchiveFile="$JIT_ARCHIVE" > /dev/null
+measure "aot" -Dspring.aot.enabled=true > /dev/null
+BOTH=$(measure "aot+cds" -Dspring.aot.enabled=true -XX:SharedArchiveFile=app.jsa)
+rm -f "$JIT_ARCHIVE"
+
+if [ -n "$BUDGET_MS" ]; then
+    if [ -z "$BOTH" ] || [ "$BOTH" -gt "$BUDGET_MS" ]; then
+        echo -e "${RED}AOT + CDS cold start ${BOTH:-FAILED} ms is over the ${BUDGET_MS} ms budget.${NC}"
+        exit 1
+    fi
+    echo -e "${GREEN}AOT + CDS cold start ${BOTH} ms is within the ${BUDGET_MS} ms budget.${NC}"
+fi
@@ -0,0 +1,77 @@
+#!/bin/bash
+#
+# measure_context.sh - Startup time, loaded classes and retained heap of the function-mode context
+#
+# Starts the custom handler (handler.CustomHandler), which boots the context exactly as the function host does
+# and keeps it open, and reports the medians of:
+#   - startup:  "process running for" from the Spring Boot startup line, JVM start included
+#   - classes:  classes loaded once the context is up (java.cls.loadedClasses)
+#   - heap:     live heap after a full GC, from GC.class_histogram
+# Plain JVM, without AOT or CDS, so the numbers reflect the bean graph alone.
+# Point SPRING_DATASOURCE_URL/USERNAME/PASSWORD at a scratch database.
+#
+# $ ./measure_context.sh [runs]
+#
+# STAGING is the build to measure (jar plus lib/). Set BASELINE to a second staging directory, e.g. a build of
+# an earlier commit, to measure it side by side.
+
+RUNS=${1:-5}
+STAGING=${STAGING:-"$(dirname "$0")/../target/azure-functions/TrashTDLServerlessAuth"}
+PORT=${FUNCTIONS_CUSTOMHANDLER_PORT:-7071}
+
+# --- Color Codes for Output ---
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+export FUNCTIONS_CUSTOMHANDLER_PORT=$PORT
+PROPS=(-DAPP_URL="${APP_URL:-http://localhost}" -DSUPPORT_EMAIL="${SUPPORT_EMAIL:-training@localhost}"
+       -DAPP_PASSWORD="${APP_PASSWORD:-unused}")
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR) print v[int((NR + 1) / 2)] }'
+}
+
+# Prints "<startup ms> <loaded classes> <live heap KB>" for one boot of the build in $1, or nothing on failure
+run_once() {
+    local dir=$1 log pid startup="" classes heap
+    log=$(mktemp)
+    java "${PROPS[@]}" -cp "$(ls "$dir"/ServerlessAuth-*.jar | head -1):$dir/lib/*" \
+        com.TrashTDL.ServerlessAuth.handler.CustomHandler > "$log" 2>&1 &
+    pid=$!
+    for ((t = 0; t < 1200; t++)); do
+        startup=$(grep -o "process running for [0-9.]*" "$log" | awk '{ printf "%d", $4 * 1000 }')
+        [ -n "$startup" ] && break
+        kill -0 "$pid" 2>/dev/null || break
+        sleep 0.1
+    done
+    if [ -n "$startup" ]; then
+        # Let the background loaders started with the context finish first
+        sleep "${SETTLE_SECONDS:-5}"
+        classes=$(jcmd "$pid" PerfCounter.print | awk -F= '/^java.cls.loadedClasses=/ { print $2 }')
+        heap=$(jcmd "$pid" GC.class_histogram | awk '/^Total/ { printf "%d", $3 / 1024 }')
+        echo "$startup $classes $heap"
+    fi
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null
+    rm -f "$log"
+}
+
+measure() {
+    local name=$1 dir=$2
+    if ! ls "$dir"/ServerlessAuth-*.jar > /dev/null 2>&1; then
+        echo -e "${RED}${name}: no build in $dir${NC}"
+        return
+    fi
+    local results=()
+    for ((i = 0; i < RUNS; i++)); do
+        results+=("$(run_once "$dir")")
+    done
+    local column
+    for column in 1 2 3; do
+        printf '%s\n' "${results[@]}" | awk -v c=$column 'NF { print $c }' | median
+    done | paste -sd' ' | awk -v n="$name" '{ printf "%-10s startup %7s ms   classes %6s   live heap %7s KB\n", n, $1, $2, $3 }'
+}
+
+echo "Median of $RUNS boots on $(nproc) CPU(s), $(java -version 2>&1 | head -1):"
+[ -n "$BASELINE" ] && measure "baseline" "$BASELINE"
+measure "function" "$STAGING"
@@ -0,0 +1,86 @@
+#!/bin/bash
+#
+# measure_precheck.sh - Time until a fresh instance rejects a bad token, with and without the token precheck
+#
+# Starts the custom handler (handler.CustomHandler) the way the host does and immediately sends GET v2/folders with
+# a bad bearer token, retrying until the handler listens. Reports the median milliseconds from launching the JVM
+# to the 401, for a token that is not a JWT at all and for a well-formed HS256 token with a forged signature.
+# With the precheck on, both are answered without waiting for the Spring context; with JWT_PRECHECK_ENABLED=false
+# they wait for it and are rejected by RequestAuthenticator. Plain JVM, without AOT or CDS.
+#
+# $ JWT_SECRET_KEY=<key> ./measure_precheck.sh [runs]
+#
+# The context still boots in the background, so point SPRING_DATASOURCE_URL/USERNAME/PASSWORD at a scratch database.
+
+RUNS=${1:-5}
+STAGING=${STAGING:-"$(dirname "$0")/../target/azure-functions/TrashTDLServerlessAuth"}
+PORT=${FUNCTIONS_CUSTOMHANDLER_PORT:-7071}
+BASE="http://localhost:$PORT"
+
+# --- Color Codes for Output ---
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+if [ -z "$JWT_SECRET_KEY" ]; then
+    echo -e "${RED}Set JWT_SECRET_KEY to the key the handler should verify tokens with.${NC}"
+    exit 1
+fi
+if ! JAR=$(ls "$STAGING"/ServerlessAuth-*.jar 2>/dev/null | head -1) || [ -z "$JAR" ]; then
+    echo -e "${RED}No staged function app at $STAGING${NC}"
+    exit 1
+fi
+if curl -s -o /dev/null "$BASE/api/auth/availability?email=probe%40example.com"; then
+    echo -e "${RED}Port $PORT is already in use; stop the process on it or set FUNCTIONS_CUSTOMHANDLER_PORT.${NC}"
+    exit 1
+fi
+
+export FUNCTIONS_CUSTOMHANDLER_PORT=$PORT
+PROPS=(-DAPP_URL="${APP_URL:-http://localhost}" -DSUPPORT_EMAIL="${SUPPORT_EMAIL:-training@localhost}"
+       -DAPP_PASSWORD="${APP_PASSWORD:-unused}")
+
+segment() {
+    printf '%s' "$1" | base64 -w0 | tr '+/' '-_' | tr -d '='
+}
+
+JUNK="not-a-jwt"
+FORGED="$(segment '{"alg":"HS256"}').$(segment "{\"sub\":\"bench@example.com\",\"exp\":$(( $(date +%s) + 3600 ))}").c2lnbmF0dXJl"
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR) print v[int((NR + 1) / 2)] }'
+}
+
+# Milliseconds from launching the JVM until $1 is rejected with a 401, or nothing if it never was
+run_once() {
+    local token=$1 pid start status=""
+    start=$(date +%s%N)
+    java "${PROPS[@]}" -cp "$JAR:$STAGING/lib/*" com.TrashTDL.ServerlessAuth.handler.CustomHandler > /dev/null 2>&1 &
+    pid=$!
+    for ((t = 0; t < 12000; t++)); do
+        status=$(curl -s -o /dev/null -w '%{http_code}' -H "Authorization: Bearer $token" "$BASE/api/v2/folders")
+        [ "$status" != "000" ] && break
+        kill -0 "$pid" 2>/dev/null || break
+        sleep 0.01
+    done
+    [ "$status" = "401" ] && echo $(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null
+}
+
+measure() {
+    local name=$1 token=$2 times=() result
+    for ((i = 0; i < RUNS; i++)); do
+        times+=("$(run_once "$token")")
+    done
+    result=$(printf '%s\n' "${times[@]}" | grep . | median)
+    printf '%-18s %8s ms   (runs: %s)\n' "$name" "${result:-FAILED}" "${times[*]}"
+}
+
+echo "Median of $RUNS starts on $(nproc) CPU(s), $(java -version 2>&1 | head -1):"
+export JWT_PRECHECK_ENABLED=true
+measure "precheck, junk" "$JUNK"
+measure "precheck, forged" "$FORGED"
+export JWT_PRECHECK_ENABLED=false
+measure "no precheck, junk" "$JUNK"
+measure "no precheck, forged" "$FORGED"
+echo -e "${GREEN}Done.${NC}"
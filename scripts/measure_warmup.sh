@@ -0,0 +1,90 @@
+#!/bin/bash
+#
+# measure_warmup.sh - First-request latency on a fresh instance, with and without the warm-up function
+#
+# Starts the custom handler (handler.CustomHandler) the way the host does, waits until the context answers the
+# availability route, then times the first GET v2/folders and the first POST v2/sync/commands. With the warm-up,
+# the WarmupTimer function is invoked (and reports its own step timings to the handler log) before the requests.
+# Reports the median of each over several fresh starts. Plain JVM, without AOT or CDS.
+#
+# $ TOKEN=<access token> ./measure_warmup.sh [runs]
+#
+# TOKEN must be an access token for a user in the database behind SPRING_DATASOURCE_URL/USERNAME/PASSWORD, signed
+# with the JWT_SECRET_KEY (or JWT_SIGNING_JWKS) the handler is started with. The database needs the
+# todo.merge_task_commands and todo.get_accessible_folders functions; use a scratch copy, the sync request writes
+# one task.
+
+RUNS=${1:-5}
+STAGING=${STAGING:-"$(dirname "$0")/../target/azure-functions/TrashTDLServerlessAuth"}
+PORT=${FUNCTIONS_CUSTOMHANDLER_PORT:-7071}
+BASE="http://localhost:$PORT"
+
+# --- Color Codes for Output ---
+GREEN='\033[0;32m'
+RED='\033[0;31m'
+NC='\033[0m' # No Color
+
+if [ -z "$TOKEN" ]; then
+    echo -e "${RED}Set TOKEN to an access token for a user in the database.${NC}"
+    exit 1
+fi
+if ! JAR=$(ls "$STAGING"/ServerlessAuth-*.jar 2>/dev/null | head -1) || [ -z "$JAR" ]; then
+    echo -e "${RED}No staged function app at $STAGING${NC}"
+    exit 1
+fi
+if curl -s -o /dev/null "$BASE/api/auth/availability?email=probe%40example.com"; then
+    echo -e "${RED}Port $PORT is already in use; stop the process on it or set FUNCTIONS_CUSTOMHANDLER_PORT.${NC}"
+    exit 1
+fi
+
+export FUNCTIONS_CUSTOMHANDLER_PORT=$PORT
+PROPS=(-DAPP_URL="${APP_URL:-http://localhost}" -DSUPPORT_EMAIL="${SUPPORT_EMAIL:-training@localhost}"
+       -DAPP_PASSWORD="${APP_PASSWORD:-unused}" -Dapplication.warmup.timer-enabled=true)
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR) print v[int((NR + 1) / 2)] }'
+}
+
+# Milliseconds for one request, or nothing unless it answered 200
+time_request() {
+    curl -s -o /dev/null -w '%{http_code} %{time_total}\n' "$@" | awk '$1 == 200 { printf "%d", $2 * 1000 }'
+}
+
+# Prints "<folders ms> <sync ms> <warm-up ms>" for one fresh start, warming up first when $1 is 1
+run_once() {
+    local warm=$1 pid warmup=0 folders sync start
+    java "${PROPS[@]}" -cp "$JAR:$STAGING/lib/*" com.TrashTDL.ServerlessAuth.handler.CustomHandler > /dev/null 2>&1 &
+    pid=$!
+    for ((t = 0; t < 1200; t++)); do
+        curl -sf -o /dev/null "$BASE/api/auth/availability?email=probe%40example.com" && break
+        kill -0 "$pid" 2>/dev/null || break
+        sleep 0.1
+    done
+    if [ "$warm" = 1 ]; then
+        start=$(date +%s%N)
+        curl -s -o /dev/null -X POST -H 'Content-Type: application/json' -d '{}' "$BASE/WarmupTimer"
+        warmup=$(( ($(date +%s%N) - start) / 1000000 ))
+    fi
+    folders=$(time_request -H "Authorization: Bearer $TOKEN" "$BASE/api/v2/folders")
+    sync=$(time_request -X POST -H "Authorization: Bearer $TOKEN" -H 'Content-Type: application/json' \
+        -d "{\"commands\":[{\"commandId\":\"$RANDOM\",\"entityId\":\"warmup-bench-task\",\"type\":\"CREATE_TASK\",\"data\":{\"title\":\"t\"}}]}" \
+        "$BASE/api/v2/sync/commands")
+    [ -n "$folders" ] && [ -n "$sync" ] && echo "$folders $sync $warmup"
+    kill "$pid" 2>/dev/null
+    wait "$pid" 2>/dev/null
+}
+
+measure() {
+    local name=$1 warm=$2 results=() column
+    for ((i = 0; i < RUNS; i++)); do
+        results+=("$(run_once "$warm")")
+    done
+    for column in 1 2 3; do
+        printf '%s\n' "${results[@]}" | awk -v c=$column 'NF { print $c }' | median
+    done | paste -sd' ' | awk -v n="$name" '{ printf "%-10s first folders %6s ms   first sync %6s ms   warm-up %6s ms\n", n, $1, $2, $3 }'
+}
+
+echo "Median of $RUNS starts on $(nproc) CPU(s), $(java -version 2>&1 | head -1):"
+measure "cold" 0
+measure "warmed" 1
+echo -e "${GREEN}Done.${NC}"
@@ -1,8 +1,21 @@
 package com.TrashTDL.ServerlessAuth;
 
+import com.TrashTDL.ServerlessAuth.config.NativeHints;
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 public class ServerlessAuthApplication {
 
+    /**
+     * Boots the context exactly as the function host does and closes it again. Only the build calls this: Spring
+     * AOT processing and the CDS training run of the {@code cold-start} profile. The native image starts from
+     * {@link com.TrashTDL.ServerlessAuth.handler.CustomHandler} instead.
+     */
+    public static void main(String[] args) {
+        SpringContextHolder.getContext();
+        SpringContextHolder.closeContext();
+    }
 }
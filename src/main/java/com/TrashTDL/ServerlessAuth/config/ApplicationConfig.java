@@ -1,47 +1,81 @@
 package com.TrashTDL.ServerlessAuth.config;
 
-import com.TrashTDL.ServerlessAuth.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.TrashTDL.ServerlessAuth.security.BoundedPasswordEncoder;
+import com.TrashTDL.ServerlessAuth.security.CalibratedBCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Map;
+
 @Configuration
-@RequiredArgsConstructor
 public class ApplicationConfig {
 
-    private final UserRepository userRepository;
+    // No configured or calibrated BCrypt cost goes below this
+    static final int SECURE_MIN_COST = 10;
 
-    @Bean
-    public UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
-                .or(() -> userRepository.findByUsername(username))
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email or username: " + username));
-    }
+    // Share of the CPUs bcrypt may occupy; the rest stays available for other requests
+    @Value("${security.password.pool.cpu-share:0.5}")
+    private double passwordPoolCpuShare;
 
-    @Bean
-    public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService());
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
-    }
+    @Value("${security.password.pool.queue-capacity:64}")
+    private int passwordQueueCapacity;
 
-    @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
-    }
+    @Value("${security.password.pool.queue-timeout-ms:2000}")
+    private long passwordQueueTimeoutMs;
+
+    // How long one hash may run once a thread picked it up, on top of the queue timeout
+    @Value("${security.password.pool.hash-timeout-ms:2000}")
+    private long passwordHashTimeoutMs;
+
+    // 0 calibrates the cost in the background after startup against the latency budget, within [min-cost, max-cost]
+    @Value("${security.password.bcrypt.cost:12}")
+    private int bcryptCost;
+
+    @Value("${security.password.bcrypt.target-ms:250}")
+    private long bcryptTargetMs;
 
-    @Bean
+    @Value("${security.password.bcrypt.min-cost:10}")
+    private int bcryptMinCost;
+
+    @Value("${security.password.bcrypt.max-cost:14}")
+    private int bcryptMaxCost;
+
+    private CalibratedBCryptPasswordEncoder bcrypt;
+
+    @Bean(destroyMethod = "shutdown")
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int minCost = Math.max(bcryptMinCost, SECURE_MIN_COST);
+        bcrypt = bcryptCost > 0
+                ? new CalibratedBCryptPasswordEncoder(Math.max(bcryptCost, minCost))
+                : CalibratedBCryptPasswordEncoder.calibrated(bcryptTargetMs, minCost, bcryptMaxCost);
+
+        // New hashes are stored as {bcrypt}$2a$...; hashes written before the prefix existed still match
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(
+                delegating,
+                BoundedPasswordEncoder.threadsForCpuShare(passwordPoolCpuShare),
+                passwordQueueCapacity,
+                passwordQueueTimeoutMs,
+                passwordHashTimeoutMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void calibratePasswordEncoder() {
+        CalibratedBCryptPasswordEncoder encoder = bcrypt;
+        if (encoder == null || encoder.isCalibrated()) {
+            return;
+        }
+        // Once per instance on its own thread, so neither the startup nor a login waits for the measurement
+        Thread calibration = new Thread(encoder::calibrate, "bcrypt-calibration");
+        calibration.setDaemon(true);
+        calibration.start();
     }
 
 }
@@ -0,0 +1,99 @@
+package com.TrashTDL.ServerlessAuth.config;
+
+import com.TrashTDL.ServerlessAuth.dto.AuthResponse;
+import com.TrashTDL.ServerlessAuth.dto.AvailabilityResponse;
+import com.TrashTDL.ServerlessAuth.dto.Command;
+import com.TrashTDL.ServerlessAuth.dto.FolderResponse;
+import com.TrashTDL.ServerlessAuth.dto.LoginRequest;
+import com.TrashTDL.ServerlessAuth.dto.RefreshRequest;
+import com.TrashTDL.ServerlessAuth.dto.RegisterRequest;
+import com.TrashTDL.ServerlessAuth.dto.SyncRequest;
+import com.TrashTDL.ServerlessAuth.dto.SyncResponse;
+import com.TrashTDL.ServerlessAuth.dto.UserImportResponse;
+import com.TrashTDL.ServerlessAuth.model.MailOutboxMessage;
+import com.TrashTDL.ServerlessAuth.model.PendingUser;
+import com.TrashTDL.ServerlessAuth.model.RefreshToken;
+import com.TrashTDL.ServerlessAuth.model.RevokedToken;
+import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.model.UserTokenRevocation;
+import com.TrashTDL.ServerlessAuth.repository.PendingUserRepository;
+import com.TrashTDL.ServerlessAuth.service.UserImportService;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import java.util.stream.Stream;
+
+/**
+ * Reflection, resource and proxy hints for the native image (the {@code native} Maven profile).
+ * <p>
+ * Spring AOT covers the bean graph and the repositories, but not what is reached reflectively outside of it:
+ * Jackson binding of the request/response DTOs in the custom handler, the Hibernate entities, jjwt's
+ * implementation classes (loaded by name from jjwt-api), and the interface projections of native queries.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    // jjwt-api instantiates these by class name
+    static final String[] JJWT_CLASSES = {
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.compression.DeflateCompressionAlgorithm",
+            "io.jsonwebtoken.impl.compression.GzipCompressionAlgorithm",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                RegisterRequest.class, LoginRequest.class, RefreshRequest.class, SyncRequest.class, Command.class,
+                AuthResponse.class, AvailabilityResponse.class, FolderResponse.class, SyncResponse.class,
+                UserImportResponse.class, UserImportService.RowError.class);
+
+        Stream.of(User.class, PendingUser.class, RefreshToken.class, MailOutboxMessage.class, RevokedToken.class,
+                        UserTokenRevocation.class)
+                .forEach(entity -> hints.reflection().registerType(entity,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS,
+                        MemberCategory.DECLARED_FIELDS));
+
+        for (String name : JJWT_CLASSES) {
+            hints.reflection().registerTypeIfPresent(classLoader, name,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        hints.resources()
+                .registerPattern("META-INF/services/io.jsonwebtoken.*")
+                .registerPattern("db/migration/*.sql");
+
+        // Spring Data backs interface projections with JDK proxies
+        Stream.of(PendingUserRepository.Identity.class, PendingUserRepository.Promotion.class,
+                        PendingUserRepository.Availability.class)
+                .forEach(projection -> hints.proxies().registerJdkProxy(TypeReference.of(projection),
+                        TypeReference.of(TargetAware.class),
+                        TypeReference.of(SpringProxy.class), TypeReference.of(Advised.class),
+                        TypeReference.of(DecoratingProxy.class)));
+    }
+}
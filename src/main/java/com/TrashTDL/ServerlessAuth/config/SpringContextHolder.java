@@ -8,6 +8,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class SpringContextHolder {
+    /**
+     * Profile of every context started here; {@code application-function.properties} trims it to what functions use.
+     */
+    public static final String FUNCTION_PROFILE = "function";
+
     private static ConfigurableApplicationContext context;
     private static final Object lock = new Object();
 
@@ -15,15 +20,18 @@ public class SpringContextHolder {
         if (context == null) {
             synchronized (lock) {
                 if (context == null) {
-                    // log JDBC URL
-                    System.out.println("JDBC URL: " + System.getenv("SPRING_DATASOURCE_URL"));
                     Map<String, Object> props = new HashMap<>();
                     props.put("spring.datasource.url", System.getenv("SPRING_DATASOURCE_URL"));
                     props.put("spring.datasource.username", System.getenv("SPRING_DATASOURCE_USERNAME"));
                     props.put("spring.datasource.password", System.getenv("SPRING_DATASOURCE_PASSWORD"));
 
+                    // The main class is set explicitly: it is not on the stack when the host boots the context, and
+                    // with Spring AOT the generated initializers are looked up by its name. The profile is set here
+                    // too, so AOT processing evaluates the same conditions the host later runs with
                     context = new SpringApplicationBuilder(ServerlessAuthApplication.class)
+                                    .main(ServerlessAuthApplication.class)
                                     .web(WebApplicationType.NONE)
+                                    .profiles(FUNCTION_PROFILE)
                                     .properties(props)
                                     .run();
                 }
@@ -12,5 +12,6 @@ import java.util.UUID;
 @NoArgsConstructor
 public class AuthResponse {
     private String token;
+    private String refreshToken;
     private UUID userId;
 }
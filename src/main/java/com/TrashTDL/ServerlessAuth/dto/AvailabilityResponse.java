@@ -0,0 +1,16 @@
+package com.TrashTDL.ServerlessAuth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AvailabilityResponse {
+    // null when the value was not part of the request
+    private Boolean emailAvailable;
+    private Boolean usernameAvailable;
+}
@@ -0,0 +1,22 @@
+package com.TrashTDL.ServerlessAuth.dto;
+
+import com.TrashTDL.ServerlessAuth.service.UserImportService;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserImportResponse {
+    private long read;
+    private long imported;
+    private long failed;
+    private long durationMillis;
+    // The first rejected rows only; failed holds the full count
+    private List<UserImportService.RowError> errors;
+}
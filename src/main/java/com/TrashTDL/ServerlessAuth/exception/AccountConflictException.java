@@ -0,0 +1,7 @@
+package com.TrashTDL.ServerlessAuth.exception;
+
+public class AccountConflictException extends AppException {
+    public AccountConflictException(String message) {
+      super("ACCOUNT_CONFLICT", message);
+    }
+}
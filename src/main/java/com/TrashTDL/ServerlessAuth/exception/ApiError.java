@@ -1,3 +0,0 @@
-package com.TrashTDL.ServerlessAuth.exception;
-
-public record ApiError(String code, String message) { }
@@ -0,0 +1,7 @@
+package com.TrashTDL.ServerlessAuth.exception;
+
+public class InvalidRefreshTokenException extends AppException {
+    public InvalidRefreshTokenException(String message) {
+      super("INVALID_REFRESH_TOKEN", message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.TrashTDL.ServerlessAuth.exception;
+
+public class PasswordHashingUnavailableException extends AppException {
+    public PasswordHashingUnavailableException(String message) {
+      super("SERVICE_BUSY", message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.service.AccountPurger;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+
+import java.util.logging.Level;
+
+/**
+ * Purges accounts past their soft-delete retention, hourly so a large backlog drains in bounded runs.
+ */
+public class AccountPurgeFunction {
+
+    @FunctionName("AccountPurge")
+    public void run(
+            @TimerTrigger(name = "timer", schedule = "0 20 * * * *") String timerInfo,
+            final ExecutionContext context) {
+
+        context.getLogger().info("Account purge triggered.");
+
+        try {
+            AccountPurger purger = SpringContextHolder.getBean(AccountPurger.class);
+            AccountPurger.PurgeResult result = purger.purge();
+            context.getLogger().info((result.dryRun() ? "Account purge (dry run) would remove " : "Account purge removed ")
+                    + result.users() + " accounts and " + result.rows() + " rows " + result.rowsByTable()
+                    + " in " + result.batches() + " batches (" + result.durationMillis() + " ms), "
+                    + result.failedUsers() + " failed.");
+        } catch (RuntimeException e) {
+            context.getLogger().log(Level.SEVERE, "Account purge failed: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+}
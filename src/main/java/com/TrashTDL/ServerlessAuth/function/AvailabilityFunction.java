@@ -0,0 +1,64 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.dto.AvailabilityResponse;
+import com.TrashTDL.ServerlessAuth.service.AvailabilityService;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpMethod;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+
+import java.util.Map;
+
+/**
+ * Tells the signup form whether an e-mail and/or username is still free, without attempting a registration.
+ * Most answers come from in-memory Bloom filters; see {@link AvailabilityService}.
+ */
+public class AvailabilityFunction {
+
+    @FunctionName("Availability")
+    public HttpResponseMessage run(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.GET},
+                    authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = "auth/availability")
+            HttpRequestMessage<Void> request,
+            final ExecutionContext context) {
+
+        Map<String, String> query = request.getQueryParameters();
+        String email = query.get("email");
+        String username = query.get("username");
+        if (isBlank(email) && isBlank(username)) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body("Please provide an email or username to check.")
+                    .build();
+        }
+
+        try {
+            AvailabilityService availabilityService = SpringContextHolder.getBean(AvailabilityService.class);
+            AvailabilityService.Availability availability = availabilityService.check(
+                    isBlank(email) ? null : email, isBlank(username) ? null : username);
+            return request.createResponseBuilder(HttpStatus.OK)
+                    .header("Cache-Control", "no-store")
+                    .body(AvailabilityResponse.builder()
+                            .emailAvailable(availability.emailAvailable())
+                            .usernameAvailable(availability.usernameAvailable())
+                            .build())
+                    .build();
+        } catch (Exception e) {
+            context.getLogger().severe("Availability check failed: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred.")
+                    .build();
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
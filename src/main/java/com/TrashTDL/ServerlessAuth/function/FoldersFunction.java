@@ -2,10 +2,10 @@ package com.TrashTDL.ServerlessAuth.function;
 
 import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
 import com.TrashTDL.ServerlessAuth.dto.FolderResponse;
-import com.TrashTDL.ServerlessAuth.model.User;
-import com.TrashTDL.ServerlessAuth.repository.UserRepository;
+import com.TrashTDL.ServerlessAuth.security.AuthResult;
+import com.TrashTDL.ServerlessAuth.security.TokenPrecheck;
 import com.TrashTDL.ServerlessAuth.service.DBHandler;
-import com.TrashTDL.ServerlessAuth.service.JwtService;
+import com.TrashTDL.ServerlessAuth.service.RequestAuthenticator;
 import com.microsoft.azure.functions.*;
 import com.microsoft.azure.functions.annotation.AuthorizationLevel;
 import com.microsoft.azure.functions.annotation.FunctionName;
@@ -13,7 +13,6 @@ import com.microsoft.azure.functions.annotation.HttpTrigger;
 
 import java.sql.SQLException;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 public class FoldersFunction {
@@ -30,29 +29,32 @@ public class FoldersFunction {
 
         context.getLogger().info("GetFolders function triggered.");
 
-        String authHeader = request.getHeaders().get("authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        String token = RequestAuthenticator.bearerToken(request.getHeaders().get("authorization"));
+        if (token == null) {
             context.getLogger().warning("Missing or invalid Authorization header.");
             return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
                     .body("Authorization header with Bearer token is required.")
                     .build();
         }
-        String token = authHeader.substring(7);
+
+        // Reject junk before it can boot the Spring context
+        TokenPrecheck.Verdict verdict = TokenPrecheck.shared().check(token);
+        if (verdict != TokenPrecheck.Verdict.PASS) {
+            context.getLogger().warning("Token rejected before startup: " + verdict);
+            return request.createResponseBuilder(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.").build();
+        }
 
         try {
-            JwtService jwtService = SpringContextHolder.getBean(JwtService.class);
-            UserRepository userRepository = SpringContextHolder.getBean(UserRepository.class);
+            RequestAuthenticator authenticator = SpringContextHolder.getBean(RequestAuthenticator.class);
             DBHandler dbHandler = SpringContextHolder.getBean(DBHandler.class);
 
-            // Validate token and user
-            final UUID userId = jwtService.extractUserId(token);
-            final String userEmail = jwtService.extractUsername(token);
-            final Optional<User> userOptional = userRepository.findByEmail(userEmail);
-
-            if (userOptional.isEmpty() || !jwtService.isTokenValid(token, userOptional.get())) {
-                context.getLogger().warning("Token validation failed for user: " + userEmail);
+            // Validate token
+            final AuthResult auth = authenticator.authenticate(token);
+            if (!auth.isAuthenticated()) {
+                context.getLogger().warning("Token rejected: " + auth.status());
                 return request.createResponseBuilder(HttpStatus.UNAUTHORIZED).body("Invalid or expired token.").build();
             }
+            final UUID userId = auth.userId();
 
             // Fetch Folders
             List<FolderResponse> folders = dbHandler.getFoldersForUser(userId);
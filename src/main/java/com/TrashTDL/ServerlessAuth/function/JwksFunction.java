@@ -0,0 +1,48 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.service.JwtService;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpMethod;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+
+/**
+ * Publishes the public token verification keys so other services can validate our JWTs locally.
+ */
+public class JwksFunction {
+
+    // Keys rotate with an overlap window, so a few minutes of caching is safe
+    static final String CACHE_CONTROL = "public, max-age=300";
+
+    @FunctionName("Jwks")
+    public HttpResponseMessage run(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.GET},
+                    authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = ".well-known/jwks.json")
+            HttpRequestMessage<Void> request,
+            final ExecutionContext context) {
+
+        context.getLogger().info("Jwks function triggered.");
+
+        try {
+            JwtService jwtService = SpringContextHolder.getBean(JwtService.class);
+            return request.createResponseBuilder(HttpStatus.OK)
+                    .header("Content-Type", "application/json")
+                    .header("Cache-Control", CACHE_CONTROL)
+                    .body(jwtService.getPublicJwksJson())
+                    .build();
+        } catch (Exception e) {
+            context.getLogger().severe("Failed to load the public key set: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Public keys are unavailable.")
+                    .build();
+        }
+    }
+}
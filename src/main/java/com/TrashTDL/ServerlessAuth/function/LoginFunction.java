@@ -3,7 +3,9 @@ package com.TrashTDL.ServerlessAuth.function;
 import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
 import com.TrashTDL.ServerlessAuth.dto.AuthResponse;
 import com.TrashTDL.ServerlessAuth.dto.LoginRequest;
+import com.TrashTDL.ServerlessAuth.exception.PasswordHashingUnavailableException;
 import com.TrashTDL.ServerlessAuth.service.AuthService;
+import com.TrashTDL.ServerlessAuth.service.LoginThrottle;
 import com.microsoft.azure.functions.*;
 import com.microsoft.azure.functions.annotation.AuthorizationLevel;
 import com.microsoft.azure.functions.annotation.FunctionName;
@@ -25,8 +27,10 @@ public class LoginFunction {
         context.getLogger().info("Login function triggered (native + SpringContextHolder).");
 
         AuthService authService;
+        LoginThrottle loginThrottle;
         try {
             authService = SpringContextHolder.getBean(AuthService.class);
+            loginThrottle = SpringContextHolder.getBean(LoginThrottle.class);
         } catch (Exception e) {
             context.getLogger().severe("Failed to get AuthService from SpringContextHolder: " + e.getMessage());
             return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -48,11 +52,28 @@ public class LoginFunction {
                     .build();
         }
 
+        // Cheap per-IP and per-account admission check before any database or bcrypt work
+        LoginThrottle.Decision admission = loginThrottle.tryAcquire(
+                loginIdentifier(loginRequest), LoginThrottle.clientIp(request.getHeaders()));
+        if (!admission.allowed()) {
+            context.getLogger().warning("Login throttled, retry in " + admission.retryAfterSeconds() + "s");
+            return request.createResponseBuilder(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf(admission.retryAfterSeconds()))
+                    .body("Login failed: Too many attempts, please retry later.")
+                    .build();
+        }
+
         try {
             AuthResponse authResponse = authService.login(loginRequest);
             return request.createResponseBuilder(HttpStatus.OK)
                     .body(authResponse)
                     .build();
+        } catch (PasswordHashingUnavailableException e) {
+            context.getLogger().warning("Login rejected, password hashing is saturated: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body("Login failed: " + e.getMessage())
+                    .build();
         } catch (AuthenticationException ae) {
             context.getLogger().warning("Authentication failed: " + ae.getMessage());
             return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
@@ -70,4 +91,10 @@ public class LoginFunction {
                     .build();
         }
     }
+
+    private static String loginIdentifier(LoginRequest loginRequest) {
+        return (loginRequest.getEmail() != null && !loginRequest.getEmail().isBlank())
+                ? loginRequest.getEmail()
+                : loginRequest.getUsername();
+    }
 }
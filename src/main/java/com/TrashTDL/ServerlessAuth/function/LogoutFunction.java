@@ -0,0 +1,85 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.dto.RefreshRequest;
+import com.TrashTDL.ServerlessAuth.security.AuthResult;
+import com.TrashTDL.ServerlessAuth.security.TokenPrecheck;
+import com.TrashTDL.ServerlessAuth.service.AuthService;
+import com.TrashTDL.ServerlessAuth.service.RequestAuthenticator;
+import com.microsoft.azure.functions.*;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+
+public class LogoutFunction {
+
+    @FunctionName("Logout")
+    public HttpResponseMessage run(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.POST},
+                    authLevel = AuthorizationLevel.ANONYMOUS, // Auth is handled manually via JWT
+                    route = "auth/logout")
+            HttpRequestMessage<RefreshRequest> request,
+            final ExecutionContext context) {
+
+        context.getLogger().info("Logout function triggered.");
+
+        String token = RequestAuthenticator.bearerToken(request.getHeaders().get("authorization"));
+        if (token == null) {
+            context.getLogger().warning("Missing or invalid Authorization header.");
+            return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
+                    .body("Authorization header with Bearer token is required.")
+                    .build();
+        }
+        // Reject junk before it can boot the Spring context
+        TokenPrecheck.Verdict verdict = TokenPrecheck.shared().check(token);
+        if (verdict != TokenPrecheck.Verdict.PASS) {
+            context.getLogger().warning("Token rejected before startup: " + verdict);
+            return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
+                    .body("Invalid or expired token.")
+                    .build();
+        }
+        boolean everywhere = "true".equalsIgnoreCase(request.getQueryParameters().get("all"));
+
+        RequestAuthenticator authenticator;
+        AuthService authService;
+        try {
+            authenticator = SpringContextHolder.getBean(RequestAuthenticator.class);
+            authService = SpringContextHolder.getBean(AuthService.class);
+        } catch (Exception e) {
+            context.getLogger().severe("Failed to get Spring beans: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error initializing application services.")
+                    .build();
+        }
+
+        AuthResult auth = authenticator.authenticate(token);
+        if (!auth.isAuthenticated()) {
+            context.getLogger().warning("Token rejected: " + auth.status());
+            return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
+                    .body("Invalid or expired token.")
+                    .build();
+        }
+
+        try {
+            // The body is optional; when present it carries the refresh token to revoke alongside the access token
+            RefreshRequest body = request.getBody();
+            String refreshToken = body != null ? body.getRefreshToken() : null;
+            authService.logout(auth.token(), refreshToken, everywhere);
+            return request.createResponseBuilder(HttpStatus.OK)
+                    .body(everywhere ? "Logged out from all sessions." : "Logged out.")
+                    .build();
+        } catch (IllegalArgumentException e) {
+            context.getLogger().warning("Logout failed: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body("Logout failed: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            context.getLogger().severe("Unexpected error during logout: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Logout failed: An unexpected error occurred.")
+                    .build();
+        }
+    }
+}
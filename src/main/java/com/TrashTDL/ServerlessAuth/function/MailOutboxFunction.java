@@ -0,0 +1,46 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.service.MailOutboxDispatcher;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+
+import java.util.logging.Level;
+
+/**
+ * Drains the mail outbox every 5 minutes: retries that have come due, and messages whose immediate
+ * dispatch after registration did not run (for example because the instance was recycled).
+ * <p>
+ * With the mailer off (the default) nothing is ever queued, so a tick returns before the Spring context is
+ * started; the setting is read the way the context reads it, from {@code application.use-mailer} or
+ * {@code USE_MAILER}.
+ */
+public class MailOutboxFunction {
+
+    @FunctionName("MailOutbox")
+    public void run(
+            @TimerTrigger(name = "timer", schedule = "0 */5 * * * *") String timerInfo,
+            final ExecutionContext context) {
+
+        if (!mailerEnabled()) {
+            return;
+        }
+        try {
+            MailOutboxDispatcher dispatcher = SpringContextHolder.getBean(MailOutboxDispatcher.class);
+            MailOutboxDispatcher.DispatchResult result = dispatcher.dispatch();
+            if (result.delivered() + result.retried() + result.deadLettered() > 0) {
+                context.getLogger().info("Mail outbox: " + result.delivered() + " delivered, " + result.retried()
+                        + " to retry, " + result.deadLettered() + " dead-lettered (" + result.durationMillis() + " ms).");
+            }
+        } catch (RuntimeException e) {
+            context.getLogger().log(Level.SEVERE, "Mail outbox dispatch failed: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    static boolean mailerEnabled() {
+        String value = System.getProperty("application.use-mailer");
+        return Boolean.parseBoolean(value != null ? value : System.getenv("USE_MAILER"));
+    }
+}
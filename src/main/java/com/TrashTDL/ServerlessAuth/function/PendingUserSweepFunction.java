@@ -0,0 +1,34 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.service.PendingUserSweeper;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+
+import java.util.logging.Level;
+
+/**
+ * Periodically deletes expired pending registrations (every 15 minutes, matching the default code lifetime).
+ */
+public class PendingUserSweepFunction {
+
+    @FunctionName("PendingUserSweep")
+    public void run(
+            @TimerTrigger(name = "timer", schedule = "0 */15 * * * *") String timerInfo,
+            final ExecutionContext context) {
+
+        context.getLogger().info("Pending user sweep triggered.");
+
+        try {
+            PendingUserSweeper sweeper = SpringContextHolder.getBean(PendingUserSweeper.class);
+            PendingUserSweeper.SweepResult result = sweeper.sweep();
+            context.getLogger().info("Pending user sweep purged " + result.purged() + " rows in "
+                    + result.batches() + " batches (" + result.durationMillis() + " ms).");
+        } catch (RuntimeException e) {
+            // Rethrown so the host records the run as failed
+            context.getLogger().log(Level.SEVERE, "Pending user sweep failed: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.dto.AuthResponse;
+import com.TrashTDL.ServerlessAuth.dto.RefreshRequest;
+import com.TrashTDL.ServerlessAuth.exception.InvalidRefreshTokenException;
+import com.TrashTDL.ServerlessAuth.service.AuthService;
+import com.microsoft.azure.functions.*;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+
+public class RefreshFunction {
+
+    @FunctionName("Refresh")
+    public HttpResponseMessage run(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.POST},
+                    authLevel = AuthorizationLevel.ANONYMOUS,
+                    route = "auth/refresh")
+            HttpRequestMessage<RefreshRequest> request,
+            final ExecutionContext context) {
+
+        context.getLogger().info("Refresh function triggered.");
+
+        RefreshRequest refreshRequest = request.getBody();
+        if (refreshRequest == null || refreshRequest.getRefreshToken() == null || refreshRequest.getRefreshToken().isBlank()) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body("Please pass a refresh token in the request body.")
+                    .build();
+        }
+
+        AuthService authService;
+        try {
+            authService = SpringContextHolder.getBean(AuthService.class);
+        } catch (Exception e) {
+            context.getLogger().severe("Failed to get AuthService from SpringContextHolder: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Error initializing application services.")
+                    .build();
+        }
+
+        try {
+            AuthResponse authResponse = authService.refresh(refreshRequest.getRefreshToken());
+            return request.createResponseBuilder(HttpStatus.OK)
+                    .body(authResponse)
+                    .build();
+        } catch (InvalidRefreshTokenException e) {
+            context.getLogger().warning("Refresh failed: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
+                    .body("Refresh failed: " + e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            context.getLogger().severe("Unexpected error during refresh: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Refresh failed: An unexpected error occurred.")
+                    .build();
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.TrashTDL.ServerlessAuth.function;
 
 import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
 import com.TrashTDL.ServerlessAuth.dto.RegisterRequest;
+import com.TrashTDL.ServerlessAuth.exception.PasswordHashingUnavailableException;
 import com.TrashTDL.ServerlessAuth.service.AuthService;
 import com.microsoft.azure.functions.ExecutionContext;
 import com.microsoft.azure.functions.HttpMethod;
@@ -46,6 +47,12 @@ public class RegisterFunction {
             return request.createResponseBuilder(HttpStatus.OK)
                     .body("Registration successful. Verification code: " + verificationCode)
                     .build();
+        } catch (PasswordHashingUnavailableException e) {
+            context.getLogger().warning("Registration rejected, password hashing is saturated: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body("Registration failed: " + e.getMessage())
+                    .build();
         } catch (IllegalArgumentException e) {
             context.getLogger().warning("Registration failed: " + e.getMessage());
             return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
@@ -3,11 +3,11 @@ package com.TrashTDL.ServerlessAuth.function;
 import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
 import com.TrashTDL.ServerlessAuth.dto.SyncRequest;
 import com.TrashTDL.ServerlessAuth.dto.SyncResponse;
+import com.TrashTDL.ServerlessAuth.security.AuthResult;
+import com.TrashTDL.ServerlessAuth.security.TokenPrecheck;
 import com.TrashTDL.ServerlessAuth.service.DBHandler;
-import com.TrashTDL.ServerlessAuth.service.JwtService;
+import com.TrashTDL.ServerlessAuth.service.RequestAuthenticator;
 import com.TrashTDL.ServerlessAuth.service.SyncValidationService;
-import com.TrashTDL.ServerlessAuth.repository.UserRepository;
-import com.TrashTDL.ServerlessAuth.model.User;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.microsoft.azure.functions.*;
 import com.microsoft.azure.functions.annotation.AuthorizationLevel;
@@ -33,25 +33,37 @@ public class SyncFunction {
         context.getLogger().info("SyncCommands function triggered.");
 
         // Extract JWT token from Authorization header
-        String authHeader = request.getHeaders().get("authorization");
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        String token = RequestAuthenticator.bearerToken(request.getHeaders().get("authorization"));
+        if (token == null) {
             context.getLogger().warning("Missing or invalid Authorization header");
             return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
                     .body("Authorization header with Bearer token is required")
                     .build();
         }
 
-        String token = authHeader.substring(7);
+        // Reject junk before it can boot the Spring context
+        TokenPrecheck.Verdict verdict = TokenPrecheck.shared().check(token);
+        if (verdict != TokenPrecheck.Verdict.PASS) {
+            context.getLogger().warning("Token rejected before startup: " + verdict);
+            return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
+                    .body("Invalid or expired token")
+                    .build();
+        }
+        SyncRequest syncRequest = request.getBody();
+        if (syncRequest == null || syncRequest.getCommands() == null) {
+            context.getLogger().warning("Invalid request body: missing commands");
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body("Request body must contain a 'commands' array")
+                    .build();
+        }
 
         // Get Spring beans
-        JwtService jwtService;
+        RequestAuthenticator authenticator;
         DBHandler dbHandler;
-        UserRepository userRepository;
         SyncValidationService validationService;
         try {
-            jwtService = SpringContextHolder.getBean(JwtService.class);
+            authenticator = SpringContextHolder.getBean(RequestAuthenticator.class);
             dbHandler = SpringContextHolder.getBean(DBHandler.class);
-            userRepository = SpringContextHolder.getBean(UserRepository.class);
             validationService = SpringContextHolder.getBean(SyncValidationService.class);
         } catch (Exception e) {
             context.getLogger().severe("Failed to get Spring beans: " + e.getMessage());
@@ -60,54 +72,22 @@ public class SyncFunction {
                     .build();
         }
 
-        if (jwtService == null || dbHandler == null || userRepository == null || validationService == null) {
+        if (authenticator == null || dbHandler == null || validationService == null) {
             context.getLogger().severe("Required services could not be retrieved from Spring context");
             return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error initializing application services")
                     .build();
         }
 
-        // Extract and validate user ID from JWT
-        UUID userId;
-        String userEmail;
-        try {
-            userEmail = jwtService.extractUsername(token);
-            userId = jwtService.extractUserId(token);
-            
-            if (userId == null || userEmail == null) {
-                context.getLogger().warning("Invalid JWT token: missing user information");
-                return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token")
-                        .build();
-            }
-            
-            // Verify the user exists and token is still valid
-            User user = userRepository.findByEmail(userEmail)
-                    .or(() -> userRepository.findByUsername(userEmail))
-                    .orElse(null);
-                    
-            if (user == null || !jwtService.isTokenValid(token, user)) {
-                context.getLogger().warning("Token validation failed for user: " + userEmail);
-                return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
-                        .body("Invalid or expired token")
-                        .build();
-            }
-            
-        } catch (Exception e) {
-            context.getLogger().warning("Error parsing JWT token: " + e.getMessage());
+        // Identity comes from the signed claims; the authenticator only reads the user row when its version is unknown
+        AuthResult auth = authenticator.authenticate(token);
+        if (!auth.isAuthenticated()) {
+            context.getLogger().warning("Token rejected: " + auth.status());
             return request.createResponseBuilder(HttpStatus.UNAUTHORIZED)
                     .body("Invalid or expired token")
                     .build();
         }
-
-        // Validate request body
-        SyncRequest syncRequest = request.getBody();
-        if (syncRequest == null || syncRequest.getCommands() == null) {
-            context.getLogger().warning("Invalid request body: missing commands");
-            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
-                    .body("Request body must contain a 'commands' array")
-                    .build();
-        }
+        UUID userId = auth.userId();
 
         // Validate commands
         List<String> validationErrors = validationService.validateCommands(syncRequest.getCommands());
@@ -0,0 +1,104 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.dto.UserImportResponse;
+import com.TrashTDL.ServerlessAuth.service.UserImportService;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpMethod;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Admin-only bulk import of accounts from another system; see {@link UserImportService}.
+ * The format comes from the {@code format} query parameter, falling back to the Content-Type. Bodies larger than
+ * {@link UserImportService#getMaxBodyChars} are turned away with 413, so large exports are uploaded in parts.
+ */
+public class UserImportFunction {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    @FunctionName("UserImport")
+    public HttpResponseMessage run(
+            @HttpTrigger(
+                    name = "req",
+                    methods = {HttpMethod.POST},
+                    authLevel = AuthorizationLevel.ADMIN,
+                    route = "admin/users/import")
+            HttpRequestMessage<Optional<String>> request,
+            final ExecutionContext context) {
+
+        String body = request.getBody().orElse(null);
+        if (body == null || body.isBlank()) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body("Request body is required.")
+                    .build();
+        }
+
+        UserImportService.Format format;
+        try {
+            String requested = request.getQueryParameters().get("format");
+            if (requested == null) {
+                String contentType = request.getHeaders().get("content-type");
+                requested = contentType == null ? null : contentType.split(";")[0];
+            }
+            format = UserImportService.Format.of(requested);
+        } catch (IllegalArgumentException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body("Use format=csv or format=ndjson.")
+                    .build();
+        }
+
+        try {
+            UserImportService importService = SpringContextHolder.getBean(UserImportService.class);
+            if (body.length() > importService.getMaxBodyChars()) {
+                return request.createResponseBuilder(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body("Send at most " + importService.getMaxBodyChars()
+                                + " characters per upload; split larger imports, repeating the CSV header in each part.")
+                        .build();
+            }
+            List<UserImportService.RowError> errors = new ArrayList<>();
+            UserImportService.ImportResult result = importService.importUsers(new StringReader(body), format,
+                    new UserImportService.ImportListener() {
+                        @Override
+                        public void progress(UserImportService.ImportResult soFar) {
+                            context.getLogger().info("User import: " + soFar.read() + " read, "
+                                    + soFar.imported() + " imported, " + soFar.failed() + " failed");
+                        }
+
+                        @Override
+                        public void rowFailed(UserImportService.RowError error) {
+                            if (errors.size() < MAX_REPORTED_ERRORS) {
+                                errors.add(error);
+                            }
+                        }
+                    });
+            return request.createResponseBuilder(HttpStatus.OK)
+                    .body(UserImportResponse.builder()
+                            .read(result.read())
+                            .imported(result.imported())
+                            .failed(result.failed())
+                            .durationMillis(result.durationMillis())
+                            .errors(errors)
+                            .build())
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage())
+                    .build();
+        } catch (Exception e) {
+            context.getLogger().severe("User import failed: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An unexpected error occurred.")
+                    .build();
+        }
+    }
+}
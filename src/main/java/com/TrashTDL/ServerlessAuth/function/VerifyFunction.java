@@ -2,6 +2,7 @@ package com.TrashTDL.ServerlessAuth.function;
 
 import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
 import com.TrashTDL.ServerlessAuth.service.AuthService;
+import com.TrashTDL.ServerlessAuth.exception.AccountConflictException;
 import com.TrashTDL.ServerlessAuth.exception.VerificationCodeExpiredException;
 import com.microsoft.azure.functions.ExecutionContext;
 import com.microsoft.azure.functions.HttpMethod;
@@ -52,6 +53,16 @@ public class VerifyFunction {
             return request.createResponseBuilder(HttpStatus.GONE)
                     .body(e.getMessage())
                     .build();
+        } catch (AccountConflictException e) {
+            context.getLogger().warning("Verification failed: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.CONFLICT)
+                    .body(e.getMessage())
+                    .build();
+        } catch (IllegalArgumentException e) {
+            context.getLogger().warning("Verification failed: " + e.getMessage());
+            return request.createResponseBuilder(HttpStatus.BAD_REQUEST)
+                    .body(e.getMessage())
+                    .build();
         } catch (Exception e) {
             context.getLogger().severe("Error during verification: " + e.getMessage());
             return request.createResponseBuilder(HttpStatus.INTERNAL_SERVER_ERROR)
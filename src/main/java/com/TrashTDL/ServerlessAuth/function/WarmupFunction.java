@@ -0,0 +1,67 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.service.WarmupService;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.TimerTrigger;
+import com.microsoft.azure.functions.annotation.WarmupTrigger;
+
+/**
+ * Warms an instance before user traffic reaches it. The host calls {@code Warmup} on every instance it adds
+ * during a scale-out (Premium and Flex Consumption plans only).
+ * <p>
+ * {@code WarmupTimer} is a keep-alive, not a scale-out warm-up: like every timer it holds a singleton lock and runs
+ * on one instance at a time, so it keeps that instance's context, connections and compiled code warm but never
+ * reaches an instance added later. It is kept on purpose for the Consumption plan, which has no warm-up trigger.
+ * {@code application.warmup.timer-enabled} or {@code WARMUP_TIMER_ENABLED} set to {@code false} turns it off, for
+ * plans that keep instances warm anyway. The context start and every warm-up step are logged with their durations.
+ */
+public class WarmupFunction {
+
+    @FunctionName("Warmup")
+    public void onScaleOut(
+            @WarmupTrigger(name = "warmupContext") Object warmupContext,
+            final ExecutionContext context) {
+
+        context.getLogger().info("Warm-up triggered by a new instance.");
+        warmUp(context);
+    }
+
+    @FunctionName("WarmupTimer")
+    public void run(
+            @TimerTrigger(name = "timer", schedule = "0 */5 * * * *") String timerInfo,
+            final ExecutionContext context) {
+
+        if (!timerEnabled()) {
+            return;
+        }
+        warmUp(context);
+    }
+
+    static boolean timerEnabled() {
+        String value = System.getProperty("application.warmup.timer-enabled");
+        return !"false".equalsIgnoreCase(value != null ? value : System.getenv("WARMUP_TIMER_ENABLED"));
+    }
+
+    private static void warmUp(ExecutionContext context) {
+        try {
+            long start = System.nanoTime();
+            WarmupService warmupService = SpringContextHolder.getBean(WarmupService.class);
+            long contextMillis = (System.nanoTime() - start) / 1_000_000;
+
+            WarmupService.WarmupResult result = warmupService.warmUp();
+            context.getLogger().info("Warm-up: context " + contextMillis + " ms, " + result.connections()
+                    + " connections " + result.connectionMillis() + " ms, " + result.statementsPrepared()
+                    + " statements " + result.statementMillis() + " ms, tokens " + result.tokenMillis()
+                    + " ms, validation " + result.validationMillis() + " ms, mapper " + result.mapperMillis()
+                    + " ms (total " + (contextMillis + result.totalMillis()) + " ms).");
+            if (!result.failures().isEmpty()) {
+                context.getLogger().warning("Warm-up steps failed: " + String.join("; ", result.failures()));
+            }
+        } catch (Exception e) {
+            // Requests still work without it, they just pay for the warm-up themselves
+            context.getLogger().severe("Warm-up failed: " + e.getMessage());
+        }
+    }
+}
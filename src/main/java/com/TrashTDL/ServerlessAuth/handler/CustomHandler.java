@@ -0,0 +1,293 @@
+package com.TrashTDL.ServerlessAuth.handler;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.dto.LoginRequest;
+import com.TrashTDL.ServerlessAuth.dto.RefreshRequest;
+import com.TrashTDL.ServerlessAuth.dto.RegisterRequest;
+import com.TrashTDL.ServerlessAuth.dto.SyncRequest;
+import com.TrashTDL.ServerlessAuth.function.AccountPurgeFunction;
+import com.TrashTDL.ServerlessAuth.function.AvailabilityFunction;
+import com.TrashTDL.ServerlessAuth.function.FoldersFunction;
+import com.TrashTDL.ServerlessAuth.function.JwksFunction;
+import com.TrashTDL.ServerlessAuth.function.LoginFunction;
+import com.TrashTDL.ServerlessAuth.function.LogoutFunction;
+import com.TrashTDL.ServerlessAuth.function.MailOutboxFunction;
+import com.TrashTDL.ServerlessAuth.function.PendingUserSweepFunction;
+import com.TrashTDL.ServerlessAuth.function.RefreshFunction;
+import com.TrashTDL.ServerlessAuth.function.RegisterFunction;
+import com.TrashTDL.ServerlessAuth.function.SyncFunction;
+import com.TrashTDL.ServerlessAuth.function.UserImportFunction;
+import com.TrashTDL.ServerlessAuth.function.VerifyFunction;
+import com.TrashTDL.ServerlessAuth.function.WarmupFunction;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpMethod;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Entry point for running the app as an Azure Functions custom handler, which is how the native image is deployed
+ * (see the {@code native} Maven profile and {@code src/main/azure-native}).
+ * <p>
+ * The host forwards HTTP requests unchanged ({@code enableForwardingHttpRequest}) and posts timer invocations to
+ * {@code /<FunctionName>}. Both are dispatched to the same function classes the Java worker calls, through small
+ * adapters for {@link HttpRequestMessage} and {@link ExecutionContext}, so routes, status codes and bodies match
+ * the JVM deployment. The Spring context boots in the background as soon as the process starts.
+ */
+public final class CustomHandler {
+
+    private static final Logger log = Logger.getLogger(CustomHandler.class.getName());
+
+    private static final String ROUTE_PREFIX = "/api/";
+
+    // Null fields are left out, as the Java worker does when it serializes a response body
+    static final ObjectMapper JSON = new ObjectMapper()
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final byte[] TIMER_RESULT = "{\"Outputs\":{},\"Logs\":[],\"ReturnValue\":null}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private static final Map<String, Route> ROUTES = new LinkedHashMap<>();
+    private static final Map<String, Route> TIMERS = new LinkedHashMap<>();
+
+    static {
+        http("POST", "auth/register", "Register", RegisterRequest.class, new RegisterFunction()::run);
+        http("GET", "auth/verify", "Verify", Void.class, new VerifyFunction()::run);
+        http("POST", "auth/login", "Login", LoginRequest.class, new LoginFunction()::run);
+        http("POST", "auth/refresh", "Refresh", RefreshRequest.class, new RefreshFunction()::run);
+        http("POST", "auth/logout", "Logout", RefreshRequest.class, new LogoutFunction()::run);
+        http("GET", "auth/availability", "Availability", Void.class, new AvailabilityFunction()::run);
+        http("GET", ".well-known/jwks.json", "Jwks", Void.class, new JwksFunction()::run);
+        http("GET", "v2/folders", "GetFolders", Void.class, new FoldersFunction()::run);
+        http("POST", "v2/sync/commands", "SyncCommands", SyncRequest.class, new SyncFunction()::run);
+        UserImportFunction userImport = new UserImportFunction();
+        ROUTES.put("POST admin/users/import", new Route("UserImport",
+                raw -> Optional.ofNullable(raw == null || raw.isEmpty() ? null : raw),
+                (request, context) -> userImport.run(cast(request), context)));
+        timer("PendingUserSweep", new PendingUserSweepFunction()::run);
+        timer("MailOutbox", new MailOutboxFunction()::run);
+        timer("AccountPurge", new AccountPurgeFunction()::run);
+        WarmupFunction warmup = new WarmupFunction();
+        timer("Warmup", warmup::onScaleOut);
+        timer("WarmupTimer", warmup::run);
+    }
+
+    private CustomHandler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(Optional.ofNullable(System.getenv("FUNCTIONS_CUSTOMHANDLER_PORT")).orElse("8080"));
+        HttpServer server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.createContext("/", CustomHandler::serve);
+        server.setExecutor(Executors.newFixedThreadPool(Math.max(8, Runtime.getRuntime().availableProcessors() * 4)));
+        server.start();
+        log.info("Custom handler listening on port " + port);
+
+        // Requests arriving before the context is up wait for it inside SpringContextHolder
+        Thread boot = new Thread(SpringContextHolder::getContext, "context-boot");
+        boot.setDaemon(true);
+        boot.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            SpringContextHolder.closeContext();
+        }));
+    }
+
+    private static void serve(HttpExchange exchange) throws IOException {
+        try {
+            String body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            Map<String, String> headers = new HashMap<>();
+            exchange.getRequestHeaders().forEach((name, values) -> {
+                if (!values.isEmpty()) {
+                    headers.put(name.toLowerCase(Locale.ROOT), values.get(0));
+                }
+            });
+            Reply reply = handle(exchange.getRequestMethod(), exchange.getRequestURI(), headers, body);
+            reply.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+            exchange.sendResponseHeaders(reply.status(), reply.body().length == 0 ? -1 : reply.body().length);
+            if (reply.body().length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(reply.body());
+                }
+            }
+        } catch (RuntimeException e) {
+            log.severe("Custom handler failed: " + e);
+            // Without a status the host would only see the connection drop
+            if (exchange.getResponseCode() == -1) {
+                exchange.sendResponseHeaders(HttpStatus.INTERNAL_SERVER_ERROR.value(), -1);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Dispatches one request to its function and renders the response; package-private for tests.
+     */
+    static Reply handle(String method, URI uri, Map<String, String> headers, String body) {
+        String path = uri.getPath();
+        boolean http = path.startsWith(ROUTE_PREFIX);
+        String name = http ? path.substring(ROUTE_PREFIX.length()) : path.substring(1);
+        String verb = method.toUpperCase(Locale.ROOT);
+        // Timer invocations arrive as POST /<FunctionName>, outside the HTTP route prefix
+        Route route = http ? ROUTES.get(verb + " " + name) : "POST".equals(verb) ? TIMERS.get(name) : null;
+        if (route == null) {
+            return new Reply(HttpStatus.NOT_FOUND.value(), Map.of(), new byte[0]);
+        }
+        ExecutionContext context = new HandlerContext(route.functionName(), UUID.randomUUID().toString());
+        try {
+            if (!http) {
+                route.invoke(null, context);
+                return new Reply(200, Map.of("content-type", "application/json"), TIMER_RESULT);
+            }
+            HandlerRequest<?> request = new HandlerRequest<>(uri, HttpMethod.valueOf(verb),
+                    headers, queryParameters(uri), route.readBody(body));
+            return render(route.invoke(request, context));
+        } catch (RuntimeException e) {
+            // The Java worker fails the invocation when a function throws; do the same instead of reporting success
+            log.severe(route.functionName() + " failed: " + e);
+            if (!http) {
+                return timerFailure(route.functionName() + " failed: " + e.getMessage());
+            }
+            return new Reply(HttpStatus.INTERNAL_SERVER_ERROR.value(), Map.of("content-type", "text/plain; charset=utf-8"),
+                    "An unexpected error occurred.".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    // A non-success status marks the invocation as failed in the host, which records the log line with it
+    private static Reply timerFailure(String message) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("Outputs", Map.of());
+        result.put("Logs", List.of(message));
+        try {
+            return new Reply(HttpStatus.INTERNAL_SERVER_ERROR.value(), Map.of("content-type", "application/json"),
+                    JSON.writeValueAsBytes(result));
+        } catch (IOException e) {
+            throw new IllegalStateException("Timer result is not serializable: " + e.getMessage(), e);
+        }
+    }
+
+    private static Reply render(HttpResponseMessage response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (response instanceof HandlerResponse handled) {
+            headers.putAll(handled.headers());
+        }
+        Object body = response.getBody();
+        byte[] bytes;
+        if (body == null) {
+            bytes = new byte[0];
+        } else if (body instanceof String text) {
+            bytes = text.getBytes(StandardCharsets.UTF_8);
+            headers.putIfAbsent("content-type", "text/plain; charset=utf-8");
+        } else if (body instanceof byte[] raw) {
+            bytes = raw;
+        } else {
+            try {
+                bytes = JSON.writeValueAsBytes(body);
+            } catch (IOException e) {
+                throw new IllegalStateException("Response body is not serializable: " + e.getMessage(), e);
+            }
+            headers.putIfAbsent("content-type", "application/json");
+        }
+        return new Reply(response.getStatusCode(), headers, bytes);
+    }
+
+    private static Map<String, String> queryParameters(URI uri) {
+        Map<String, String> params = new HashMap<>();
+        String query = uri.getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.putIfAbsent(key, value);
+        }
+        return params;
+    }
+
+    /**
+     * Route names as the Java worker exposes them; tests check they match the {@code @FunctionName} annotations.
+     */
+    static List<String> functionNames() {
+        return Stream.concat(ROUTES.values().stream(), TIMERS.values().stream())
+                .map(Route::functionName)
+                .toList();
+    }
+
+    private static <T> void http(String method, String path, String functionName, Class<T> bodyType,
+                                 BiFunction<HttpRequestMessage<T>, ExecutionContext, HttpResponseMessage> function) {
+        ROUTES.put(method + " " + path, new Route(functionName,
+                raw -> readJson(raw, bodyType),
+                (request, context) -> function.apply(cast(request), context)));
+    }
+
+    private static void timer(String functionName, BiConsumer<String, ExecutionContext> function) {
+        TIMERS.put(functionName, new Route(functionName, raw -> null, (request, context) -> {
+            function.accept("{}", context);
+            return null;
+        }));
+    }
+
+    // A missing or malformed body reaches the function as null, which every function answers with 400
+    private static <T> T readJson(String raw, Class<T> type) {
+        if (type == Void.class || raw == null || raw.isBlank()) {
+            return null;
+        }
+        try {
+            return JSON.readValue(raw, type);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> HttpRequestMessage<T> cast(HttpRequestMessage<?> request) {
+        return (HttpRequestMessage<T>) request;
+    }
+
+    record Reply(int status, Map<String, String> headers, byte[] body) { }
+
+    private record Route(String functionName, Function<String, Object> bodyReader,
+                         BiFunction<HttpRequestMessage<?>, ExecutionContext, HttpResponseMessage> invoker) {
+
+        Object readBody(String raw) {
+            return bodyReader.apply(raw);
+        }
+
+        HttpResponseMessage invoke(HttpRequestMessage<?> request, ExecutionContext context) {
+            return invoker.apply(request, context);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.TrashTDL.ServerlessAuth.handler;
+
+import com.microsoft.azure.functions.ExecutionContext;
+
+import java.util.logging.Logger;
+
+// Log records go to stdout, which the host collects from custom handlers
+record HandlerContext(String functionName, String invocationId) implements ExecutionContext {
+
+    @Override
+    public Logger getLogger() {
+        return Logger.getLogger("Function." + functionName);
+    }
+
+    @Override
+    public String getInvocationId() {
+        return invocationId;
+    }
+
+    @Override
+    public String getFunctionName() {
+        return functionName;
+    }
+}
@@ -0,0 +1,53 @@
+package com.TrashTDL.ServerlessAuth.handler;
+
+import com.microsoft.azure.functions.HttpMethod;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import com.microsoft.azure.functions.HttpStatusType;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * The {@link HttpRequestMessage} the function classes expect, built from a request forwarded by the host.
+ * Header names are lower-case, as the Java worker delivers them.
+ */
+record HandlerRequest<T>(URI uri, HttpMethod method, Map<String, String> headers,
+                         Map<String, String> queryParameters, T body) implements HttpRequestMessage<T> {
+
+    @Override
+    public URI getUri() {
+        return uri;
+    }
+
+    @Override
+    public HttpMethod getHttpMethod() {
+        return method;
+    }
+
+    @Override
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public Map<String, String> getQueryParameters() {
+        return queryParameters;
+    }
+
+    @Override
+    public T getBody() {
+        return body;
+    }
+
+    @Override
+    public HttpResponseMessage.Builder createResponseBuilder(HttpStatus status) {
+        return new HandlerResponse.Builder().status(status);
+    }
+
+    @Override
+    public HttpResponseMessage.Builder createResponseBuilder(HttpStatusType status) {
+        return new HandlerResponse.Builder().status(status);
+    }
+}
@@ -0,0 +1,56 @@
+package com.TrashTDL.ServerlessAuth.handler;
+
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import com.microsoft.azure.functions.HttpStatusType;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+record HandlerResponse(HttpStatusType status, Map<String, String> headers, Object body) implements HttpResponseMessage {
+
+    @Override
+    public HttpStatusType getStatus() {
+        return status;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public Object getBody() {
+        return body;
+    }
+
+    static final class Builder implements HttpResponseMessage.Builder {
+        private HttpStatusType status = HttpStatus.OK;
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private Object body;
+
+        @Override
+        public Builder status(HttpStatusType status) {
+            this.status = status;
+            return this;
+        }
+
+        @Override
+        public Builder header(String name, String value) {
+            headers.put(name.toLowerCase(Locale.ROOT), value);
+            return this;
+        }
+
+        @Override
+        public Builder body(Object body) {
+            this.body = body;
+            return this;
+        }
+
+        @Override
+        public HandlerResponse build() {
+            return new HandlerResponse(status, Map.copyOf(headers), body);
+        }
+    }
+}
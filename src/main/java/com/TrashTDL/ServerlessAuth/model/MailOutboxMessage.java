@@ -0,0 +1,54 @@
+package com.TrashTDL.ServerlessAuth.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * An e-mail waiting in the outbox. {@code nextAttemptAt} is pushed forward both when a dispatcher claims the
+ * row (a lease, so a crashed dispatcher's batch is retried) and after a failed attempt (backoff).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "mail_outbox", schema = "todo")
+public class MailOutboxMessage {
+
+    @Id
+    @Column(name = "message_id")
+    private UUID messageId;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false)
+    private String body;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "dead_at")
+    private OffsetDateTime deadAt;
+}
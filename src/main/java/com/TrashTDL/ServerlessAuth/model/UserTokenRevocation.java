@@ -0,0 +1,33 @@
+package com.TrashTDL.ServerlessAuth.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Per-user cut-off: every access token of the user issued at or before {@code revokedBefore} is rejected.
+ * Written by "log out everywhere".
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "user_token_revocations", schema = "todo")
+public class UserTokenRevocation {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "revoked_before", nullable = false)
+    private OffsetDateTime revokedBefore;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
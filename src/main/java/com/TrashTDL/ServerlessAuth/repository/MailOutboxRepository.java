@@ -0,0 +1,52 @@
+package com.TrashTDL.ServerlessAuth.repository;
+
+import com.TrashTDL.ServerlessAuth.model.MailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutboxMessage, UUID> {
+
+    // Leases up to batchSize due messages to the caller; rows claimed by a concurrent dispatcher are skipped
+    @Transactional
+    @Query(value = """
+            update todo.mail_outbox
+            set next_attempt_at = :leaseUntil
+            where message_id in (
+                select message_id from todo.mail_outbox
+                where dead_at is null and next_attempt_at <= now()
+                order by next_attempt_at
+                limit :batchSize
+                for update skip locked
+            )
+            returning *
+            """, nativeQuery = true)
+    List<MailOutboxMessage> claimDue(@Param("batchSize") int batchSize, @Param("leaseUntil") OffsetDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("delete from MailOutboxMessage m where m.messageId in :ids")
+    int deleteDelivered(@Param("ids") Collection<UUID> ids);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update MailOutboxMessage m
+            set m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, m.lastError = :error, m.deadAt = :deadAt
+            where m.messageId = :id
+            """)
+    int recordFailure(@Param("id") UUID id,
+                      @Param("attempts") int attempts,
+                      @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                      @Param("error") String error,
+                      @Param("deadAt") OffsetDateTime deadAt);
+}
@@ -1,11 +1,20 @@
 package com.TrashTDL.ServerlessAuth.repository;
 
 import com.TrashTDL.ServerlessAuth.model.PendingUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface PendingUserRepository extends JpaRepository<PendingUser, UUID> {
@@ -13,4 +22,130 @@ public interface PendingUserRepository extends JpaRepository<PendingUser, UUID>
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
     Optional<PendingUser> findByEmail(String email);
+
+    // Whether the e-mail (in any case, as the lower(email) unique indexes see it) and username are taken by an
+    // active or a pending account, in one round trip
+    @Query(value = """
+            select exists(select 1 from todo.users where lower(email) = lower(:email))
+                       or exists(select 1 from todo.pending_users where lower(email) = lower(:email)) as "emailTaken",
+                   exists(select 1 from todo.users where username = :username)
+                       or exists(select 1 from todo.pending_users where username = :username) as "usernameTaken"
+            """, nativeQuery = true)
+    Availability checkAvailability(@Param("email") String email, @Param("username") String username);
+
+    // Returns 0 instead of failing when a unique index already holds the e-mail, username or code
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into todo.pending_users (pending_id, username, email, password_hash, created_at, verification_code)
+            values (:pendingId, :username, :email, :passwordHash, now(), :verificationCode)
+            on conflict do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("pendingId") UUID pendingId,
+                       @Param("username") String username,
+                       @Param("email") String email,
+                       @Param("passwordHash") String passwordHash,
+                       @Param("verificationCode") String verificationCode);
+
+    /**
+     * Like {@link #insertIfAbsent}, and in the same statement queues the verification e-mail in the outbox.
+     * Either both rows are written or, on a conflict, neither.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            with pending as (
+                insert into todo.pending_users (pending_id, username, email, password_hash, created_at, verification_code)
+                values (:pendingId, :username, :email, :passwordHash, now(), :verificationCode)
+                on conflict do nothing
+                returning email
+            )
+            insert into todo.mail_outbox (message_id, recipient, subject, body, created_at, attempts, next_attempt_at)
+            select :messageId, email, :subject, :body, now(), 0, now()
+            from pending
+            """, nativeQuery = true)
+    int insertIfAbsentWithMail(@Param("pendingId") UUID pendingId,
+                               @Param("username") String username,
+                               @Param("email") String email,
+                               @Param("passwordHash") String passwordHash,
+                               @Param("verificationCode") String verificationCode,
+                               @Param("messageId") UUID messageId,
+                               @Param("subject") String subject,
+                               @Param("body") String body);
+
+    /**
+     * Promotes the pending registration with this code to a user in one statement. The pending row is deleted
+     * whether or not it is still within {@code validMinutes}; only a fresh one is inserted into {@code users}.
+     * A fresh one whose e-mail or username an active account took in the meantime is not inserted either and
+     * comes back as {@code TAKEN}.
+     */
+    @Transactional
+    @Query(value = """
+            with claimed as (
+                delete from todo.pending_users
+                where verification_code = :code
+                returning username, email, password_hash, created_at
+            ), promoted as (
+                insert into todo.users (user_id, username, email, password_hash, created_at, token_version)
+                select gen_random_uuid(), username, email, password_hash, now(), 0
+                from claimed
+                where created_at >= now() - make_interval(mins => :validMinutes)
+                on conflict do nothing
+                returning user_id
+            )
+            select case when p.user_id is not null then 'VERIFIED'
+                        when c.created_at >= now() - make_interval(mins => :validMinutes) then 'TAKEN'
+                        when c.email is not null then 'EXPIRED'
+                        else 'UNKNOWN' end as "outcome",
+                   p.user_id as "userId",
+                   c.email as "email",
+                   c.username as "username"
+            from (select 1) as one
+            left join claimed c on true
+            left join promoted p on true
+            """, nativeQuery = true)
+    Promotion promote(@Param("code") String code, @Param("validMinutes") int validMinutes);
+
+    // Oldest first, at most batchSize rows; rows locked by a concurrent sweep or verification are skipped
+    @Modifying
+    @Transactional
+    @Query(value = """
+            delete from todo.pending_users
+            where pending_id in (
+                select pending_id from todo.pending_users
+                where created_at < :cutoff
+                order by created_at
+                limit :batchSize
+                for update skip locked
+            )
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") OffsetDateTime cutoff, @Param("batchSize") int batchSize);
+
+    // Every e-mail and username held by an active or pending account created after `since`, lower-cased
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = """
+            select lower(email) as "email", lower(username) as "username" from todo.users where created_at > :since
+            union all
+            select lower(email) as "email", lower(username) as "username" from todo.pending_users where created_at > :since
+            """, nativeQuery = true)
+    Stream<Identity> streamIdentitiesCreatedAfter(@Param("since") OffsetDateTime since);
+
+    interface Identity {
+        String getEmail();
+        String getUsername();
+    }
+
+    interface Promotion {
+        VerificationOutcome getOutcome();
+        UUID getUserId();
+        String getEmail();
+        String getUsername();
+    }
+
+    enum VerificationOutcome { VERIFIED, EXPIRED, TAKEN, UNKNOWN }
+
+    interface Availability {
+        boolean getEmailTaken();
+        boolean getUsernameTaken();
+    }
 }
@@ -0,0 +1,33 @@
+package com.TrashTDL.ServerlessAuth.repository;
+
+import com.TrashTDL.ServerlessAuth.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
+
+    // Loads the owning user in the same round trip; token_hash is unique so this is a single index lookup
+    @Query("select r from RefreshToken r join fetch r.user where r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashWithUser(@Param("tokenHash") String tokenHash);
+
+    // Claims the token for rotation; returns 0 if another request already used or revoked it
+    @Modifying
+    @Query("update RefreshToken r set r.rotatedAt = :now where r.tokenId = :tokenId and r.rotatedAt is null and r.revokedAt is null")
+    int markRotated(@Param("tokenId") UUID tokenId, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now where r.familyId = :familyId and r.revokedAt is null")
+    int revokeFamily(@Param("familyId") UUID familyId, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now where r.user.userId = :userId and r.revokedAt is null")
+    int revokeAllForUser(@Param("userId") UUID userId, @Param("now") OffsetDateTime now);
+}
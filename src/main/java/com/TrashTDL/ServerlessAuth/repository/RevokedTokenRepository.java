@@ -0,0 +1,14 @@
+package com.TrashTDL.ServerlessAuth.repository;
+
+import com.TrashTDL.ServerlessAuth.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+    List<RevokedToken> findByExpiresAtAfter(OffsetDateTime now);
+    List<RevokedToken> findByRevokedAtAfter(OffsetDateTime since);
+}
@@ -2,8 +2,12 @@ package com.TrashTDL.ServerlessAuth.repository;
 
 import com.TrashTDL.ServerlessAuth.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +17,17 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
     boolean existsByEmail(String email);
     boolean existsByUsername(String username);
+
+    // Login accepts either identifier; at most one row matches each, so this returns up to two users.
+    // E-mails match regardless of case, served by users_email_lower_uq; usernames match exactly.
+    @Query("select u from User u where lower(u.email) = lower(:identifier) or u.username = :identifier")
+    List<User> findAllByEmailOrUsername(@Param("identifier") String identifier);
+
+    // Empty for unknown or soft-deleted users
+    @Query("select u.tokenVersion from User u where u.userId = :userId and u.deletedAt is null")
+    Optional<Integer> findActiveTokenVersion(@Param("userId") UUID userId);
+
+    @Modifying
+    @Query("update User u set u.tokenVersion = u.tokenVersion + 1 where u.userId = :userId")
+    int incrementTokenVersion(@Param("userId") UUID userId);
 }
@@ -0,0 +1,26 @@
+package com.TrashTDL.ServerlessAuth.repository;
+
+import com.TrashTDL.ServerlessAuth.model.UserTokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserTokenRevocationRepository extends JpaRepository<UserTokenRevocation, UUID> {
+    List<UserTokenRevocation> findByUpdatedAtAfter(OffsetDateTime since);
+
+    List<UserTokenRevocation> findByRevokedBeforeAfter(OffsetDateTime cutoff);
+
+    // Cut-offs older than the longest-lived access token no longer match any token that could still be presented
+    @Modifying
+    @Transactional
+    @Query("delete from UserTokenRevocation u where u.revokedBefore < :cutoff")
+    int deleteRevokedBefore(@Param("cutoff") OffsetDateTime cutoff);
+}
@@ -0,0 +1,50 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import java.util.UUID;
+
+/**
+ * Outcome of authenticating a request's bearer token. Only {@link Status#OK} carries a token.
+ */
+public record AuthResult(Status status, VerifiedToken token) {
+
+    public enum Status {
+        OK,
+        /** No {@code Authorization: Bearer} header was sent. */
+        MISSING,
+        /** Malformed, tampered with, revoked or superseded by a newer token version. */
+        INVALID,
+        EXPIRED
+    }
+
+    private static final AuthResult MISSING = new AuthResult(Status.MISSING, null);
+    private static final AuthResult INVALID = new AuthResult(Status.INVALID, null);
+    private static final AuthResult EXPIRED = new AuthResult(Status.EXPIRED, null);
+
+    public static AuthResult ok(VerifiedToken token) {
+        return new AuthResult(Status.OK, token);
+    }
+
+    public static AuthResult missing() {
+        return MISSING;
+    }
+
+    public static AuthResult invalid() {
+        return INVALID;
+    }
+
+    public static AuthResult expired() {
+        return EXPIRED;
+    }
+
+    public boolean isAuthenticated() {
+        return status == Status.OK;
+    }
+
+    public UUID userId() {
+        return token != null ? token.userId() : null;
+    }
+
+    public String subject() {
+        return token != null ? token.subject() : null;
+    }
+}
@@ -0,0 +1,186 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import com.TrashTDL.ServerlessAuth.exception.PasswordHashingUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a (slow, CPU-bound) password encoder on its own small thread pool instead of the request thread.
+ * <p>
+ * The pool is sized to a share of the CPUs so a burst of logins cannot take every core away from other
+ * requests. Work beyond the pool waits in a bounded queue; when the queue is full, or a task has waited longer
+ * than the queue timeout by the time a thread picks it up, the caller gets a
+ * {@link PasswordHashingUnavailableException} (503) instead of piling up more latency. A caller never waits longer
+ * than the queue timeout plus the hash timeout: past that its task is cancelled and it gets the same 503, even
+ * while the task is still queued behind a backlog.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long queueTimeoutNanos;
+    private final long hashTimeoutNanos;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long queueTimeoutMillis,
+                                  long hashTimeoutMillis) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("threads and queueCapacity must be positive");
+        }
+        this.delegate = delegate;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.hashTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(hashTimeoutMillis);
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        // Idle instances should not keep hashing threads alive
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Pool size for a share of the available processors, never less than one thread.
+     */
+    public static int threadsForCpuShare(double cpuShare) {
+        return Math.max(1, (int) Math.round(Runtime.getRuntime().availableProcessors() * cpuShare));
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Usually a look at the hash prefix, but a delegate may hash to decide; it gets the same bounds
+        return run(() -> delegate.upgradeEncoding(encodedPassword));
+    }
+
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    public Stats stats() {
+        long done = completed.sum();
+        return new Stats(
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                done,
+                rejected.sum(),
+                timedOut.sum(),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(hashNanos.sum() / done),
+                TimeUnit.NANOSECONDS.toMicros(maxHashNanos.get()),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queueWaitNanos.sum() / done)
+        );
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> work) {
+        final long enqueuedAt = System.nanoTime();
+        final Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                if (startedAt - enqueuedAt > queueTimeoutNanos) {
+                    throw new QueueTimeoutException();
+                }
+                try {
+                    return work.call();
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulate(elapsed);
+                    queueWaitNanos.add(startedAt - enqueuedAt);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue is full ({} waiting); rejecting request", executor.getQueue().size());
+            throw new PasswordHashingUnavailableException("Too many sign-in requests, please retry shortly.");
+        }
+
+        try {
+            return future.get(queueTimeoutNanos + hashTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Still queued behind a backlog or hashing too long; give the caller its answer now
+            future.cancel(true);
+            timedOut.increment();
+            log.warn("Password hashing request took longer than {} ms; rejecting it",
+                    TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos + hashTimeoutNanos));
+            throw new PasswordHashingUnavailableException("Too many sign-in requests, please retry shortly.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof QueueTimeoutException) {
+                timedOut.increment();
+                log.warn("Password hashing request waited longer than {} ms; rejecting it",
+                        TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos));
+                throw new PasswordHashingUnavailableException("Too many sign-in requests, please retry shortly.");
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Password hashing was interrupted.");
+        }
+    }
+
+    /**
+     * Point-in-time view of the pool: queue depth and active threads now, the rest since startup.
+     * Latencies are averages in microseconds.
+     */
+    public record Stats(int queueDepth, int activeThreads, long completed, long rejected, long timedOut,
+                        long averageHashMicros, long maxHashMicros, long averageQueueWaitMicros) {
+    }
+
+    private static final class QueueTimeoutException extends RuntimeException {
+        QueueTimeoutException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class HashThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
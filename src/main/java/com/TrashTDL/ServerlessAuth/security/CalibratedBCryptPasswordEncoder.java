@@ -0,0 +1,157 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * BCrypt encoder whose cost is chosen for the machine it runs on.
+ * <p>
+ * {@link #calibrateCost} times a hash at the minimum cost and picks the highest cost whose estimated hash time
+ * still fits the latency budget (each extra cost step doubles the work). {@link #upgradeEncoding} only flags hashes
+ * weaker than our cost: instances that calibrate differently then move a password up once instead of rehashing it
+ * back and forth on every login.
+ * <p>
+ * An encoder from {@link #calibrated} is measured by {@link #calibrate}, which the application runs once in the
+ * background after startup, never on a request. Until then it hashes at the floor cost and asks for no upgrades;
+ * {@link #matches} reads the cost from the stored hash and never needs the calibration.
+ */
+public class CalibratedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+
+    // The strength of a BCryptPasswordEncoder only applies to encode; matches takes it from the hash
+    private static final BCryptPasswordEncoder MATCHER = new BCryptPasswordEncoder();
+
+    private final IntSupplier costSource;
+    // Used until the calibration has run
+    private final BCryptPasswordEncoder floor;
+    private volatile int cost;
+    private volatile BCryptPasswordEncoder encoder;
+
+    public CalibratedBCryptPasswordEncoder(int cost) {
+        this.costSource = () -> cost;
+        this.cost = cost;
+        this.encoder = new BCryptPasswordEncoder(cost);
+        this.floor = encoder;
+    }
+
+    private CalibratedBCryptPasswordEncoder(IntSupplier costSource, int floorCost) {
+        this.costSource = costSource;
+        this.cost = floorCost;
+        this.floor = new BCryptPasswordEncoder(floorCost);
+    }
+
+    /**
+     * An encoder whose cost is chosen with {@link #calibrateCost} when {@link #calibrate} runs.
+     */
+    public static CalibratedBCryptPasswordEncoder calibrated(long budgetMillis, int minCost, int maxCost) {
+        // Checked here so a bad configuration still fails the context start instead of the first registration
+        chooseCost(1, minCost, maxCost, 1);
+        return new CalibratedBCryptPasswordEncoder(() -> calibrateCost(budgetMillis, minCost, maxCost), minCost);
+    }
+
+    /**
+     * Measures the machine and switches to the calibrated cost; does nothing once that has happened.
+     */
+    public void calibrate() {
+        if (encoder != null) {
+            return;
+        }
+        synchronized (this) {
+            if (encoder == null) {
+                int calibrated = costSource.getAsInt();
+                // Cost first, so a thread that sees the new encoder also sees its cost
+                cost = calibrated;
+                encoder = new BCryptPasswordEncoder(calibrated);
+            }
+        }
+    }
+
+    public boolean isCalibrated() {
+        return encoder != null;
+    }
+
+    /**
+     * The calibrated cost, or the floor while the calibration has not run.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        BCryptPasswordEncoder current = encoder;
+        return (current != null ? current : floor).encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return MATCHER.matches(rawPassword, encodedPassword);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encoder == null) {
+            // The target is not known yet; a hash written now would have to be redone after the calibration
+            return false;
+        }
+        int stored = costOf(encodedPassword);
+        return stored > 0 && stored < getCost();
+    }
+
+    /**
+     * Measures this machine and returns the cost to use; see {@link #chooseCost}.
+     */
+    public static int calibrateCost(long budgetMillis, int minCost, int maxCost) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minCost);
+        probe.encode("calibration"); // warm up the JIT before timing
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        int chosen = chooseCost(TimeUnit.MILLISECONDS.toNanos(budgetMillis), minCost, maxCost, best);
+        log.info("BCrypt cost calibrated to {} (cost {} took {} ms, budget {} ms)",
+                chosen, minCost, TimeUnit.NANOSECONDS.toMillis(best), budgetMillis);
+        return chosen;
+    }
+
+    /**
+     * Highest cost in {@code [minCost, maxCost]} whose estimated hash time fits the budget, given the time one
+     * hash takes at {@code minCost}. Never returns less than {@code minCost}, however slow the machine.
+     */
+    public static int chooseCost(long budgetNanos, int minCost, int maxCost, long nanosAtMinCost) {
+        if (minCost < 4 || maxCost > 31 || minCost > maxCost) {
+            throw new IllegalArgumentException("BCrypt costs must satisfy 4 <= min <= max <= 31");
+        }
+        int chosen = minCost;
+        long estimate = Math.max(1, nanosAtMinCost);
+        while (chosen < maxCost && estimate * 2 <= budgetNanos) {
+            estimate *= 2;
+            chosen++;
+        }
+        return chosen;
+    }
+
+    /**
+     * The cost of a {@code $2a$NN$...} hash, or {@code -1} if it is not a BCrypt hash.
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7
+                || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = encodedPassword.charAt(4);
+        char ones = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
@@ -0,0 +1,430 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Hand-rolled signer/verifier for the one token shape we issue with the HMAC secret:
+ * a bare {@code {"alg":"HSxxx"}} header and a payload of {@code ver}, {@code userId}, {@code jti}, {@code sub},
+ * {@code iat} and {@code exp}.
+ * <p>
+ * It produces exactly the bytes jjwt produces for the same claims, but without jjwt's builder, claim maps,
+ * JSON trees and intermediate Base64 strings: each thread reuses its own {@link Mac} and scratch buffers, the
+ * encoded header is computed once and the payload is read with a streaming parser. Anything it does not recognise,
+ * including tokens that fail verification, is reported as {@code null} so the caller can fall back to jjwt,
+ * which stays the authority on what is rejected and why.
+ */
+public final class HmacTokenCodec {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final byte[] BASE64URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final int[] BASE64URL_VALUES = new int[128];
+
+    static {
+        Arrays.fill(BASE64URL_VALUES, -1);
+        for (int i = 0; i < BASE64URL.length; i++) {
+            BASE64URL_VALUES[BASE64URL[i]] = i;
+        }
+    }
+
+    private final SecretKey key;
+    private final String macAlgorithm;
+    private final byte[] encodedHeader;
+    private final String encodedHeaderString;
+    private final ThreadLocal<Scratch> scratch;
+
+    private HmacTokenCodec(SecretKey key, String jwsAlgorithm, String macAlgorithm) {
+        this.key = key;
+        this.macAlgorithm = macAlgorithm;
+        byte[] header = ("{\"alg\":\"" + jwsAlgorithm + "\"}").getBytes(StandardCharsets.US_ASCII);
+        byte[] encoded = new byte[encodedLength(header.length)];
+        encode(header, header.length, encoded, 0);
+        this.encodedHeader = encoded;
+        this.encodedHeaderString = new String(encoded, StandardCharsets.US_ASCII);
+        this.scratch = ThreadLocal.withInitial(this::newScratch);
+    }
+
+    /**
+     * Creates a codec for the HMAC algorithm jjwt derives from the key length (HS256, HS384 or HS512).
+     */
+    public static HmacTokenCodec forKey(SecretKey key) {
+        int bits = key.getEncoded().length * 8;
+        if (bits >= 512) {
+            return new HmacTokenCodec(key, "HS512", "HmacSHA512");
+        }
+        if (bits >= 384) {
+            return new HmacTokenCodec(key, "HS384", "HmacSHA384");
+        }
+        if (bits >= 256) {
+            return new HmacTokenCodec(key, "HS256", "HmacSHA256");
+        }
+        throw new IllegalArgumentException("HMAC keys must be at least 256 bits");
+    }
+
+    /**
+     * Signs the standard claim set, or returns {@code null} if a value needs JSON escaping and should go through jjwt.
+     */
+    public String sign(UUID userId, int version, String tokenId, String subject, long issuedAtSeconds, long expiresAtSeconds) {
+        if (!isPlainAscii(tokenId) || !isPlainAscii(subject)) {
+            return null;
+        }
+        Scratch s = scratch.get();
+
+        Buffer json = s.json.reset();
+        json.append("{\"ver\":").append(version)
+                .append(",\"userId\":\"").append(userId.toString())
+                .append("\",\"jti\":\"").append(tokenId)
+                .append("\",\"sub\":\"").append(subject)
+                .append("\",\"iat\":").append(issuedAtSeconds)
+                .append(",\"exp\":").append(expiresAtSeconds)
+                .append('}');
+
+        Buffer out = s.token.reset();
+        out.append(encodedHeader, encodedHeader.length).append('.');
+        out.appendBase64(json.bytes, json.length);
+
+        Mac mac = s.mac;
+        mac.update(out.bytes, 0, out.length);
+        try {
+            mac.doFinal(s.signature, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC signing failed", e);
+        }
+        out.append('.').appendBase64(s.signature, s.signature.length);
+        return new String(out.bytes, 0, out.length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Verifies a token of the standard shape that is still valid at {@code nowMillis}.
+     * Returns {@code null} for anything else; the caller must then verify the token with jjwt.
+     */
+    public VerifiedToken verify(String token, long nowMillis) {
+        if (token == null || !token.startsWith(encodedHeaderString)) {
+            return null;
+        }
+        int headerEnd = encodedHeaderString.length();
+        int payloadEnd = token.indexOf('.', headerEnd + 1);
+        if (token.length() <= headerEnd || token.charAt(headerEnd) != '.' || payloadEnd < 0
+                || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return null;
+        }
+
+        Scratch s = scratch.get();
+        Buffer signingInput = s.token.reset();
+        if (!signingInput.appendAscii(token, 0, payloadEnd)) {
+            return null;
+        }
+        Mac mac = s.mac;
+        mac.update(signingInput.bytes, 0, signingInput.length);
+        try {
+            mac.doFinal(s.signature, 0);
+        } catch (GeneralSecurityException e) {
+            return null;
+        }
+        Buffer presented = s.json.reset();
+        if (!presented.appendDecoded(token, payloadEnd + 1, token.length()) || !constantTimeEquals(s.signature, presented)) {
+            return null;
+        }
+
+        Buffer payload = s.json.reset();
+        if (!payload.appendDecoded(token, headerEnd + 1, payloadEnd)) {
+            return null;
+        }
+        return parsePayload(payload, nowMillis);
+    }
+
+    private static VerifiedToken parsePayload(Buffer payload, long nowMillis) {
+        Integer version = null;
+        String userId = null;
+        String tokenId = null;
+        String subject = null;
+        long issuedAt = -1;
+        long expiresAt = -1;
+
+        try (JsonParser parser = JSON.createParser(payload.bytes, 0, payload.length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            JsonToken field;
+            while ((field = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "ver" -> {
+                        if (value != JsonToken.VALUE_NUMBER_INT || parser.getNumberType() != JsonParser.NumberType.INT) return null;
+                        version = parser.getIntValue();
+                    }
+                    case "userId" -> {
+                        if (value != JsonToken.VALUE_STRING) return null;
+                        userId = parser.getText();
+                    }
+                    case "jti" -> {
+                        if (value != JsonToken.VALUE_STRING) return null;
+                        tokenId = parser.getText();
+                    }
+                    case "sub" -> {
+                        if (value != JsonToken.VALUE_STRING) return null;
+                        subject = parser.getText();
+                    }
+                    case "iat" -> {
+                        if (value != JsonToken.VALUE_NUMBER_INT) return null;
+                        issuedAt = parser.getLongValue();
+                    }
+                    case "exp" -> {
+                        if (value != JsonToken.VALUE_NUMBER_INT) return null;
+                        expiresAt = parser.getLongValue();
+                    }
+                    default -> {
+                        // nbf, aud and friends carry rules only jjwt enforces
+                        return null;
+                    }
+                }
+            }
+            if (field != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                return null;
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+
+        if (subject == null || userId == null || issuedAt < 0 || expiresAt < 0) {
+            return null;
+        }
+        // Expired tokens go through jjwt so callers get its ExpiredJwtException
+        if (nowMillis >= expiresAt * 1000) {
+            return null;
+        }
+        final UUID parsedUserId;
+        try {
+            parsedUserId = UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        Date issuedAtDate = new Date(issuedAt * 1000);
+        Date expiresAtDate = new Date(expiresAt * 1000);
+        Map<String, Object> claims = new LinkedHashMap<>(8);
+        if (version != null) {
+            claims.put("ver", version);
+        }
+        claims.put("userId", userId);
+        if (tokenId != null) {
+            claims.put("jti", tokenId);
+        }
+        claims.put("sub", subject);
+        claims.put("iat", issuedAtDate);
+        claims.put("exp", expiresAtDate);
+        return new VerifiedToken(subject, parsedUserId, issuedAtDate.toInstant(), expiresAtDate.toInstant(), claims);
+    }
+
+    private static boolean constantTimeEquals(byte[] expected, Buffer presented) {
+        if (presented.length != expected.length) {
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < expected.length; i++) {
+            diff |= expected[i] ^ presented.bytes[i];
+        }
+        return diff == 0;
+    }
+
+    private static boolean isPlainAscii(String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x20 || c > 0x7e || c == '"' || c == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int encodedLength(int length) {
+        return (length / 3) * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+    }
+
+    private static int encode(byte[] src, int srcLength, byte[] dst, int dstOffset) {
+        int d = dstOffset;
+        int i = 0;
+        for (; i + 2 < srcLength; i += 3) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | (src[i + 2] & 0xff);
+            dst[d++] = BASE64URL[bits >>> 18];
+            dst[d++] = BASE64URL[(bits >>> 12) & 0x3f];
+            dst[d++] = BASE64URL[(bits >>> 6) & 0x3f];
+            dst[d++] = BASE64URL[bits & 0x3f];
+        }
+        int remaining = srcLength - i;
+        if (remaining == 1) {
+            int bits = (src[i] & 0xff) << 16;
+            dst[d++] = BASE64URL[bits >>> 18];
+            dst[d++] = BASE64URL[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8;
+            dst[d++] = BASE64URL[bits >>> 18];
+            dst[d++] = BASE64URL[(bits >>> 12) & 0x3f];
+            dst[d++] = BASE64URL[(bits >>> 6) & 0x3f];
+        }
+        return d;
+    }
+
+    private Scratch newScratch() {
+        try {
+            Mac mac = Mac.getInstance(macAlgorithm);
+            mac.init(key);
+            return new Scratch(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC algorithm " + macAlgorithm + " is unavailable", e);
+        }
+    }
+
+    private static final class Scratch {
+        final Mac mac;
+        final byte[] signature;
+        final Buffer json = new Buffer(256);
+        final Buffer token = new Buffer(512);
+
+        Scratch(Mac mac) {
+            this.mac = mac;
+            this.signature = new byte[mac.getMacLength()];
+        }
+    }
+
+    /**
+     * Growable byte buffer that is reused across calls on the same thread.
+     */
+    private static final class Buffer {
+        byte[] bytes;
+        int length;
+
+        Buffer(int capacity) {
+            this.bytes = new byte[capacity];
+        }
+
+        Buffer reset() {
+            length = 0;
+            return this;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        Buffer append(char c) {
+            ensure(1);
+            bytes[length++] = (byte) c;
+            return this;
+        }
+
+        Buffer append(String ascii) {
+            int n = ascii.length();
+            ensure(n);
+            for (int i = 0; i < n; i++) {
+                bytes[length++] = (byte) ascii.charAt(i);
+            }
+            return this;
+        }
+
+        Buffer append(long value) {
+            if (value == Long.MIN_VALUE) {
+                return append(Long.toString(value));
+            }
+            ensure(20);
+            if (value < 0) {
+                bytes[length++] = '-';
+                value = -value;
+            }
+            int start = length;
+            do {
+                bytes[length++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte t = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = t;
+            }
+            return this;
+        }
+
+        Buffer append(byte[] src, int n) {
+            ensure(n);
+            System.arraycopy(src, 0, bytes, length, n);
+            length += n;
+            return this;
+        }
+
+        Buffer appendBase64(byte[] src, int n) {
+            ensure(encodedLength(n));
+            length = encode(src, n, bytes, length);
+            return this;
+        }
+
+        /**
+         * Copies {@code s[from, to)} as bytes; fails on anything outside ASCII.
+         */
+        boolean appendAscii(String s, int from, int to) {
+            ensure(to - from);
+            for (int i = from; i < to; i++) {
+                char c = s.charAt(i);
+                if (c > 0x7f) {
+                    return false;
+                }
+                bytes[length++] = (byte) c;
+            }
+            return true;
+        }
+
+        /**
+         * Decodes unpadded base64url {@code s[from, to)}; fails on any other character or a dangling sextet.
+         */
+        boolean appendDecoded(String s, int from, int to) {
+            int n = to - from;
+            if (n % 4 == 1) {
+                return false;
+            }
+            ensure(n * 3 / 4 + 3);
+            int bits = 0;
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                char c = s.charAt(i);
+                int v = c < 128 ? BASE64URL_VALUES[c] : -1;
+                if (v < 0) {
+                    return false;
+                }
+                bits = bits << 6 | v;
+                if (++count == 4) {
+                    bytes[length++] = (byte) (bits >> 16);
+                    bytes[length++] = (byte) (bits >> 8);
+                    bytes[length++] = (byte) bits;
+                    bits = 0;
+                    count = 0;
+                }
+            }
+            if (count == 2) {
+                bytes[length++] = (byte) (bits >> 4);
+            } else if (count == 3) {
+                bytes[length++] = (byte) (bits >> 10);
+                bytes[length++] = (byte) (bits >> 2);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.EcPublicJwk;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.OctetPublicJwk;
+import io.jsonwebtoken.security.PrivateJwk;
+import io.jsonwebtoken.security.PublicJwk;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The set of keys used to sign and verify our JWTs.
+ * <p>
+ * Tokens are signed with a single active key: an asymmetric (ES256/EdDSA) private key identified by its
+ * {@code kid} when a JWK set is configured, otherwise the legacy shared HMAC secret. Every public key in the
+ * JWK set stays valid for verification, so a new key can be introduced and an old one retired with an
+ * overlap window. Tokens without a {@code kid} are verified with the HMAC secret, if one is configured.
+ */
+public final class JwtKeyRing {
+
+    private final SecretKey hmacKey;
+    private final SigningKey signingKey;
+    private final Map<String, Key> verificationKeys;
+    private final String jwksJson;
+
+    private JwtKeyRing(SecretKey hmacKey, SigningKey signingKey, Map<String, Key> verificationKeys, String jwksJson) {
+        this.hmacKey = hmacKey;
+        this.signingKey = signingKey;
+        this.verificationKeys = verificationKeys;
+        this.jwksJson = jwksJson;
+    }
+
+    /**
+     * @param hmacSecret base64url HMAC secret, may be blank when only asymmetric keys are used
+     * @param jwks       JWK set JSON holding private keys we can sign with and public keys we still accept, may be blank
+     * @param activeKid  kid of the private key used for signing; optional when the set holds a single private key
+     */
+    public static JwtKeyRing create(String hmacSecret, String jwks, String activeKid) {
+        SecretKey hmacKey = isBlank(hmacSecret) ? null : Keys.hmacShaKeyFor(Decoders.BASE64URL.decode(hmacSecret));
+
+        Map<String, Key> verificationKeys = new LinkedHashMap<>();
+        Map<String, PrivateJwk<?, ?, ?>> privateKeys = new LinkedHashMap<>();
+        List<Map<String, Object>> published = new ArrayList<>();
+
+        if (!isBlank(jwks)) {
+            JwkSet set = Jwks.setParser().build().parse(jwks);
+            for (Jwk<?> jwk : set) {
+                if (isBlank(jwk.getId())) {
+                    throw new IllegalStateException("Every JWT signing key must declare a 'kid'.");
+                }
+                PublicJwk<?> publicJwk;
+                if (jwk instanceof PrivateJwk<?, ?, ?> privateJwk) {
+                    privateKeys.put(jwk.getId(), privateJwk);
+                    publicJwk = privateJwk.toPublicJwk();
+                } else if (jwk instanceof PublicJwk<?> pub) {
+                    publicJwk = pub;
+                } else {
+                    throw new IllegalStateException("Unsupported JWT signing key type '" + jwk.getType() + "' for kid " + jwk.getId());
+                }
+                verificationKeys.put(jwk.getId(), publicJwk.toKey());
+                published.add(toPublishedJwk(publicJwk));
+            }
+        }
+
+        SigningKey signingKey = null;
+        if (!privateKeys.isEmpty()) {
+            String kid = activeKid;
+            if (isBlank(kid)) {
+                if (privateKeys.size() > 1) {
+                    throw new IllegalStateException("Several JWT signing keys are configured; set security.jwt.signing.active-kid.");
+                }
+                kid = privateKeys.keySet().iterator().next();
+            }
+            PrivateJwk<?, ?, ?> active = privateKeys.get(kid);
+            if (active == null) {
+                throw new IllegalStateException("Active JWT signing key '" + kid + "' is not in the configured JWK set.");
+            }
+            signingKey = new SigningKey(kid, (PrivateKey) active.toKey(), algorithmFor(active.toPublicJwk()));
+        }
+
+        if (hmacKey == null && signingKey == null) {
+            throw new IllegalStateException("No JWT signing key configured: set security.jwt.secret-key or security.jwt.signing.jwks.");
+        }
+
+        String jwksJson;
+        try {
+            jwksJson = new ObjectMapper().writeValueAsString(Map.of("keys", published));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize the public JWK set", e);
+        }
+        return new JwtKeyRing(hmacKey, signingKey, Collections.unmodifiableMap(verificationKeys), jwksJson);
+    }
+
+    /**
+     * The asymmetric key tokens are signed with, or {@code null} when signing falls back to the HMAC secret.
+     */
+    public SigningKey getSigningKey() {
+        return signingKey;
+    }
+
+    public SecretKey getHmacKey() {
+        return hmacKey;
+    }
+
+    /**
+     * Resolves the key that must have signed a token carrying the given {@code kid} header.
+     *
+     * @throws UnsupportedJwtException if no key is known for that header
+     */
+    public Key verificationKey(String kid) {
+        if (kid == null) {
+            if (hmacKey == null) {
+                throw new UnsupportedJwtException("Token has no key id and HMAC verification is disabled.");
+            }
+            return hmacKey;
+        }
+        Key key = verificationKeys.get(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+
+    /**
+     * A parser that verifies tokens against this key ring, resolving the key from each token's {@code kid}.
+     */
+    public JwtParser newParser() {
+        return Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return verificationKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Public half of every asymmetric key as a JWKS document ({@code {"keys":[...]}}). Never contains private or HMAC material.
+     */
+    public String getJwksJson() {
+        return jwksJson;
+    }
+
+    private static Map<String, Object> toPublishedJwk(PublicJwk<?> jwk) {
+        Map<String, Object> published = new LinkedHashMap<>(jwk);
+        published.putIfAbsent("use", "sig");
+        published.putIfAbsent("alg", algorithmFor(jwk));
+        return published;
+    }
+
+    private static String algorithmFor(PublicJwk<?> jwk) {
+        if (jwk.getAlgorithm() != null) {
+            return jwk.getAlgorithm();
+        }
+        if (jwk instanceof EcPublicJwk ec) {
+            return switch (String.valueOf(ec.get("crv"))) {
+                case "P-256" -> "ES256";
+                case "P-384" -> "ES384";
+                case "P-521" -> "ES512";
+                default -> throw new IllegalStateException("Unsupported EC curve for kid " + jwk.getId());
+            };
+        }
+        if (jwk instanceof OctetPublicJwk<?>) {
+            return "EdDSA";
+        }
+        throw new IllegalStateException("Unsupported JWT signing key type '" + jwk.getType() + "' for kid " + jwk.getId());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    public record SigningKey(String kid, PrivateKey privateKey, String algorithm) { }
+}
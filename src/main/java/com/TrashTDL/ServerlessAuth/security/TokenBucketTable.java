@@ -0,0 +1,115 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by an arbitrary string (an e-mail, an IP address...), safe for millions of keys.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} packing the remaining tokens (in thousandths) and the time of the
+ * last update, so taking a token is one CAS with no locks; the map itself is a {@link ConcurrentHashMap}.
+ * A bucket left alone long enough to refill completely is indistinguishable from a new one, so idle buckets are
+ * swept once they reach that age. When the table is full, keys without a bucket share one overflow bucket
+ * rather than growing the map or slipping through unthrottled.
+ */
+public class TokenBucketTable {
+
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long ONE_TOKEN = 1000;
+
+    private final long capacity;            // in thousandths of a token
+    private final double refillPerMilli;    // thousandths of a token per millisecond
+    private final long idleMillis;
+    private final int maxKeys;
+    private final long epochMillis;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong overflow;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long lastSweepMillis;
+
+    /**
+     * @param capacity        burst size, in whole tokens
+     * @param refillPerMinute tokens added back per minute
+     * @param maxKeys         buckets kept before new keys fall back to the shared overflow bucket
+     */
+    public TokenBucketTable(int capacity, double refillPerMinute, int maxKeys, long nowMillis) {
+        if (capacity <= 0 || capacity * ONE_TOKEN > TOKEN_MASK || refillPerMinute <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("capacity must be in (0, 16000], refill rate and maxKeys positive");
+        }
+        this.capacity = capacity * ONE_TOKEN;
+        this.refillPerMilli = refillPerMinute * ONE_TOKEN / 60_000d;
+        this.idleMillis = (long) Math.ceil(this.capacity / refillPerMilli);
+        this.maxKeys = maxKeys;
+        this.epochMillis = nowMillis;
+        this.lastSweepMillis = nowMillis;
+        this.overflow = new AtomicLong(pack(this.capacity, 0));
+    }
+
+    /**
+     * Takes one token for the key.
+     *
+     * @return {@code 0} if a token was available, otherwise the milliseconds until one will be
+     */
+    public long tryAcquire(String key, long nowMillis) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                sweep(nowMillis, true);
+            }
+            bucket = buckets.size() < maxKeys
+                    ? buckets.computeIfAbsent(key, k -> new AtomicLong(pack(capacity, nowMillis - epochMillis)))
+                    : overflow;
+        }
+        long result = take(bucket, nowMillis);
+        if (nowMillis - lastSweepMillis >= idleMillis) {
+            sweep(nowMillis, false);
+        }
+        return result;
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private long take(AtomicLong bucket, long nowMillis) {
+        final long now = Math.max(0, nowMillis - epochMillis);
+        while (true) {
+            long state = bucket.get();
+            long last = state >>> TOKEN_BITS;
+            long tokens = state & TOKEN_MASK;
+            long elapsed = Math.max(0, now - last);
+            long refilled = Math.min(capacity, tokens + (long) (elapsed * refillPerMilli));
+            if (refilled >= ONE_TOKEN) {
+                if (bucket.compareAndSet(state, pack(refilled - ONE_TOKEN, Math.max(now, last)))) {
+                    return 0;
+                }
+            } else {
+                // Leave the bucket untouched; the deficit is measured from its last update
+                return Math.max(1, (long) Math.ceil((ONE_TOKEN - refilled) / refillPerMilli));
+            }
+        }
+    }
+
+    private void sweep(long nowMillis, boolean force) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (!force && nowMillis - lastSweepMillis < idleMillis) {
+                return;
+            }
+            lastSweepMillis = nowMillis;
+            final long now = nowMillis - epochMillis;
+            buckets.values().removeIf(bucket -> now - (bucket.get() >>> TOKEN_BITS) >= idleMillis);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static long pack(long tokens, long relativeMillis) {
+        return relativeMillis << TOKEN_BITS | tokens;
+    }
+}
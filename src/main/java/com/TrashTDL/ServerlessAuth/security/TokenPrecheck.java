@@ -0,0 +1,256 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Rejects bearer tokens that can never authenticate before anything touches the Spring context, so junk traffic
+ * to a cold instance is answered without booting it.
+ * <p>
+ * The check needs no beans: it reads the signing keys from the same system properties or environment variables
+ * {@code application.properties} maps them from, checks the token's shape and {@code exp}, then verifies the
+ * signature ({@link HmacTokenCodec} for our standard HMAC tokens, jjwt with the same {@link JwtKeyRing} as
+ * {@code JwtService} for the rest). It only ever rejects tokens the full check rejects too; revocation and token
+ * versions are left to {@code RequestAuthenticator}. When no key can be read this way, only the shape and expiry
+ * are checked. The keys, and jjwt with them, are only loaded once a token gets past the shape and expiry checks,
+ * so rejecting junk costs no more than decoding it.
+ * <p>
+ * The precheck is on by default. Setting {@code security.jwt.precheck.enabled} (or {@code JWT_PRECHECK_ENABLED})
+ * to {@code false} turns it off; functions then leave every token to the full check.
+ */
+public final class TokenPrecheck {
+
+    public enum Verdict {
+        /** Worth a full check; not authenticated yet. */
+        PASS,
+        /** Malformed, unsigned, tampered with or signed with an unknown key. */
+        INVALID,
+        EXPIRED
+    }
+
+    // Our tokens are a few hundred bytes; anything this long is not one of them
+    static final int MAX_TOKEN_LENGTH = 8192;
+
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Base64.Decoder BASE64URL = Base64.getUrlDecoder();
+
+    // Environment variables application.properties maps each setting from
+    private static final Map<String, String> ENVIRONMENT = Map.of(
+            "security.jwt.precheck.enabled", "JWT_PRECHECK_ENABLED",
+            "security.jwt.secret-key", "JWT_SECRET_KEY",
+            "security.jwt.signing.jwks", "JWT_SIGNING_JWKS",
+            "security.jwt.signing.active-kid", "JWT_ACTIVE_KID");
+
+    private static volatile TokenPrecheck shared;
+
+    private final boolean enabled;
+    private final Supplier<JwtKeyRing> keySource;
+    private volatile Keys keys;
+    private volatile JwtParser parser;
+
+    TokenPrecheck(boolean enabled, JwtKeyRing keyRing) {
+        this(enabled, () -> keyRing);
+    }
+
+    private TokenPrecheck(boolean enabled, Supplier<JwtKeyRing> keySource) {
+        this.enabled = enabled;
+        this.keySource = keySource;
+    }
+
+    private record Keys(JwtKeyRing ring, HmacTokenCodec hmacCodec) { }
+
+    /**
+     * The process-wide precheck. Unless one was installed with {@link #setShared}, it is configured from the
+     * {@code security.jwt.*} system properties or the {@code JWT_SECRET_KEY}, {@code JWT_SIGNING_JWKS} and
+     * {@code JWT_ACTIVE_KID} environment variables.
+     */
+    public static TokenPrecheck shared() {
+        TokenPrecheck precheck = shared;
+        if (precheck == null) {
+            synchronized (TokenPrecheck.class) {
+                precheck = shared;
+                if (precheck == null) {
+                    precheck = fromSettings(TokenPrecheck::systemSetting);
+                    shared = precheck;
+                }
+            }
+        }
+        return precheck;
+    }
+
+    /**
+     * Replaces the process-wide precheck, so tests do not depend on the keys in their environment. {@code null}
+     * has the next {@link #shared()} read the settings again.
+     */
+    public static void setShared(TokenPrecheck precheck) {
+        synchronized (TokenPrecheck.class) {
+            shared = precheck;
+        }
+    }
+
+    /**
+     * A precheck configured from {@code settings}, looked up by their {@code security.jwt.*} property names;
+     * a {@code null} value counts as not set.
+     */
+    public static TokenPrecheck fromSettings(Function<String, String> settings) {
+        if ("false".equalsIgnoreCase(settings.apply("security.jwt.precheck.enabled"))) {
+            return new TokenPrecheck(false, () -> null);
+        }
+        return new TokenPrecheck(true, () -> loadKeyRing(settings));
+    }
+
+    public Verdict check(String token) {
+        return check(token, System.currentTimeMillis());
+    }
+
+    Verdict check(String token, long nowMillis) {
+        if (!enabled) {
+            return Verdict.PASS;
+        }
+        long expiresAt = parseShape(token);
+        if (expiresAt == MALFORMED) {
+            return Verdict.INVALID;
+        }
+        if (expiresAt != NO_EXPIRY && nowMillis >= expiresAt * 1000) {
+            return Verdict.EXPIRED;
+        }
+        Keys k = getKeys();
+        if (k.ring() == null) {
+            return Verdict.PASS;
+        }
+        if (k.hmacCodec() != null && k.hmacCodec().verify(token, nowMillis) != null) {
+            return Verdict.PASS;
+        }
+        try {
+            getParser(k.ring()).parseSignedClaims(token);
+            return Verdict.PASS;
+        } catch (ExpiredJwtException e) {
+            return Verdict.EXPIRED;
+        } catch (RuntimeException e) {
+            return Verdict.INVALID;
+        }
+    }
+
+    private static final long MALFORMED = -2;
+    private static final long NO_EXPIRY = -1;
+
+    /**
+     * Checks for three base64url segments with a JSON object header naming an algorithm, a JSON object payload and
+     * a signature. Returns the payload's {@code exp} in seconds, {@link #NO_EXPIRY}, or {@link #MALFORMED}.
+     */
+    private static long parseShape(String token) {
+        if (token == null || token.length() > MAX_TOKEN_LENGTH) {
+            return MALFORMED;
+        }
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd <= headerEnd + 1 || payloadEnd == token.length() - 1
+                || token.indexOf('.', payloadEnd + 1) >= 0) {
+            return MALFORMED;
+        }
+        try {
+            if (!hasAlgorithm(BASE64URL.decode(token.substring(0, headerEnd)))) {
+                return MALFORMED;
+            }
+            BASE64URL.decode(token.substring(payloadEnd + 1));
+            return expiry(BASE64URL.decode(token.substring(headerEnd + 1, payloadEnd)));
+        } catch (IllegalArgumentException e) {
+            return MALFORMED;
+        }
+    }
+
+    private static boolean hasAlgorithm(byte[] header) {
+        try (JsonParser parser = JSON.createParser(header)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            boolean signed = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("alg".equals(name)) {
+                    // Unsecured JWTs are never accepted
+                    signed = value == JsonToken.VALUE_STRING && !"none".equalsIgnoreCase(parser.getText());
+                }
+                parser.skipChildren();
+            }
+            return signed && parser.currentToken() == JsonToken.END_OBJECT && parser.nextToken() == null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long expiry(byte[] payload) {
+        long expiresAt = NO_EXPIRY;
+        try (JsonParser parser = JSON.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return MALFORMED;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("exp".equals(name) && value == JsonToken.VALUE_NUMBER_INT
+                        && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+                    expiresAt = Math.max(parser.getLongValue(), 0);
+                }
+                parser.skipChildren();
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                return MALFORMED;
+            }
+        } catch (IOException e) {
+            return MALFORMED;
+        }
+        return expiresAt;
+    }
+
+    private Keys getKeys() {
+        Keys k = keys;
+        if (k == null) {
+            synchronized (this) {
+                k = keys;
+                if (k == null) {
+                    JwtKeyRing ring = keySource.get();
+                    k = new Keys(ring, ring != null && ring.getHmacKey() != null
+                            ? HmacTokenCodec.forKey(ring.getHmacKey()) : null);
+                    keys = k;
+                }
+            }
+        }
+        return k;
+    }
+
+    private JwtParser getParser(JwtKeyRing ring) {
+        JwtParser p = parser;
+        if (p == null) {
+            p = ring.newParser();
+            parser = p;
+        }
+        return p;
+    }
+
+    private static JwtKeyRing loadKeyRing(Function<String, String> settings) {
+        try {
+            return JwtKeyRing.create(settings.apply("security.jwt.secret-key"),
+                    settings.apply("security.jwt.signing.jwks"),
+                    settings.apply("security.jwt.signing.active-kid"));
+        } catch (RuntimeException e) {
+            // No usable keys outside the context; JwtService reports the configuration problem
+            return null;
+        }
+    }
+
+    private static String systemSetting(String property) {
+        String value = System.getProperty(property);
+        return value != null ? value : System.getenv(ENVIRONMENT.get(property));
+    }
+}
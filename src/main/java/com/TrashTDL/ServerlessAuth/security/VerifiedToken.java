@@ -0,0 +1,47 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked.
+ * Produced once per request by {@code JwtService.verify} so callers never re-parse the token.
+ */
+public record VerifiedToken(
+        String subject,
+        UUID userId,
+        Instant issuedAt,
+        Instant expiresAt,
+        Map<String, Object> claims
+) {
+
+    public VerifiedToken {
+        claims = claims == null ? Map.of() : Collections.unmodifiableMap(claims);
+    }
+
+    /**
+     * The {@code jti} claim, or {@code null} for tokens issued before token ids were introduced.
+     */
+    public String tokenId() {
+        Object jti = claims.get("jti");
+        return jti instanceof String ? (String) jti : null;
+    }
+
+    /**
+     * The {@code ver} claim, or {@code 0} for tokens issued before token versions were introduced.
+     */
+    public int tokenVersion() {
+        Object ver = claims.get("ver");
+        return ver instanceof Number ? ((Number) ver).intValue() : 0;
+    }
+
+    public boolean isExpired() {
+        return isExpired(Instant.now());
+    }
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+}
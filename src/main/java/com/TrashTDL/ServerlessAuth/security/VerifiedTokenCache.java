@@ -0,0 +1,166 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Size-bounded cache of already verified tokens, keyed by the SHA-256 digest of the raw token string.
+ * <p>
+ * A hit returns the previously parsed {@link VerifiedToken} without touching the signature or the claims JSON.
+ * Entries never outlive the token's {@code exp}: they are dropped on the first lookup after expiry and
+ * swept in bulk whenever the cache reaches its capacity.
+ */
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<Hasher> HASHER = ThreadLocal.withInitial(Hasher::new);
+
+    private final int maxEntries;
+    private final Map<TokenDigest, Entry> entries;
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1024));
+    }
+
+    /**
+     * Returns the cached view for the token, or runs {@code verifier} and caches its result on a miss.
+     * Exceptions thrown by the verifier propagate and nothing is cached.
+     */
+    public VerifiedToken getOrVerify(String token, Function<String, VerifiedToken> verifier) {
+        final TokenDigest key = token != null ? HASHER.get().digest(token) : null;
+        if (key == null) {
+            misses.increment();
+            return verifier.apply(token);
+        }
+        final long now = System.currentTimeMillis();
+
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.expiresAtMillis > now) {
+                hits.increment();
+                return entry.token;
+            }
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        VerifiedToken verified = verifier.apply(token);
+        if (verified.expiresAt() != null) {
+            long expiresAtMillis = verified.expiresAt().toEpochMilli();
+            if (expiresAtMillis > now) {
+                if (entries.size() >= maxEntries) {
+                    makeRoom(now);
+                }
+                entries.put(key, new Entry(verified, expiresAtMillis));
+            }
+        }
+        return verified;
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    /**
+     * Drops expired entries first; if the cache is still full, evicts arbitrary entries down to 90% of capacity.
+     * Only one thread sweeps at a time, others simply insert and let the sweeper catch up.
+     */
+    private void makeRoom(long now) {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().expiresAtMillis <= now) {
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            it = entries.values().iterator();
+            while (entries.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) { }
+
+    private record Entry(VerifiedToken token, long expiresAtMillis) { }
+
+    private record TokenDigest(long d0, long d1, long d2, long d3) { }
+
+    /**
+     * Per-thread SHA-256 state with reusable input/output buffers, so hashing a token allocates only the key.
+     * Returns {@code null} for strings that are not plain ASCII.
+     */
+    private static final class Hasher {
+        private final MessageDigest sha256;
+        private final byte[] out = new byte[32];
+        private byte[] in = new byte[512];
+
+        Hasher() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        TokenDigest digest(String token) {
+            final int length = token.length();
+            if (in.length < length) {
+                in = new byte[Math.max(length, in.length * 2)];
+            }
+            // JWTs are base64url plus dots; anything outside ASCII cannot be a valid token and is never cached
+            for (int i = 0; i < length; i++) {
+                char c = token.charAt(i);
+                if (c > 0x7F) {
+                    return null;
+                }
+                in[i] = (byte) c;
+            }
+            sha256.update(in, 0, length);
+            try {
+                sha256.digest(out, 0, out.length);
+            } catch (DigestException e) {
+                throw new IllegalStateException(e);
+            }
+            return new TokenDigest(readLong(0), readLong(8), readLong(16), readLong(24));
+        }
+
+        private long readLong(int offset) {
+            long value = 0;
+            for (int i = offset; i < offset + 8; i++) {
+                value = (value << 8) | (out[i] & 0xFFL);
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Permanently removes accounts that have been soft-deleted for longer than
+ * {@code application.account-purge.retention-days}, together with their rows in every dependent table.
+ * <p>
+ * Candidates are paged by {@code user_id} (keyset, never OFFSET). For each one the dependent tables are emptied
+ * in the configured order, {@code batch-size} rows per DELETE, with a {@code throttle-ms} pause between
+ * statements; every DELETE commits on its own, so locks are held briefly and replicas keep up. The user row goes
+ * last. A run stops after {@code max-users} accounts or {@code max-duration-ms}; a half-purged account is still
+ * soft-deleted and is finished by the next run. With {@code dry-run} nothing is deleted and the result holds the
+ * rows that would have been.
+ * <p>
+ * The task tables belong to the sync schema rather than this service, so they are named in configuration and
+ * checked against {@code information_schema} at the start of each run; missing ones are skipped with a warning.
+ */
+@Service
+@Lazy
+@RequiredArgsConstructor
+public class AccountPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountPurger.class);
+
+    private static final Pattern DEPENDENT = Pattern.compile("^([a-z_][a-z0-9_]*)\\.([a-z_][a-z0-9_]*)\\.([a-z_][a-z0-9_]*)$");
+    private static final UUID BEFORE_FIRST = new UUID(0L, 0L);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AvailabilityService availabilityService;
+
+    @Value("${application.account-purge.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${application.account-purge.dependents:todo.refresh_tokens.user_id,todo.revoked_tokens.user_id,todo.user_token_revocations.user_id}")
+    private String[] dependents;
+
+    @Value("${application.account-purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${application.account-purge.throttle-ms:50}")
+    private long throttleMs;
+
+    @Value("${application.account-purge.max-users:500}")
+    private int maxUsers;
+
+    @Value("${application.account-purge.max-duration-ms:240000}")
+    private long maxDurationMs;
+
+    @Value("${application.account-purge.dry-run:false}")
+    private boolean dryRun;
+
+    public PurgeResult purge() {
+        final long start = System.nanoTime();
+        final long deadline = start + maxDurationMs * 1_000_000;
+        final OffsetDateTime cutoff = OffsetDateTime.now().minusDays(retentionDays);
+        final List<Dependent> tables = resolveDependents();
+        final Run run = new Run(tables);
+
+        UUID after = BEFORE_FIRST;
+        candidates:
+        while (run.users + run.failedUsers < maxUsers) {
+            List<UUID> page = jdbcTemplate.queryForList("""
+                    select user_id from todo.users
+                    where deleted_at is not null and deleted_at < ? and user_id > ?
+                    order by user_id
+                    limit ?
+                    """, UUID.class, cutoff, after, Math.min(batchSize, maxUsers - run.users - run.failedUsers));
+            for (UUID userId : page) {
+                after = userId;
+                if (System.nanoTime() >= deadline || !purgeUser(userId, cutoff, run, deadline)) {
+                    run.complete = false;
+                    break candidates;
+                }
+            }
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        if (run.users + run.failedUsers >= maxUsers) {
+            run.complete = false;
+        }
+
+        if (!dryRun && run.users > 0) {
+            // Freed e-mails and usernames are still in the availability filters until they are rebuilt
+            availabilityService.requestRebuild();
+        }
+
+        PurgeResult result = new PurgeResult(dryRun, run.users, run.failedUsers, run.total(), run.rowsByTable,
+                run.batches, run.complete, (System.nanoTime() - start) / 1_000_000);
+        log.info("{} {} soft-deleted accounts ({} failed): {} rows in {} batches, {} ({} ms)",
+                dryRun ? "Dry run would purge" : "Purged", result.users(), result.failedUsers(), result.rows(),
+                result.batches(), result.complete() ? "complete" : "more left for the next run", result.durationMillis());
+        return result;
+    }
+
+    /**
+     * Returns {@code false} when the run has to stop (deadline reached or interrupted) before the user is done.
+     */
+    private boolean purgeUser(UUID userId, OffsetDateTime cutoff, Run run, long deadline) {
+        try {
+            for (Dependent table : run.tables) {
+                if (!purgeRows(table, userId, run, deadline)) {
+                    return false;
+                }
+            }
+            if (dryRun) {
+                run.add("todo.users", 1);
+            } else {
+                // Re-checked so an account restored during the run keeps its row
+                int deleted = jdbcTemplate.update(
+                        "delete from todo.users where user_id = ? and deleted_at < ?", userId, cutoff);
+                run.batches++;
+                run.add("todo.users", deleted);
+            }
+            run.users++;
+            return true;
+        } catch (DataAccessException e) {
+            // e.g. a foreign key from a table not listed in dependents; the account is retried next run
+            log.warn("Could not purge account {}: {}", userId, e.getMessage());
+            run.failedUsers++;
+            return true;
+        }
+    }
+
+    private boolean purgeRows(Dependent table, UUID userId, Run run, long deadline) {
+        if (dryRun) {
+            Long count = jdbcTemplate.queryForObject(
+                    "select count(*) from " + table.table() + " where " + table.column() + " = ?", Long.class, userId);
+            run.add(table.table(), count == null ? 0 : count);
+            return true;
+        }
+        // ctid = any(array(...)) is answered with a TID scan; IN (subquery) often is not
+        final String sql = "delete from " + table.table() + " where ctid = any(array("
+                + "select ctid from " + table.table() + " where " + table.column() + " = ? limit ?))";
+        int deleted;
+        do {
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            deleted = jdbcTemplate.update(sql, userId, batchSize);
+            run.batches++;
+            run.add(table.table(), deleted);
+            if (deleted > 0 && !pause()) {
+                return false;
+            }
+        } while (deleted >= batchSize);
+        return true;
+    }
+
+    private boolean pause() {
+        if (throttleMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(throttleMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Parses the configured dependents and keeps those whose table and column exist.
+     */
+    List<Dependent> resolveDependents() {
+        List<Dependent> resolved = new ArrayList<>();
+        for (String entry : dependents) {
+            String spec = entry.trim();
+            if (spec.isEmpty()) {
+                continue;
+            }
+            Matcher m = DEPENDENT.matcher(spec);
+            if (!m.matches()) {
+                // Names end up in SQL text, so anything but plain identifiers is refused
+                throw new IllegalStateException("Invalid application.account-purge.dependents entry: " + spec);
+            }
+            Boolean exists = jdbcTemplate.queryForObject("""
+                    select exists(select 1 from information_schema.columns
+                                  where table_schema = ? and table_name = ? and column_name = ?)
+                    """, Boolean.class, m.group(1), m.group(2), m.group(3));
+            if (Boolean.TRUE.equals(exists)) {
+                resolved.add(new Dependent(m.group(1) + "." + m.group(2), m.group(3)));
+            } else {
+                log.warn("Skipping account purge dependent {}: no such table or column", spec);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * {@code users} counts accounts fully purged (or that would be, in a dry run); {@code rowsByTable} includes
+     * {@code todo.users}. {@code complete} is false when a bound stopped the run with candidates possibly left.
+     */
+    public record PurgeResult(boolean dryRun, int users, int failedUsers, long rows, Map<String, Long> rowsByTable,
+                              int batches, boolean complete, long durationMillis) { }
+
+    record Dependent(String table, String column) { }
+
+    private static final class Run {
+        final List<Dependent> tables;
+        final Map<String, Long> rowsByTable = new LinkedHashMap<>();
+        int users;
+        int failedUsers;
+        int batches;
+        boolean complete = true;
+
+        Run(List<Dependent> tables) {
+            this.tables = tables;
+        }
+
+        void add(String table, long rows) {
+            rowsByTable.merge(table, rows, Long::sum);
+        }
+
+        long total() {
+            return rowsByTable.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
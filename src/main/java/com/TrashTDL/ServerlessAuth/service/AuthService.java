@@ -3,26 +3,22 @@ package com.TrashTDL.ServerlessAuth.service;
 import com.TrashTDL.ServerlessAuth.dto.AuthResponse;
 import com.TrashTDL.ServerlessAuth.dto.LoginRequest;
 import com.TrashTDL.ServerlessAuth.dto.RegisterRequest;
-import com.TrashTDL.ServerlessAuth.model.PendingUser;
 import com.TrashTDL.ServerlessAuth.model.User;
 import com.TrashTDL.ServerlessAuth.repository.PendingUserRepository;
 import com.TrashTDL.ServerlessAuth.repository.UserRepository;
+import com.TrashTDL.ServerlessAuth.security.VerifiedToken;
+import com.TrashTDL.ServerlessAuth.exception.AccountConflictException;
 import com.TrashTDL.ServerlessAuth.exception.VerificationCodeExpiredException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.BadCredentialsException;
 
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -31,114 +27,214 @@ public class AuthService {
 
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
 
+    private static final String VERIFICATION_SUBJECT = "Verify Your Email Address";
+    private static final String VERIFICATION_TEXT = "Please click the following link to verify your email address: ";
+
     private final UserRepository userRepository;
     private final PendingUserRepository pendingUserRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final AuthenticationManager authenticationManager;
-    
-    //@SuppressWarnings("unused")
-    private final JavaMailSender mailSender;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final MailOutboxDispatcher mailOutboxDispatcher;
+    private final AvailabilityService availabilityService;
 
     @Value("${application.base-url}")
     private String baseUrl;
 
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    @Value("${application.use-mailer}")
+    private boolean useMailer;
 
-    @Transactional
+    // How long a verification code stays valid; PendingUserSweeper deletes registrations older than this
+    @Value("${application.registration.pending-ttl-minutes:15}")
+    private int pendingTtlMinutes;
+
+    // Hash checked for unknown accounts; created lazily with the live encoder so it costs the same as a real check
+    private volatile String dummyPasswordHash;
+
+    /**
+     * Stores a pending registration and queues its verification e-mail.
+     * <p>
+     * The password is hashed before any connection is taken. Availability is then checked in one query and the
+     * row inserted with {@code ON CONFLICT DO NOTHING}; each statement commits on its own, so no connection is
+     * held across the hash. The insert only conflicts with other pending registrations: when it does, the check
+     * is repeated to name the e-mail or username that was taken, and if neither is taken any more (the other row
+     * was swept, or only the verification code clashed) the insert is tried once more with a new code. An active
+     * account created between the check and the insert is not seen here; {@link #verify} turns that registration
+     * away. The e-mail goes into the outbox in the same statement as the pending row and is delivered by
+     * {@link MailOutboxDispatcher}, never on this thread.
+     */
     public String register(RegisterRequest request) {
-        if (userRepository.existsByEmail(request.getEmail()) || pendingUserRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Email already in use.");
-        }
-        if (userRepository.existsByUsername(request.getUsername()) || pendingUserRepository.existsByUsername(request.getUsername())) {
-            throw new IllegalArgumentException("Username already in use.");
-        }
-        String verificationCode = UUID.randomUUID().toString();
-        PendingUser pendingUser = PendingUser.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .passwordHash(passwordEncoder.encode(request.getPassword()))
-                .verificationCode(verificationCode)
-                .build();
+        String passwordHash = passwordEncoder.encode(request.getPassword());
+
+        rejectIfTaken(pendingUserRepository.checkAvailability(request.getEmail(), request.getUsername()));
 
-        pendingUserRepository.save(pendingUser);
+        String verificationCode = insertPending(request, passwordHash);
+        if (verificationCode == null) {
+            rejectIfTaken(pendingUserRepository.checkAvailability(request.getEmail(), request.getUsername()));
+            verificationCode = insertPending(request, passwordHash);
+            if (verificationCode == null) {
+                throw new IllegalArgumentException("Registration conflicted with another request. Please try again.");
+            }
+        }
+        String verificationUrl = verificationUrl(verificationCode);
         log.info("Pending user saved for email: {}", request.getEmail());
-        sendVerificationEmail(request.getEmail(), verificationCode);
+        availabilityService.recordTaken(request.getEmail(), request.getUsername());
+        if (useMailer) {
+            mailOutboxDispatcher.dispatchSoon();
+        } else {
+            log.info("Email sending disabled. Verification URL would be: {}", verificationUrl);
+        }
         return verificationCode;
     }
 
-    @Transactional(noRollbackFor = VerificationCodeExpiredException.class)
-    public String verify(String verificationCode) {
-        PendingUser pendingUser = pendingUserRepository.findByVerificationCode(verificationCode)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid or expired verification code."));
-
-        if (pendingUser.getCreatedAt().isBefore(OffsetDateTime.now().minusMinutes(15)))
-        {
-            pendingUserRepository.delete(pendingUser);
-            throw new VerificationCodeExpiredException("Verification code expired. Please register again.");
+    // The new verification code, or null if a unique index of pending_users already held one of the values
+    private String insertPending(RegisterRequest request, String passwordHash) {
+        String verificationCode = UUID.randomUUID().toString();
+        int inserted;
+        if (useMailer) {
+            inserted = pendingUserRepository.insertIfAbsentWithMail(UUID.randomUUID(),
+                    request.getUsername(), request.getEmail(), passwordHash, verificationCode,
+                    UUID.randomUUID(), VERIFICATION_SUBJECT, VERIFICATION_TEXT + verificationUrl(verificationCode));
+        } else {
+            inserted = pendingUserRepository.insertIfAbsent(UUID.randomUUID(),
+                    request.getUsername(), request.getEmail(), passwordHash, verificationCode);
         }
+        return inserted > 0 ? verificationCode : null;
+    }
 
-        User user = User.builder()
-                .username(pendingUser.getUsername())
-                .email(pendingUser.getEmail())
-                .password(pendingUser.getPasswordHash())
-                .build();
+    private String verificationUrl(String verificationCode) {
+        return baseUrl + "/api/auth/verify?code=" + verificationCode;
+    }
 
-        userRepository.save(user);
-        log.info("User verified and created for email: {}", user.getEmail());
+    private static void rejectIfTaken(PendingUserRepository.Availability availability) {
+        if (availability.getEmailTaken()) {
+            throw new IllegalArgumentException("Email already in use.");
+        }
+        if (availability.getUsernameTaken()) {
+            throw new IllegalArgumentException("Username already in use.");
+        }
+    }
 
-        pendingUserRepository.delete(pendingUser);
-        log.info("Pending user deleted for email: {}", pendingUser.getEmail());
-        return "User verified successfully. You can now log in.";
+    /**
+     * Turns the pending registration into a user with a single statement; see {@link PendingUserRepository#promote}.
+     */
+    public String verify(String verificationCode) {
+        PendingUserRepository.Promotion promotion = pendingUserRepository.promote(verificationCode, pendingTtlMinutes);
+        switch (promotion.getOutcome()) {
+            case VERIFIED -> {
+                availabilityService.recordTaken(promotion.getEmail(), promotion.getUsername());
+                log.info("User verified and created for email: {}", promotion.getEmail());
+                return "User verified successfully. You can now log in.";
+            }
+            case EXPIRED -> {
+                log.info("Expired pending user deleted for email: {}", promotion.getEmail());
+                throw new VerificationCodeExpiredException("Verification code expired. Please register again.");
+            }
+            case TAKEN -> {
+                log.info("Pending user dropped, an account already holds email {} or username {}",
+                        promotion.getEmail(), promotion.getUsername());
+                throw new AccountConflictException("An account with this email or username already exists.");
+            }
+            default -> throw new IllegalArgumentException("Invalid or expired verification code.");
+        }
     }
 
     public AuthResponse login(LoginRequest request) {
         String identifier = (request.getEmail() != null && !request.getEmail().isBlank())
                 ? request.getEmail()
                 : request.getUsername();
-        
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(identifier, request.getPassword()));
+
+        // One query for either kind of identifier; the password is then checked against that same entity
+        User user = findLoginCandidate(identifier);
+        String presented = request.getPassword() != null ? request.getPassword() : "";
+        if (user == null) {
+            // Burn the same bcrypt time as a real check so unknown accounts cannot be told apart by latency
+            passwordEncoder.matches(presented, getDummyPasswordHash());
+            throw new BadCredentialsException("Invalid credentials.");
+        }
+        if (!passwordEncoder.matches(presented, user.getPassword()) || !user.isEnabled()) {
+            throw new BadCredentialsException("Invalid credentials.");
+        }
         log.info("Authentication successful for identifier: {}", identifier);
 
-        var user = userRepository.findByEmail(identifier)
-                .or(() -> userRepository.findByUsername(identifier))
-                .orElseThrow(() -> new IllegalStateException("User not found after successful authentication."));
+        rehashIfNeeded(user, request.getPassword());
 
         String jwtToken = jwtService.generateToken(user);
         log.info("JWT generated for identifier: {}", identifier);
 
         return AuthResponse.builder()
                 .token(jwtToken)
+                .refreshToken(refreshTokenService.issue(user))
                 .userId(user.getUserId())
                 .build();
     }
 
-    @Value("${application.use-mailer}")
-    private boolean useMailer;
-
-    private void sendVerificationEmail(String toEmail, String verificationCode) {
-        String verificationUrl = baseUrl + "/api/auth/verify?code=" + verificationCode;
-        String subject = "Verify Your Email Address";
-        String text = "Please click the following link to verify your email address: " + verificationUrl;
+    private User findLoginCandidate(String identifier) {
+        if (identifier == null || identifier.isBlank()) {
+            return null;
+        }
+        List<User> matches = userRepository.findAllByEmailOrUsername(identifier);
+        // An e-mail match wins over another account whose username happens to equal it
+        for (User candidate : matches) {
+            if (identifier.equalsIgnoreCase(candidate.getEmail())) {
+                return candidate;
+            }
+        }
+        return matches.isEmpty() ? null : matches.get(0);
+    }
 
-        if (!useMailer) {
-            log.info("Email sending disabled. Verification URL would be: {}", verificationUrl);
-            return;
+    private String getDummyPasswordHash() {
+        String hash = dummyPasswordHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode(UUID.randomUUID().toString());
+            dummyPasswordHash = hash;
         }
+        return hash;
+    }
 
+    /**
+     * Re-encodes the password with the current hashing parameters when the stored hash uses other ones.
+     * Only possible right after a successful login, while the raw password is at hand; failures never block the login.
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject(subject);
-            message.setText(text);
-            //log.info("Verification email content: {}", text);
-            mailSender.send(message);
-            log.info("Verification email sent to: {}", toEmail);
-        } catch (MailException e) {
-            log.error("Failed to send verification email to {}: {}", toEmail, e.getMessage());
-            // TODO: Handle email sending failure, retry and retrive the link as text for manual verification
+            // Goes through the hashing pool too, so it can be rejected under load like the hash itself
+            if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+                return;
+            }
+            user.setPassword(passwordEncoder.encode(rawPassword));
+            userRepository.save(user);
+            log.info("Password hash upgraded for user: {}", user.getUserId());
+        } catch (RuntimeException e) {
+            log.warn("Could not upgrade password hash for user {}: {}", user.getUserId(), e.getMessage());
+        }
+    }
+
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = rotation.user();
+        log.info("Refresh token rotated for user: {}", user.getUserId());
+
+        return AuthResponse.builder()
+                .token(jwtService.generateToken(user))
+                .refreshToken(rotation.refreshToken())
+                .userId(user.getUserId())
+                .build();
+    }
+
+    /**
+     * Revokes the presented access token and, if given, the refresh token family it came with.
+     * With {@code everywhere} every token the user holds is revoked instead.
+     */
+    public void logout(VerifiedToken accessToken, String refreshToken, boolean everywhere) {
+        if (everywhere) {
+            tokenRevocationService.revokeAllForUser(accessToken.userId());
+            return;
+        }
+        tokenRevocationService.revoke(accessToken);
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
         }
     }
 }
@@ -0,0 +1,276 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.repository.PendingUserRepository;
+import com.TrashTDL.ServerlessAuth.repository.UserRepository;
+import com.TrashTDL.ServerlessAuth.util.BloomFilter;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Answers "is this e-mail / username still free?" for the signup form.
+ * <p>
+ * Every taken e-mail and username (active and pending accounts, lower-cased) is kept in a pair of Bloom filters.
+ * A value the filter has never seen is reported free without touching the database; only possible matches are
+ * confirmed with one availability query. The filters are built in the background once the application is ready,
+ * pick up accounts created on other instances every {@code security.availability.refresh-interval-ms}, and are
+ * rebuilt from scratch every {@code security.availability.rebuild-interval-ms} (or after a sweep) so that freed
+ * names stop costing a query. Until the first build completes every check goes to the database.
+ * <p>
+ * The answer is advisory: registration still enforces uniqueness, and a name taken on another instance within the
+ * last refresh interval can briefly be reported free.
+ */
+@Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityService.class);
+
+    // Rows committed slightly out of created_at order are still picked up by the next refresh
+    private static final long REFRESH_OVERLAP_SECONDS = 5;
+
+    private final PendingUserRepository pendingUserRepository;
+    private final UserRepository userRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${security.availability.expected-entries:100000}")
+    private long expectedEntries;
+
+    @Value("${security.availability.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${security.availability.refresh-interval-ms:30000}")
+    private long refreshIntervalMs;
+
+    @Value("${security.availability.rebuild-interval-ms:3600000}")
+    private long rebuildIntervalMs;
+
+    private volatile Filters filters;
+
+    private Executor background = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "availability-filters");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean maintenanceScheduled = new AtomicBoolean();
+    private volatile boolean rebuildRequested = true;
+
+    private final LongAdder answeredFromFilter = new LongAdder();
+    private final LongAdder answeredFromDatabase = new LongAdder();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleMaintenance();
+    }
+
+    /**
+     * Checks the given e-mail and/or username; a {@code null} argument is not checked and reported as {@code null}.
+     */
+    public Availability check(String email, String username) {
+        final String emailKey = normalize(email);
+        final String usernameKey = normalize(username);
+        final Filters current = currentFilters();
+
+        Boolean emailFree = emailKey == null ? null
+                : current != null && !current.emails.mightContain(emailKey) ? Boolean.TRUE : null;
+        Boolean usernameFree = usernameKey == null ? null
+                : current != null && !current.usernames.mightContain(usernameKey) ? Boolean.TRUE : null;
+
+        boolean needEmail = emailKey != null && emailFree == null;
+        boolean needUsername = usernameKey != null && usernameFree == null;
+        if (!needEmail && !needUsername) {
+            answeredFromFilter.increment();
+            return new Availability(emailFree, usernameFree);
+        }
+
+        answeredFromDatabase.increment();
+        PendingUserRepository.Availability taken = pendingUserRepository.checkAvailability(
+                needEmail ? email : null, needUsername ? username : null);
+        if (needEmail) {
+            emailFree = !taken.getEmailTaken();
+        }
+        if (needUsername) {
+            usernameFree = !taken.getUsernameTaken();
+        }
+        return new Availability(emailFree, usernameFree);
+    }
+
+    /**
+     * Records a newly registered or verified account so this instance stops reporting its names as free.
+     */
+    public void recordTaken(String email, String username) {
+        Filters current = filters;
+        if (current == null) {
+            return;
+        }
+        String emailKey = normalize(email);
+        String usernameKey = normalize(username);
+        if (emailKey != null) {
+            current.emails.add(emailKey);
+        }
+        if (usernameKey != null) {
+            current.usernames.add(usernameKey);
+        }
+    }
+
+    /**
+     * Asks for a full rebuild in the background, e.g. after rows were deleted (Bloom filters cannot forget).
+     */
+    public void requestRebuild() {
+        rebuildRequested = true;
+        scheduleMaintenance();
+    }
+
+    public Stats stats() {
+        Filters current = filters;
+        return new Stats(answeredFromFilter.sum(), answeredFromDatabase.sum(),
+                current != null, current != null ? current.entries : 0);
+    }
+
+    /**
+     * Replaces the thread maintenance runs on, so tests can run it inline or hold it back.
+     */
+    void setMaintenanceExecutor(Executor executor) {
+        shutdown();
+        background = executor;
+    }
+
+    private Filters currentFilters() {
+        Filters current = filters;
+        long now = System.currentTimeMillis();
+        if (current == null || now - current.refreshedAtMillis >= refreshIntervalMs
+                || now - current.builtAtMillis >= rebuildIntervalMs) {
+            scheduleMaintenance();
+        }
+        return current;
+    }
+
+    private void scheduleMaintenance() {
+        if (!maintenanceScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            background.execute(() -> {
+                maintenanceScheduled.set(false);
+                try {
+                    maintain();
+                } catch (RuntimeException e) {
+                    log.warn("Availability filter maintenance failed: {}", e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            maintenanceScheduled.set(false);
+            log.warn("Could not schedule availability filter maintenance: {}", e.getMessage());
+        }
+    }
+
+    void maintain() {
+        Filters current = filters;
+        long now = System.currentTimeMillis();
+        if (current == null || rebuildRequested || now - current.builtAtMillis >= rebuildIntervalMs) {
+            rebuild();
+        } else if (now - current.refreshedAtMillis >= refreshIntervalMs) {
+            refresh(current);
+        }
+    }
+
+    /**
+     * Streams every taken e-mail and username into fresh filters sized for the current table sizes.
+     */
+    void rebuild() {
+        rebuildRequested = false;
+        final long start = System.nanoTime();
+        final long startedAtMillis = System.currentTimeMillis();
+        final OffsetDateTime startedAt = OffsetDateTime.now();
+
+        long rows = userRepository.count() + pendingUserRepository.count();
+        long capacity = Math.max(expectedEntries, rows * 2);
+        BloomFilter emails = BloomFilter.create(capacity, falsePositiveRate);
+        BloomFilter usernames = BloomFilter.create(capacity, falsePositiveRate);
+
+        long loaded = load(OffsetDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC), emails, usernames);
+        filters = new Filters(emails, usernames, capacity, loaded, startedAt, startedAtMillis, startedAtMillis);
+        log.info("Availability filters built from {} accounts in {} ms",
+                loaded, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Adds accounts created since the last build or refresh, including those registered on other instances.
+     */
+    void refresh(Filters current) {
+        final long startedAtMillis = System.currentTimeMillis();
+        final OffsetDateTime startedAt = OffsetDateTime.now();
+        long loaded = load(current.syncedUpTo.minusSeconds(REFRESH_OVERLAP_SECONDS), current.emails, current.usernames);
+        Filters next = new Filters(current.emails, current.usernames, current.capacity, current.entries + loaded,
+                startedAt, current.builtAtMillis, startedAtMillis);
+        if (next.entries > current.capacity) {
+            // Past its sizing the false-positive rate climbs quickly; start over with room to grow
+            rebuildRequested = true;
+        }
+        filters = next;
+    }
+
+    private long load(OffsetDateTime since, BloomFilter emails, BloomFilter usernames) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        Long loaded = tx.execute(status -> {
+            long count = 0;
+            try (Stream<PendingUserRepository.Identity> identities = pendingUserRepository.streamIdentitiesCreatedAfter(since)) {
+                for (PendingUserRepository.Identity identity : (Iterable<PendingUserRepository.Identity>) identities::iterator) {
+                    if (identity.getEmail() != null) {
+                        emails.add(identity.getEmail());
+                    }
+                    if (identity.getUsername() != null) {
+                        usernames.add(identity.getUsername());
+                    }
+                    count++;
+                }
+            }
+            return count;
+        });
+        return loaded != null ? loaded : 0;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (background instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * {@code TRUE} when free, {@code FALSE} when taken, {@code null} when the value was not asked for.
+     */
+    public record Availability(Boolean emailAvailable, Boolean usernameAvailable) { }
+
+    public record Stats(long answeredFromFilter, long answeredFromDatabase, boolean ready, long entries) { }
+
+    record Filters(BloomFilter emails, BloomFilter usernames, long capacity, long entries,
+                   OffsetDateTime syncedUpTo, long builtAtMillis, long refreshedAtMillis) { }
+}
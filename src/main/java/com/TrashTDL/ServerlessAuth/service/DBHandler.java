@@ -2,6 +2,7 @@ package com.TrashTDL.ServerlessAuth.service;
 
 import com.TrashTDL.ServerlessAuth.dto.Command;
 import com.TrashTDL.ServerlessAuth.dto.FolderResponse;
+import com.TrashTDL.ServerlessAuth.dto.SyncRequest;
 import com.TrashTDL.ServerlessAuth.dto.SyncResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -22,6 +23,12 @@ import java.util.UUID;
 @Slf4j
 public class DBHandler {
 
+    static final String MERGE_COMMANDS_SQL = "SELECT todo.merge_task_commands(?, ?::jsonb)";
+    static final String ACCESSIBLE_FOLDERS_SQL = "SELECT folder_id, folder_name FROM todo.get_accessible_folders(?)";
+
+    /** Statements the sync and folder endpoints run, in the form they are sent to the database. */
+    public static final List<String> HOT_STATEMENTS = List.of(MERGE_COMMANDS_SQL, ACCESSIBLE_FOLDERS_SQL);
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
     
@@ -55,9 +62,7 @@ public class DBHandler {
             log.info("Commands JSON for user {}: {}", userId, commandsJson);
             
             // Call the PostgreSQL function todo.merge_task_commands
-            String sql = "SELECT todo.merge_task_commands(?, ?::jsonb)";
-            
-            String resultJson = jdbcTemplate.queryForObject(sql, String.class, userId, commandsJson);
+            String resultJson = jdbcTemplate.queryForObject(MERGE_COMMANDS_SQL, String.class, userId, commandsJson);
             
             log.info("Database function result for user {}: {}", userId, resultJson);
             
@@ -84,10 +89,22 @@ public class DBHandler {
         }
     }
 
+    /**
+     * Runs the commands through the same serialization as {@link #syncCommands} and reads back a sync result of the
+     * shape the database returns, without touching the database, so the first real sync finds the mapper's
+     * serializers and deserializers already built.
+     */
+    public SyncResponse primeMapper(List<Command> commands) throws JsonProcessingException {
+        String commandsJson = objectMapper.writeValueAsString(Map.of("commands", commands));
+        SyncRequest echoed = objectMapper.readValue(commandsJson, SyncRequest.class);
+        String resultJson = objectMapper.writeValueAsString(
+                Map.of("success", echoed.getCommands(), "conflicts", List.of(), "failed", List.of()));
+        return objectMapper.readValue(resultJson, SyncResponse.class);
+    }
+
     public List<FolderResponse> getFoldersForUser(UUID userId) throws SQLException {
-        String sql = "SELECT folder_id, folder_name FROM todo.get_accessible_folders(?)";
         try {
-            return jdbcTemplate.query(sql, (rs, rowNum) -> new FolderResponse(
+            return jdbcTemplate.query(ACCESSIBLE_FOLDERS_SQL, (rs, rowNum) -> new FolderResponse(
                     rs.getObject("folder_id", UUID.class),
                     rs.getString("folder_name")
             ), userId);
@@ -1,15 +1,20 @@
 package com.TrashTDL.ServerlessAuth.service;
 
 import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.security.HmacTokenCodec;
+import com.TrashTDL.ServerlessAuth.security.JwtKeyRing;
+import com.TrashTDL.ServerlessAuth.security.VerifiedToken;
+import com.TrashTDL.ServerlessAuth.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,24 +24,89 @@ import java.util.function.Function;
 @Service
 public class JwtService {
 
-    @Value("${security.jwt.secret-key}")
+    @Value("${security.jwt.secret-key:}")
     private String secretKeyString;
 
+    // JWK set with ES256/EdDSA keys; when present tokens are signed with the active key and carry its kid
+    @Value("${security.jwt.signing.jwks:}")
+    private String signingJwks;
+
+    @Value("${security.jwt.signing.active-kid:}")
+    private String activeKid;
+
     @Value("${security.jwt.expiration-time}")
     private long jwtExpiration;
 
+    // 0 disables the cache
+    @Value("${security.jwt.cache.max-entries:0}")
+    private int tokenCacheMaxEntries;
+
+    // Signs and verifies our standard HMAC tokens without going through jjwt; other tokens still use jjwt
+    @Value("${security.jwt.fast-path.enabled:false}")
+    private boolean fastPathEnabled;
+
+    // Derived from the key settings on first use; both are immutable and safe to share across threads.
+    private volatile JwtKeyRing keyRing;
+    private volatile JwtParser jwtParser;
+    private volatile VerifiedTokenCache tokenCache;
+    private volatile HmacTokenCodec fastPathCodec;
+    private volatile boolean fastPathResolved;
+
+    /**
+     * Verifies the signature and expiry of the token exactly once and returns a parsed view of it.
+     * Tokens seen before are served from the verified-token cache until they expire.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, tampered with or expired
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedTokenCache cache = getTokenCache();
+        return cache != null ? cache.getOrVerify(token, this::parseAndVerify) : parseAndVerify(token);
+    }
+
+    /**
+     * Verifies like {@link #verify} but neither reads nor fills the verified-token cache, for callers that verify
+     * tokens nobody will present again.
+     */
+    public VerifiedToken verifyUncached(String token) {
+        return parseAndVerify(token);
+    }
+
+    /**
+     * Public verification keys as a JWKS document, for services that validate our tokens themselves.
+     */
+    public String getPublicJwksJson() {
+        return getKeyRing().getJwksJson();
+    }
+
+    public VerifiedTokenCache.Stats getTokenCacheStats() {
+        VerifiedTokenCache cache = getTokenCache();
+        return cache != null ? cache.stats() : new VerifiedTokenCache.Stats(0, 0, 0, 0);
+    }
+
+    private VerifiedToken parseAndVerify(String token) {
+        HmacTokenCodec codec = getFastPathCodec();
+        if (codec != null) {
+            VerifiedToken verified = codec.verify(token, System.currentTimeMillis());
+            if (verified != null) {
+                return verified;
+            }
+        }
+        final Claims claims = extractAllClaims(token);
+        return new VerifiedToken(
+                claims.getSubject(),
+                extractUserId(claims),
+                toInstant(claims.getIssuedAt()),
+                toInstant(claims.getExpiration()),
+                claims
+        );
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).subject();
     }
 
     public UUID extractUserId(String token) {
-        return extractClaim(token, claims -> {
-            Object userIdObj = claims.get("userId");
-            if (userIdObj instanceof String) {
-                return UUID.fromString((String) userIdObj);
-            }
-            return null;
-        });
+        return verify(token).userId();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
@@ -54,52 +124,117 @@ public class JwtService {
     ) {
         if (userDetails instanceof User) {
             extraClaims.put("userId", ((User) userDetails).getUserId());
+            extraClaims.put("ver", ((User) userDetails).getTokenVersion());
         }
 
         return buildToken(extraClaims, userDetails, jwtExpiration);
     }
 
-    // Overload for potentially different expiration times (e.g., refresh tokens)
-    // public String generateRefreshToken(...) { ... }
-
     private String buildToken(
             Map<String, Object> extraClaims,
             UserDetails userDetails,
             long expiration
     ) {
-        return Jwts.builder()
+        final String tokenId = UUID.randomUUID().toString(); // Lets a single token be revoked
+        final long now = System.currentTimeMillis();
+        JwtKeyRing.SigningKey signingKey = getKeyRing().getSigningKey();
+
+        HmacTokenCodec codec = signingKey == null ? getFastPathCodec() : null;
+        if (codec != null && extraClaims.size() == 2
+                && extraClaims.get("userId") instanceof UUID userId
+                && extraClaims.get("ver") instanceof Integer version) {
+            String token = codec.sign(userId, version, tokenId, userDetails.getUsername(),
+                    now / 1000, (now + expiration) / 1000);
+            if (token != null) {
+                return token;
+            }
+        }
+
+        JwtBuilder builder = Jwts.builder();
+        if (signingKey != null) {
+            builder.header().keyId(signingKey.kid()).and();
+        }
+        return builder
                 .claims(extraClaims)
+                .id(tokenId)
                 .subject(userDetails.getUsername()) // Typically email in our case
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .issuedAt(new Date(now))
+                .expiration(new Date(now + expiration))
+                .signWith(signingKey != null ? signingKey.privateKey() : getKeyRing().getHmacKey())
                 .compact();
     }
 
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isTokenValid(verify(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.subject() != null
+                && token.subject().equals(userDetails.getUsername())
+                && !token.isExpired();
     }
 
     private Claims extractAllClaims(String token) {
-         return Jwts.parser()
-                 .verifyWith(getSignInKey())
-                 .build()
+         return getParser()
                  .parseSignedClaims(token)
                  .getPayload();
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64URL.decode(secretKeyString);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static UUID extractUserId(Claims claims) {
+        Object userIdObj = claims.get("userId");
+        if (userIdObj instanceof String) {
+            return UUID.fromString((String) userIdObj);
+        }
+        return null;
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+
+    private JwtParser getParser() {
+        JwtParser parser = jwtParser;
+        if (parser == null) {
+            parser = getKeyRing().newParser();
+            jwtParser = parser;
+        }
+        return parser;
+    }
+
+    private VerifiedTokenCache getTokenCache() {
+        VerifiedTokenCache cache = tokenCache;
+        if (cache == null && tokenCacheMaxEntries > 0) {
+            synchronized (this) {
+                cache = tokenCache;
+                if (cache == null) {
+                    cache = new VerifiedTokenCache(tokenCacheMaxEntries);
+                    tokenCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    private HmacTokenCodec getFastPathCodec() {
+        if (!fastPathResolved) {
+            synchronized (this) {
+                if (!fastPathResolved) {
+                    SecretKey hmacKey = fastPathEnabled ? getKeyRing().getHmacKey() : null;
+                    fastPathCodec = hmacKey != null ? HmacTokenCodec.forKey(hmacKey) : null;
+                    fastPathResolved = true;
+                }
+            }
+        }
+        return fastPathCodec;
+    }
+
+    private JwtKeyRing getKeyRing() {
+        JwtKeyRing ring = keyRing;
+        if (ring == null) {
+            ring = JwtKeyRing.create(secretKeyString, signingJwks, activeKid);
+            keyRing = ring;
+        }
+        return ring;
     }
 }
@@ -0,0 +1,141 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.security.TokenBucketTable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for {@code auth/login}, checked before any database lookup or password hashing.
+ * <p>
+ * Each attempt must take a token from the bucket of the client IP and from the bucket of the account
+ * identifier it targets, so both a single client spraying many accounts and many clients hammering one
+ * account are slowed down. Buckets live in memory on each instance.
+ */
+@Service
+public class LoginThrottle {
+
+    @Value("${security.login.throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${security.login.throttle.identifier.capacity:5}")
+    private int identifierCapacity;
+
+    @Value("${security.login.throttle.identifier.refill-per-minute:5}")
+    private double identifierRefillPerMinute;
+
+    @Value("${security.login.throttle.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${security.login.throttle.ip.refill-per-minute:30}")
+    private double ipRefillPerMinute;
+
+    @Value("${security.login.throttle.max-keys:1000000}")
+    private int maxKeys;
+
+    private volatile TokenBucketTable identifierBuckets;
+    private volatile TokenBucketTable ipBuckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByIdentifier = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+
+    public Decision tryAcquire(String identifier, String clientIp) {
+        if (!enabled) {
+            return Decision.ALLOWED;
+        }
+        final long now = System.currentTimeMillis();
+        initTables(now);
+
+        if (clientIp != null) {
+            long wait = ipBuckets.tryAcquire(clientIp, now);
+            if (wait > 0) {
+                rejectedByIp.increment();
+                return Decision.rejected(wait);
+            }
+        }
+        if (identifier != null && !identifier.isBlank()) {
+            long wait = identifierBuckets.tryAcquire(identifier.trim().toLowerCase(Locale.ROOT), now);
+            if (wait > 0) {
+                rejectedByIdentifier.increment();
+                return Decision.rejected(wait);
+            }
+        }
+        allowed.increment();
+        return Decision.ALLOWED;
+    }
+
+    public Stats stats() {
+        return new Stats(
+                allowed.sum(),
+                rejectedByIdentifier.sum(),
+                rejectedByIp.sum(),
+                identifierBuckets != null ? identifierBuckets.size() : 0,
+                ipBuckets != null ? ipBuckets.size() : 0
+        );
+    }
+
+    /**
+     * The calling client's address from the proxy headers Azure Functions forwards, without the port.
+     * <p>
+     * {@code x-azure-clientip} is set by the Azure front end from the connection itself. Failing that, the
+     * right-most {@code x-forwarded-for} entry is used: it was appended by the last proxy, while the entries
+     * before it come from the client and anyone can put an arbitrary address there.
+     */
+    public static String clientIp(Map<String, String> headers) {
+        if (headers == null) {
+            return null;
+        }
+        String ip = headers.get("x-azure-clientip");
+        if (ip == null || ip.isBlank()) {
+            String forwarded = headers.get("x-forwarded-for");
+            if (forwarded == null || forwarded.isBlank()) {
+                return null;
+            }
+            ip = forwarded.substring(forwarded.lastIndexOf(',') + 1);
+        }
+        ip = ip.trim();
+        if (ip.isEmpty()) {
+            return null;
+        }
+        if (ip.startsWith("[")) {
+            int end = ip.indexOf(']');
+            return end > 0 ? ip.substring(1, end) : ip;
+        }
+        // IPv4 with a port ("1.2.3.4:5678"); a bare IPv6 address has several colons and is kept as is
+        int colon = ip.indexOf(':');
+        return colon > 0 && colon == ip.lastIndexOf(':') ? ip.substring(0, colon) : ip;
+    }
+
+    private void initTables(long now) {
+        if (ipBuckets == null) {
+            synchronized (this) {
+                if (ipBuckets == null) {
+                    identifierBuckets = new TokenBucketTable(identifierCapacity, identifierRefillPerMinute, maxKeys, now);
+                    ipBuckets = new TokenBucketTable(ipCapacity, ipRefillPerMinute, maxKeys, now);
+                }
+            }
+        }
+    }
+
+    public record Decision(boolean allowed, long retryAfterMillis) {
+        static final Decision ALLOWED = new Decision(true, 0);
+
+        static Decision rejected(long retryAfterMillis) {
+            return new Decision(false, retryAfterMillis);
+        }
+
+        /**
+         * Whole seconds for the {@code Retry-After} header, rounded up.
+         */
+        public long retryAfterSeconds() {
+            return Math.max(1, (retryAfterMillis + 999) / 1000);
+        }
+    }
+
+    public record Stats(long allowed, long rejectedByIdentifier, long rejectedByIp, int identifierKeys, int ipKeys) {
+    }
+}
@@ -0,0 +1,208 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.model.MailOutboxMessage;
+import com.TrashTDL.ServerlessAuth.repository.MailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers the e-mail queued in {@code todo.mail_outbox}.
+ * <p>
+ * Each batch is claimed with {@code FOR UPDATE SKIP LOCKED}, so several instances can dispatch at once, and handed
+ * to the mail sender in one call, which delivers the whole batch over a single SMTP connection. Delivered rows are
+ * deleted. A failed message is retried with exponential backoff and dead-lettered (kept with {@code dead_at} set)
+ * after {@code application.mail.outbox.max-attempts}. Claimed rows are leased rather than locked, so a batch lost
+ * with a crashed instance becomes due again once the lease runs out.
+ */
+@Service
+@RequiredArgsConstructor
+public class MailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MailOutboxDispatcher.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final MailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${application.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${application.mail.outbox.max-batches:20}")
+    private int maxBatches;
+
+    @Value("${application.mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${application.mail.outbox.initial-backoff-ms:30000}")
+    private long initialBackoffMs;
+
+    @Value("${application.mail.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${application.mail.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    private final ExecutorService background = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "mail-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Starts a dispatch on the background thread unless one is already waiting to start. Used right after a
+     * message is queued so it usually leaves within moments; the timer function picks up anything this misses.
+     */
+    public void dispatchSoon() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            background.execute(() -> {
+                scheduled.set(false);
+                try {
+                    dispatch();
+                } catch (RuntimeException e) {
+                    log.warn("Background mail dispatch failed: {}", e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            scheduled.set(false);
+            log.warn("Could not schedule mail dispatch: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Drains due messages batch by batch until a batch comes back short or {@code max-batches} is reached.
+     */
+    public DispatchResult dispatch() {
+        final long start = System.nanoTime();
+        int delivered = 0;
+        int retried = 0;
+        int deadLettered = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<MailOutboxMessage> due = outboxRepository.claimDue(batchSize,
+                    OffsetDateTime.now().plusNanos(leaseMs * 1_000_000));
+            if (due.isEmpty()) {
+                break;
+            }
+            BatchOutcome outcome = deliver(due);
+            delivered += outcome.delivered;
+            retried += outcome.retried;
+            deadLettered += outcome.deadLettered;
+            if (due.size() < batchSize) {
+                break;
+            }
+        }
+        DispatchResult result = new DispatchResult(delivered, retried, deadLettered,
+                (System.nanoTime() - start) / 1_000_000);
+        if (delivered + retried + deadLettered > 0) {
+            log.info("Mail outbox: {} delivered, {} to retry, {} dead-lettered ({} ms)",
+                    delivered, retried, deadLettered, result.durationMillis());
+        }
+        return result;
+    }
+
+    private BatchOutcome deliver(List<MailOutboxMessage> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            MailOutboxMessage queued = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(queued.getRecipient());
+            message.setSubject(queued.getSubject());
+            message.setText(queued.getBody());
+            messages[i] = message;
+        }
+
+        Map<Object, Exception> failures = Map.of();
+        MailException batchFailure = null;
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+            batchFailure = failures.isEmpty() ? e : null;
+        } catch (MailException e) {
+            batchFailure = e;
+        }
+
+        BatchOutcome outcome = new BatchOutcome();
+        List<UUID> deliveredIds = new ArrayList<>();
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < messages.length; i++) {
+            MailOutboxMessage queued = batch.get(i);
+            Exception failure = batchFailure != null ? batchFailure : failures.get(messages[i]);
+            if (failure == null) {
+                deliveredIds.add(queued.getMessageId());
+                outcome.delivered++;
+                continue;
+            }
+            int attempts = queued.getAttempts() + 1;
+            String error = truncate(failure.getMessage());
+            if (attempts >= maxAttempts) {
+                outboxRepository.recordFailure(queued.getMessageId(), attempts, now, error, now);
+                log.error("Giving up on mail {} to {} after {} attempts: {}",
+                        queued.getMessageId(), queued.getRecipient(), attempts, error);
+                outcome.deadLettered++;
+            } else {
+                OffsetDateTime next = now.plusNanos(backoffMillis(attempts, initialBackoffMs, maxBackoffMs) * 1_000_000);
+                outboxRepository.recordFailure(queued.getMessageId(), attempts, next, error, null);
+                outcome.retried++;
+            }
+        }
+        if (!deliveredIds.isEmpty()) {
+            outboxRepository.deleteDelivered(deliveredIds);
+        }
+        return outcome;
+    }
+
+    /**
+     * Delay before attempt {@code attempts + 1}: {@code initial}, doubling with each failure, capped at {@code max}.
+     */
+    static long backoffMillis(int attempts, long initialMillis, long maxMillis) {
+        int doublings = Math.max(0, Math.min(attempts - 1, 30));
+        long delay = initialMillis << doublings;
+        return delay < 0 || delay > maxMillis ? maxMillis : delay;
+    }
+
+    private static String truncate(String error) {
+        if (error == null) {
+            return "unknown error";
+        }
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        background.shutdownNow();
+    }
+
+    public record DispatchResult(int delivered, int retried, int deadLettered, long durationMillis) { }
+
+    private static final class BatchOutcome {
+        int delivered;
+        int retried;
+        int deadLettered;
+    }
+}
@@ -0,0 +1,63 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.repository.PendingUserRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Deletes pending registrations whose verification code has expired, so abandoned signups stop holding their
+ * e-mail and username. Each batch is its own short transaction; a run stops at the first partial batch or
+ * after {@code application.registration.sweep.max-batches}, whichever comes first.
+ */
+@Service
+@Lazy
+@RequiredArgsConstructor
+public class PendingUserSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingUserSweeper.class);
+
+    private final PendingUserRepository pendingUserRepository;
+    private final AvailabilityService availabilityService;
+
+    @Value("${application.registration.pending-ttl-minutes:15}")
+    private int pendingTtlMinutes;
+
+    @Value("${application.registration.sweep.batch-size:500}")
+    private int batchSize;
+
+    @Value("${application.registration.sweep.max-batches:200}")
+    private int maxBatches;
+
+    public SweepResult sweep() {
+        final long start = System.nanoTime();
+        final OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(pendingTtlMinutes);
+
+        int purged = 0;
+        int batches = 0;
+        while (batches < maxBatches) {
+            int deleted = pendingUserRepository.deleteExpiredBatch(cutoff, batchSize);
+            batches++;
+            purged += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+
+        if (purged > 0) {
+            // The freed names are still in the availability filters until they are rebuilt
+            availabilityService.requestRebuild();
+        }
+
+        SweepResult result = new SweepResult(purged, batches, (System.nanoTime() - start) / 1_000_000);
+        log.info("Purged {} expired pending users in {} batches ({} ms)", result.purged(), result.batches(), result.durationMillis());
+        return result;
+    }
+
+    public record SweepResult(int purged, int batches, long durationMillis) { }
+}
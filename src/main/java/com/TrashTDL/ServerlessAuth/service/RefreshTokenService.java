@@ -0,0 +1,118 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.exception.InvalidRefreshTokenException;
+import com.TrashTDL.ServerlessAuth.model.RefreshToken;
+import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens.
+ * <p>
+ * Token values are 256 random bits, so a plain SHA-256 hash is enough to store them safely and a refresh
+ * costs one indexed lookup instead of a bcrypt comparison.
+ */
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${security.jwt.refresh-expiration-time}")
+    private long refreshExpiration;
+
+    /**
+     * Starts a new token family for the user, typically right after a password login.
+     */
+    @Transactional
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Exchanges a refresh token for the next one in its family.
+     * Presenting a token that was already rotated revokes the whole family, since either the client or an
+     * attacker is replaying a stolen value.
+     *
+     * @throws InvalidRefreshTokenException if the token is unknown, expired, revoked or reused
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashWithUser(hash(rawToken))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token."));
+
+        OffsetDateTime now = OffsetDateTime.now();
+        if (current.getRevokedAt() != null) {
+            throw new InvalidRefreshTokenException("Refresh token has been revoked.");
+        }
+        // Checked before claiming the token, so an expired token changes nothing however often it is presented
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Refresh token expired. Please log in again.");
+        }
+        if (current.getRotatedAt() != null || refreshTokenRepository.markRotated(current.getTokenId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse detected for user {}; token family {} revoked",
+                    current.getUser().getUserId(), current.getFamilyId());
+            throw new InvalidRefreshTokenException("Refresh token has already been used.");
+        }
+
+        User user = current.getUser();
+        if (!user.isEnabled()) {
+            refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            throw new InvalidRefreshTokenException("Account is disabled.");
+        }
+
+        return new Rotation(user, issue(user, current.getFamilyId()));
+    }
+
+    /**
+     * Revokes the token's whole family, e.g. on logout. Unknown tokens are ignored.
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHashWithUser(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), OffsetDateTime.now()));
+    }
+
+    private String issue(User user, UUID familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = ENCODER.encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .familyId(familyId)
+                .tokenHash(hash(rawToken))
+                .expiresAt(OffsetDateTime.now().plusNanos(refreshExpiration * 1_000_000L))
+                .build());
+        return rawToken;
+    }
+
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ENCODER.encodeToString(digest.digest(rawToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record Rotation(User user, String refreshToken) { }
+}
@@ -0,0 +1,195 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.repository.UserRepository;
+import com.TrashTDL.ServerlessAuth.security.AuthResult;
+import com.TrashTDL.ServerlessAuth.security.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Authenticates bearer tokens for the HTTP functions.
+ * <p>
+ * The principal is taken from the signed {@code sub}/{@code userId} claims. The user row is only consulted
+ * to compare the token's {@code ver} claim with the user's current token version, and that version is
+ * remembered for {@code security.auth.user-version-ttl-ms}, so a steady stream of requests from the same
+ * user costs no database round trips. Concurrent misses for one user share a single query, and {@link #stats()}
+ * reports hits, loads and their total time.
+ */
+@Service
+@RequiredArgsConstructor
+public class RequestAuthenticator {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestAuthenticator.class);
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    // Marks users that are unknown or soft-deleted; no token version can match it
+    private static final int NO_ACTIVE_USER = -1;
+
+    private final JwtService jwtService;
+    private final TokenRevocationService revocationService;
+    private final UserRepository userRepository;
+
+    @Value("${security.auth.user-version-ttl-ms:60000}")
+    private long userVersionTtlMs;
+
+    @Value("${security.auth.user-version-max-entries:100000}")
+    private int userVersionMaxEntries;
+
+    private final Map<UUID, CachedVersion> userVersions = new ConcurrentHashMap<>();
+    private final Map<UUID, CompletableFuture<CachedVersion>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder sharedLoads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    /**
+     * Returns the token from an {@code Authorization} header value, or {@code null} if it is not a bearer header.
+     */
+    public static String bearerToken(String authorizationHeader) {
+        if (authorizationHeader == null || !authorizationHeader.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        String token = authorizationHeader.substring(BEARER_PREFIX.length());
+        return token.isBlank() ? null : token;
+    }
+
+    public AuthResult authenticateHeader(String authorizationHeader) {
+        return authenticate(bearerToken(authorizationHeader));
+    }
+
+    public AuthResult authenticate(String token) {
+        if (token == null) {
+            return AuthResult.missing();
+        }
+
+        final VerifiedToken verified;
+        try {
+            verified = jwtService.verify(token);
+        } catch (ExpiredJwtException e) {
+            return AuthResult.expired();
+        } catch (Exception e) {
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            return AuthResult.invalid();
+        }
+
+        if (verified.isExpired()) {
+            return AuthResult.expired();
+        }
+        if (verified.subject() == null || verified.userId() == null) {
+            return AuthResult.invalid();
+        }
+        if (revocationService.isRevoked(verified) || !isCurrentVersion(verified)) {
+            return AuthResult.invalid();
+        }
+        return AuthResult.ok(verified);
+    }
+
+    /**
+     * Forgets the remembered token version so the next request for the user reads it again.
+     */
+    public void evict(UUID userId) {
+        // A load already running may have read the old version; dropping it keeps its result out of the cache
+        loading.remove(userId);
+        userVersions.remove(userId);
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), loads.sum(), sharedLoads.sum(), loadNanos.sum() / 1_000_000L, userVersions.size());
+    }
+
+    private boolean isCurrentVersion(VerifiedToken token) {
+        final UUID userId = token.userId();
+        final int tokenVersion = token.tokenVersion();
+        final long now = System.currentTimeMillis();
+
+        CachedVersion cached = userVersions.get(userId);
+        // A token newer than the cached version means the cache is behind, not that the token is bad
+        if (cached == null || cached.loadedAtMillis + userVersionTtlMs <= now || cached.version < tokenVersion) {
+            cached = load(userId, tokenVersion);
+        } else {
+            hits.increment();
+        }
+        return cached.version == tokenVersion;
+    }
+
+    private CachedVersion load(UUID userId, int tokenVersion) {
+        CompletableFuture<CachedVersion> mine = new CompletableFuture<>();
+        CompletableFuture<CachedVersion> running = loading.putIfAbsent(userId, mine);
+        if (running != null) {
+            sharedLoads.increment();
+            CachedVersion shared = join(running);
+            // The shared load may have started before the version this token carries was written
+            if (shared.version >= tokenVersion) {
+                return shared;
+            }
+            return query(userId);
+        }
+        try {
+            CachedVersion loaded = query(userId);
+            if (loading.remove(userId, mine)) {
+                remember(userId, loaded, loaded.loadedAtMillis);
+            }
+            mine.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            loading.remove(userId, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private CachedVersion query(UUID userId) {
+        long started = System.nanoTime();
+        try {
+            Optional<Integer> current = userRepository.findActiveTokenVersion(userId);
+            return new CachedVersion(current.orElse(NO_ACTIVE_USER), System.currentTimeMillis());
+        } finally {
+            loads.increment();
+            loadNanos.add(System.nanoTime() - started);
+        }
+    }
+
+    private static CachedVersion join(CompletableFuture<CachedVersion> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void remember(UUID userId, CachedVersion version, long now) {
+        if (userVersions.size() >= userVersionMaxEntries) {
+            userVersions.values().removeIf(v -> v.loadedAtMillis + userVersionTtlMs <= now);
+            if (userVersions.size() >= userVersionMaxEntries) {
+                userVersions.clear();
+            }
+        }
+        userVersions.put(userId, version);
+    }
+
+    /**
+     * {@code loadMillis} is the total time spent in version queries; {@code sharedLoads} counts misses that waited
+     * for another request's query instead of running their own.
+     */
+    public record Stats(long hits, long loads, long sharedLoads, long loadMillis, int size) { }
+
+    private record CachedVersion(int version, long loadedAtMillis) {
+    }
+}
@@ -0,0 +1,292 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.model.RevokedToken;
+import com.TrashTDL.ServerlessAuth.model.UserTokenRevocation;
+import com.TrashTDL.ServerlessAuth.repository.RefreshTokenRepository;
+import com.TrashTDL.ServerlessAuth.repository.RevokedTokenRepository;
+import com.TrashTDL.ServerlessAuth.repository.UserRepository;
+import com.TrashTDL.ServerlessAuth.repository.UserTokenRevocationRepository;
+import com.TrashTDL.ServerlessAuth.security.VerifiedToken;
+import com.TrashTDL.ServerlessAuth.util.BloomFilter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks revoked access tokens: single tokens by {@code jti} and whole users by a "revoked before" cut-off.
+ * <p>
+ * The tables are the source of truth. Each instance mirrors them in memory as a Bloom filter in front of an
+ * exact map, refreshed incrementally every {@code security.revocation.refresh-interval-ms} and rebuilt from
+ * scratch every {@code security.revocation.rebuild-interval-ms} to drop expired entries. Both run on a single
+ * background thread while requests keep using the previous snapshot; only the very first snapshot is loaded on
+ * the calling thread. A check for a token that was never revoked stops at the filter, without touching the maps
+ * or the database.
+ * <p>
+ * Per-user cut-offs are only kept for as long as an access token lives ({@code security.jwt.expiration-time}):
+ * the rebuild loads just those and deletes the older ones.
+ */
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Re-read a little before the last watermark to tolerate clock skew between instances
+    private static final long WATERMARK_OVERLAP_SECONDS = 5;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserTokenRevocationRepository userTokenRevocationRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    // RequestAuthenticator depends on this service, so it is looked up when needed rather than injected
+    private final ObjectProvider<RequestAuthenticator> requestAuthenticator;
+
+    @Value("${security.revocation.refresh-interval-ms:30000}")
+    private long refreshIntervalMs;
+
+    @Value("${security.revocation.rebuild-interval-ms:600000}")
+    private long rebuildIntervalMs;
+
+    @Value("${security.revocation.expected-entries:100000}")
+    private long expectedEntries;
+
+    @Value("${security.jwt.expiration-time:900000}")
+    private long accessTokenExpirationMs;
+
+    private Executor background = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "token-revocations");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean maintenanceScheduled = new AtomicBoolean();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    private volatile long lastRefreshMillis;
+    private volatile long lastRebuildMillis;
+    private volatile OffsetDateTime watermark;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduleMaintenance();
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        Snapshot current = current();
+
+        String jti = token.tokenId();
+        if (jti != null && current.jtiFilter.mightContain(jti) && current.revokedJtis.containsKey(jti)) {
+            return true;
+        }
+
+        UUID userId = token.userId();
+        if (userId != null && token.issuedAt() != null && current.userFilter.mightContain(userId.toString())) {
+            Long revokedBefore = current.revokedBefore.get(userId);
+            // iat only has whole seconds, so a token issued later in the same second as the cut-off cannot be told
+            // apart from one issued earlier in it; both are let through here, and those issued before the cut-off
+            // still fail the token version check that revokeAllForUser bumps
+            return revokedBefore != null && token.issuedAt().getEpochSecond() < Math.floorDiv(revokedBefore, 1000L);
+        }
+        return false;
+    }
+
+    /**
+     * Revokes a single access token until it expires.
+     */
+    public void revoke(VerifiedToken token) {
+        String jti = token.tokenId();
+        if (jti == null || token.userId() == null || token.expiresAt() == null) {
+            throw new IllegalArgumentException("Token cannot be revoked individually.");
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .userId(token.userId())
+                .expiresAt(token.expiresAt().atOffset(ZoneOffset.UTC))
+                .revokedAt(OffsetDateTime.now())
+                .build());
+
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.addToken(jti, token.expiresAt().toEpochMilli());
+        }
+        log.info("Access token {} revoked for user {}", jti, token.userId());
+    }
+
+    /**
+     * Revokes every access and refresh token the user currently holds ("log out everywhere").
+     * Also bumps the user's token version; this instance forgets its cached version right away, other instances
+     * notice once theirs expires.
+     */
+    @Transactional
+    public void revokeAllForUser(UUID userId) {
+        OffsetDateTime now = OffsetDateTime.now();
+        userTokenRevocationRepository.save(UserTokenRevocation.builder()
+                .userId(userId)
+                .revokedBefore(now)
+                .updatedAt(now)
+                .build());
+        int refreshTokens = refreshTokenRepository.revokeAllForUser(userId, now);
+        userRepository.incrementTokenVersion(userId);
+
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.addUser(userId, now.toInstant().toEpochMilli());
+        }
+        RequestAuthenticator authenticator = requestAuthenticator.getIfAvailable();
+        if (authenticator != null) {
+            authenticator.evict(userId);
+        }
+        log.info("All tokens revoked for user {} ({} refresh tokens)", userId, refreshTokens);
+    }
+
+    /**
+     * Replaces the thread refreshes and rebuilds run on, so tests can run them inline or hold them back.
+     */
+    void setMaintenanceExecutor(Executor executor) {
+        shutdown();
+        background = executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (background instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Nothing to serve yet, and answering "not revoked" without the list would let revoked tokens through
+            refreshLock.lock();
+            try {
+                if (snapshot == null) {
+                    rebuild();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+            return snapshot;
+        }
+        if (System.currentTimeMillis() - lastRefreshMillis >= refreshIntervalMs) {
+            // The current view is at most one interval (plus the refresh itself) old
+            scheduleMaintenance();
+        }
+        return current;
+    }
+
+    private void scheduleMaintenance() {
+        if (!maintenanceScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            background.execute(() -> {
+                maintenanceScheduled.set(false);
+                try {
+                    maintain();
+                } catch (RuntimeException e) {
+                    log.warn("Revocation list maintenance failed: {}", e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            maintenanceScheduled.set(false);
+            log.warn("Could not schedule revocation list maintenance: {}", e.getMessage());
+        }
+    }
+
+    private void maintain() {
+        refreshLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (snapshot == null || now - lastRebuildMillis >= rebuildIntervalMs) {
+                rebuild();
+            } else if (now - lastRefreshMillis >= refreshIntervalMs) {
+                refreshIncrementally();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        OffsetDateTime cutoff = startedAt.minus(Duration.ofMillis(accessTokenExpirationMs))
+                .minusSeconds(WATERMARK_OVERLAP_SECONDS);
+        int pruned = userTokenRevocationRepository.deleteRevokedBefore(cutoff);
+        List<RevokedToken> tokens = revokedTokenRepository.findByExpiresAtAfter(startedAt);
+        List<UserTokenRevocation> users = userTokenRevocationRepository.findByRevokedBeforeAfter(cutoff);
+
+        Snapshot rebuilt = new Snapshot(Math.max(expectedEntries, 2L * (tokens.size() + users.size())));
+        tokens.forEach(t -> rebuilt.addToken(t.getJti(), t.getExpiresAt().toInstant().toEpochMilli()));
+        users.forEach(u -> rebuilt.addUser(u.getUserId(), u.getRevokedBefore().toInstant().toEpochMilli()));
+
+        snapshot = rebuilt;
+        watermark = startedAt;
+        lastRefreshMillis = lastRebuildMillis = startedAt.toInstant().toEpochMilli();
+        log.info("Revocation list rebuilt: {} tokens, {} users ({} expired user cut-offs pruned)",
+                tokens.size(), users.size(), pruned);
+    }
+
+    private void refreshIncrementally() {
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        OffsetDateTime since = watermark.minusSeconds(WATERMARK_OVERLAP_SECONDS);
+        Snapshot current = snapshot;
+
+        revokedTokenRepository.findByRevokedAtAfter(since)
+                .forEach(t -> current.addToken(t.getJti(), t.getExpiresAt().toInstant().toEpochMilli()));
+        userTokenRevocationRepository.findByUpdatedAtAfter(since)
+                .forEach(u -> current.addUser(u.getUserId(), u.getRevokedBefore().toInstant().toEpochMilli()));
+
+        watermark = startedAt;
+        lastRefreshMillis = startedAt.toInstant().toEpochMilli();
+    }
+
+    /**
+     * One generation of the in-memory revocation list. Exact maps are written before the filters so a
+     * filter positive always finds its entry.
+     */
+    private static final class Snapshot {
+        final BloomFilter jtiFilter;
+        final BloomFilter userFilter;
+        final Map<String, Long> revokedJtis = new ConcurrentHashMap<>();
+        final Map<UUID, Long> revokedBefore = new ConcurrentHashMap<>();
+
+        Snapshot(long expectedEntries) {
+            this.jtiFilter = BloomFilter.create(expectedEntries, 0.001);
+            this.userFilter = BloomFilter.create(expectedEntries, 0.001);
+        }
+
+        void addToken(String jti, long expiresAtMillis) {
+            if (expiresAtMillis > Instant.now().toEpochMilli()) {
+                revokedJtis.put(jti, expiresAtMillis);
+                jtiFilter.add(jti);
+            }
+        }
+
+        void addUser(UUID userId, long revokedBeforeMillis) {
+            revokedBefore.merge(userId, revokedBeforeMillis, Math::max);
+            userFilter.add(userId.toString());
+        }
+    }
+}
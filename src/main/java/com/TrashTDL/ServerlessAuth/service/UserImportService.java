@@ -0,0 +1,420 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk-loads accounts from a legacy system straight into {@code todo.users}, skipping registration and e-mail
+ * verification.
+ * <p>
+ * Input is CSV (with a header row) or NDJSON, one account per row with {@code email}, {@code username} and either
+ * a plaintext {@code password} or an existing bcrypt {@code password_hash}. Rows are read in chunks; plaintext
+ * passwords of a chunk are hashed on a fork-join pool spanning every core while the previous chunk is written with
+ * one batched {@code INSERT ... ON CONFLICT DO NOTHING}. Rows that fail validation or collide with the e-mail or
+ * username of an existing account or of a pending registration are reported through {@link ImportListener#rowFailed}
+ * with their line number and never stop the import.
+ * <p>
+ * The Functions host hands the whole request body over at once, so a large export is sent as several uploads of
+ * at most {@code application.import.max-body-chars} each (every CSV part with its own header row); see
+ * {@link #getMaxBodyChars}.
+ * <p>
+ * Pre-hashed rows cost only the insert. Plaintext rows cost one bcrypt each at the configured cost, which
+ * dominates the run time: at cost 10 expect roughly 15 hashes per second per core.
+ */
+@Service
+@Lazy
+@RequiredArgsConstructor
+public class UserImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$");
+    private static final String BCRYPT_ID = "{bcrypt}";
+
+    // A pending registration holding the e-mail or username would otherwise fail to promote later
+    private static final String INSERT_SQL = """
+            insert into todo.users (user_id, username, email, password_hash, created_at, token_version)
+            select ?, ?, ?, ?, now(), 0
+            where not exists (select 1 from todo.pending_users where lower(email) = lower(?) or username = ?)
+            on conflict do nothing
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final AvailabilityService availabilityService;
+
+    @Value("${application.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${application.import.max-body-chars:8388608}")
+    private int maxBodyChars;
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format of(String name) {
+            return switch (name == null ? "" : name.trim().toLowerCase(Locale.ROOT)) {
+                case "csv", "text/csv" -> CSV;
+                case "ndjson", "jsonl", "application/x-ndjson", "application/jsonl" -> NDJSON;
+                default -> throw new IllegalArgumentException("Unsupported import format: " + name);
+            };
+        }
+    }
+
+    /**
+     * Receives progress after every written chunk and one call per rejected row. Called on the importing thread.
+     */
+    public interface ImportListener {
+        default void progress(ImportResult soFar) { }
+        default void rowFailed(RowError error) { }
+    }
+
+    /**
+     * Largest request body, in characters, one upload may carry.
+     */
+    public int getMaxBodyChars() {
+        return maxBodyChars;
+    }
+
+    public ImportResult importUsers(Reader input, Format format, ImportListener listener) {
+        final long start = System.nanoTime();
+        final Counters counters = new Counters();
+        // Own pool: bcrypt must not starve the common pool, and the request-path encoder pool is deliberately small
+        final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        final PasswordEncoder encoder = passwordEncoder instanceof BoundedPasswordEncoder bounded
+                ? bounded.getDelegate() : passwordEncoder;
+
+        try (BufferedReader reader = new BufferedReader(input, 1 << 16)) {
+            RowParser parser = format == Format.CSV ? new CsvParser(reader) : new NdjsonParser(reader);
+            CompletableFuture<List<PreparedRow>> previous = null;
+            List<ParsedRow> chunk;
+            while (!(chunk = parser.next(batchSize, counters, listener)).isEmpty()) {
+                final List<ParsedRow> rows = chunk;
+                CompletableFuture<List<PreparedRow>> hashing =
+                        CompletableFuture.supplyAsync(() -> prepare(rows, encoder), pool);
+                if (previous != null) {
+                    write(join(previous), counters, listener);
+                    listener.progress(counters.snapshot(start));
+                }
+                previous = hashing;
+            }
+            if (previous != null) {
+                write(join(previous), counters, listener);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read import input", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        ImportResult result = counters.snapshot(start);
+        listener.progress(result);
+        if (result.imported() > 0) {
+            availabilityService.requestRebuild();
+        }
+        log.info("User import finished: {} read, {} imported, {} failed in {} ms",
+                result.read(), result.imported(), result.failed(), result.durationMillis());
+        return result;
+    }
+
+    private static List<PreparedRow> prepare(List<ParsedRow> rows, PasswordEncoder encoder) {
+        // The pool has one worker per core; the parallel stream spreads the chunk's bcrypt work across all of them
+        return rows.parallelStream()
+                .map(row -> {
+                    if (row.passwordHash != null) {
+                        return new PreparedRow(row, row.passwordHash, null);
+                    }
+                    try {
+                        return new PreparedRow(row, encoder.encode(row.password), null);
+                    } catch (RuntimeException e) {
+                        return new PreparedRow(row, null, "Password could not be hashed: " + e.getMessage());
+                    }
+                })
+                .toList();
+    }
+
+    private void write(List<PreparedRow> rows, Counters counters, ImportListener listener) {
+        List<PreparedRow> valid = new ArrayList<>(rows.size());
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (PreparedRow row : rows) {
+            if (row.error != null) {
+                fail(counters, listener, row.row.line, row.row.email, row.error);
+                continue;
+            }
+            valid.add(row);
+            args.add(new Object[] {UUID.randomUUID(), row.row.username, row.row.email, row.hash,
+                    row.row.email, row.row.username});
+        }
+        if (args.isEmpty()) {
+            return;
+        }
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                PreparedRow row = valid.get(i);
+                fail(counters, listener, row.row.line, row.row.email, "Email or username already in use.");
+            } else if (counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO) {
+                counters.imported++;
+            }
+        }
+    }
+
+    private static void fail(Counters counters, ImportListener listener, long line, String email, String message) {
+        counters.failed++;
+        listener.rowFailed(new RowError(line, email, message));
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    /**
+     * Checks one input row; returns it ready for hashing, or reports it and returns {@code null}.
+     */
+    private static ParsedRow validate(long line, String email, String username, String password, String passwordHash,
+                                      Counters counters, ImportListener listener) {
+        counters.read++;
+        email = email == null ? null : email.trim();
+        username = username == null ? null : username.trim();
+        String error = null;
+        if (email == null || email.isEmpty() || email.indexOf('@') < 1) {
+            error = "A valid email is required.";
+        } else if (username == null || username.isEmpty()) {
+            error = "A username is required.";
+        } else if (isPresent(password) == isPresent(passwordHash)) {
+            error = "Exactly one of password and password_hash is required.";
+        } else if (isPresent(passwordHash)) {
+            String bare = passwordHash.startsWith(BCRYPT_ID) ? passwordHash.substring(BCRYPT_ID.length()) : passwordHash;
+            if (!BCRYPT_HASH.matcher(bare).matches()) {
+                error = "password_hash is not a bcrypt hash.";
+            } else {
+                // Stored with the id prefix like every hash the application writes
+                passwordHash = BCRYPT_ID + bare;
+            }
+        }
+        if (error != null) {
+            fail(counters, listener, line, email, error);
+            return null;
+        }
+        return new ParsedRow(line, email, username, isPresent(passwordHash) ? null : password,
+                isPresent(passwordHash) ? passwordHash : null);
+    }
+
+    private static boolean isPresent(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private interface RowParser {
+        /**
+         * Up to {@code max} valid rows; empty once the input is exhausted.
+         */
+        List<ParsedRow> next(int max, Counters counters, ImportListener listener) throws IOException;
+    }
+
+    private static final class NdjsonParser implements RowParser {
+        private final BufferedReader reader;
+        private long line;
+
+        NdjsonParser(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public List<ParsedRow> next(int max, Counters counters, ImportListener listener) throws IOException {
+            List<ParsedRow> rows = new ArrayList<>(max);
+            String text;
+            while (rows.size() < max && (text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                JsonNode node;
+                try {
+                    node = JSON.readTree(text);
+                } catch (IOException e) {
+                    counters.read++;
+                    fail(counters, listener, line, null, "Malformed JSON.");
+                    continue;
+                }
+                ParsedRow row = validate(line, text(node, "email"), text(node, "username"),
+                        text(node, "password"), text(node, "password_hash", "passwordHash"), counters, listener);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+
+        private static String text(JsonNode node, String... names) {
+            for (String name : names) {
+                JsonNode value = node.get(name);
+                if (value != null && value.isTextual()) {
+                    return value.asText();
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * RFC 4180 style: comma separated, fields optionally double-quoted with {@code ""} as an escaped quote.
+     * Records may not span lines.
+     */
+    private static final class CsvParser implements RowParser {
+        private final BufferedReader reader;
+        private long line;
+        private int emailColumn = -1;
+        private int usernameColumn = -1;
+        private int passwordColumn = -1;
+        private int hashColumn = -1;
+
+        CsvParser(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public List<ParsedRow> next(int max, Counters counters, ImportListener listener) throws IOException {
+            if (line == 0) {
+                readHeader();
+            }
+            List<ParsedRow> rows = new ArrayList<>(max);
+            String text;
+            while (rows.size() < max && (text = reader.readLine()) != null) {
+                line++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                List<String> fields = split(text);
+                if (fields == null) {
+                    counters.read++;
+                    fail(counters, listener, line, null, "Malformed CSV line.");
+                    continue;
+                }
+                ParsedRow row = validate(line, field(fields, emailColumn), field(fields, usernameColumn),
+                        field(fields, passwordColumn), field(fields, hashColumn), counters, listener);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+            return rows;
+        }
+
+        private void readHeader() throws IOException {
+            String header = reader.readLine();
+            line = 1;
+            List<String> names = header == null ? null : split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            if (names == null) {
+                throw new IllegalArgumentException("CSV input needs a header row");
+            }
+            for (int i = 0; i < names.size(); i++) {
+                switch (names.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "email" -> emailColumn = i;
+                    case "username" -> usernameColumn = i;
+                    case "password" -> passwordColumn = i;
+                    case "password_hash", "passwordhash" -> hashColumn = i;
+                    default -> { }
+                }
+            }
+            if (emailColumn < 0 || usernameColumn < 0 || (passwordColumn < 0 && hashColumn < 0)) {
+                throw new IllegalArgumentException(
+                        "CSV header must name email, username and password and/or password_hash columns");
+            }
+        }
+
+        private static String field(List<String> fields, int column) {
+            return column >= 0 && column < fields.size() ? fields.get(column) : null;
+        }
+
+        /**
+         * Returns {@code null} for an unterminated quoted field.
+         */
+        static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"') {
+                        if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                            current.append('"');
+                            i++;
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            fields.add(current.toString());
+            return fields;
+        }
+    }
+
+    public record ImportResult(long read, long imported, long failed, long durationMillis) {
+
+        public double rowsPerSecond() {
+            return durationMillis == 0 ? 0.0 : imported * 1000.0 / durationMillis;
+        }
+    }
+
+    /**
+     * A rejected row: its 1-based line in the input, the e-mail if one could be read, and why.
+     */
+    public record RowError(long line, String email, String message) { }
+
+    private record ParsedRow(long line, String email, String username, String password, String passwordHash) { }
+
+    private record PreparedRow(ParsedRow row, String hash, String error) { }
+
+    // Only touched by the importing thread
+    private static final class Counters {
+        long read;
+        long imported;
+        long failed;
+
+        ImportResult snapshot(long startNanos) {
+            return new ImportResult(read, imported, failed, (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.dto.Command;
+import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.security.VerifiedToken;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Does the work the first requests on a new instance would otherwise pay for: opens the pool's first connections,
+ * has the database parse the sync and folder statements on each of them, and runs token signing and verification,
+ * command validation and the sync mapper on synthetic data until the JIT has compiled them. Nothing is written.
+ * <p>
+ * Each step is timed on its own and a failing step does not stop the others, so a database without the todo
+ * functions still gets the in-memory warm-up.
+ */
+@Service
+@Lazy
+@RequiredArgsConstructor
+public class WarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupService.class);
+
+    private final DataSource dataSource;
+    private final JwtService jwtService;
+    private final SyncValidationService syncValidationService;
+    private final DBHandler dbHandler;
+
+    @Value("${application.warmup.connections:2}")
+    private int connections;
+
+    @Value("${application.warmup.iterations:500}")
+    private int iterations;
+
+    public WarmupResult warmUp() {
+        final long start = System.nanoTime();
+        List<String> failures = new ArrayList<>();
+
+        long stepStart = System.nanoTime();
+        List<Connection> opened = new ArrayList<>();
+        int prepared = 0;
+        long statementNanos = 0;
+        try {
+            // Held together so the pool really opens that many instead of handing back the same one
+            for (int i = 0; i < connectionTarget(); i++) {
+                opened.add(dataSource.getConnection());
+            }
+            long statementStart = System.nanoTime();
+            for (Connection connection : opened) {
+                prepared += prepareHotStatements(connection, failures);
+            }
+            statementNanos = System.nanoTime() - statementStart;
+        } catch (SQLException e) {
+            failures.add("connections: " + e.getMessage());
+        } finally {
+            for (Connection connection : opened) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Could not return a warm-up connection: {}", e.getMessage());
+                }
+            }
+        }
+        long connectionMillis = (System.nanoTime() - stepStart - statementNanos) / 1_000_000;
+        long statementMillis = statementNanos / 1_000_000;
+
+        stepStart = System.nanoTime();
+        try {
+            exerciseTokens();
+        } catch (RuntimeException e) {
+            failures.add("tokens: " + e.getMessage());
+        }
+        long tokenMillis = (System.nanoTime() - stepStart) / 1_000_000;
+
+        List<Command> commands = syntheticCommands();
+        stepStart = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                syncValidationService.validateCommands(commands);
+            }
+        } catch (RuntimeException e) {
+            failures.add("validation: " + e.getMessage());
+        }
+        long validationMillis = (System.nanoTime() - stepStart) / 1_000_000;
+
+        stepStart = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                dbHandler.primeMapper(commands);
+            }
+        } catch (Exception e) {
+            failures.add("mapper: " + e.getMessage());
+        }
+        long mapperMillis = (System.nanoTime() - stepStart) / 1_000_000;
+
+        WarmupResult result = new WarmupResult(opened.size(), prepared, connectionMillis, statementMillis, tokenMillis,
+                validationMillis, mapperMillis, (System.nanoTime() - start) / 1_000_000, failures);
+        log.info("Warm-up: {} connections ({} ms), {} statements ({} ms), tokens {} ms, validation {} ms, mapper {} ms, "
+                        + "total {} ms{}", result.connections(), result.connectionMillis(), result.statementsPrepared(),
+                result.statementMillis(), result.tokenMillis(), result.validationMillis(), result.mapperMillis(),
+                result.totalMillis(), failures.isEmpty() ? "" : ", failed: " + failures);
+        return result;
+    }
+
+    private int connectionTarget() {
+        // Never ask for more than the pool can hand out, or the warm-up would wait out the connection timeout
+        if (dataSource instanceof HikariDataSource hikari) {
+            return Math.min(connections, hikari.getMaximumPoolSize());
+        }
+        return connections;
+    }
+
+    /**
+     * Has the server parse and describe each statement (pgjdbc sends Parse/Describe for the parameter metadata),
+     * which resolves the functions and loads their catalog entries into the backend, and the driver cache the
+     * parsed query. Returns how many statements succeeded.
+     */
+    private static int prepareHotStatements(Connection connection, List<String> failures) {
+        int prepared = 0;
+        for (String sql : DBHandler.HOT_STATEMENTS) {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.getParameterMetaData();
+                prepared++;
+            } catch (SQLException e) {
+                String failure = "statement " + sql + ": " + e.getMessage();
+                if (!failures.contains(failure)) {
+                    failures.add(failure);
+                }
+            }
+        }
+        return prepared;
+    }
+
+    private void exerciseTokens() {
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .email("warmup@localhost")
+                .username("warmup")
+                .build();
+        for (int i = 0; i < iterations; i++) {
+            // Past the verified-token cache, so synthetic tokens do not take the place of real ones there
+            String token = jwtService.generateToken(user);
+            VerifiedToken verified = jwtService.verifyUncached(token);
+            if (!jwtService.isTokenValid(verified, user)) {
+                throw new IllegalStateException("synthetic token did not verify");
+            }
+        }
+    }
+
+    private static List<Command> syntheticCommands() {
+        Map<String, Object> data = Map.of("title", "Warm-up task", "status", "pending", "folderId", UUID.randomUUID().toString());
+        return List.of(
+                Command.builder().commandId(UUID.randomUUID().toString()).entityId(UUID.randomUUID().toString())
+                        .type("CREATE_TASK").data(data).timestamp("2024-01-01T00:00:00Z").build(),
+                Command.builder().commandId(UUID.randomUUID().toString()).entityId(UUID.randomUUID().toString())
+                        .action("update").entityType("task").data(data).clientTimestamp("2024-01-01T00:00:00Z").build(),
+                // Invalid on purpose, so the error branches are compiled too
+                Command.builder().commandId(UUID.randomUUID().toString()).type("RENAME_TASK").build());
+    }
+
+    public record WarmupResult(int connections, int statementsPrepared, long connectionMillis, long statementMillis,
+                               long tokenMillis, long validationMillis, long mapperMillis, long totalMillis,
+                               List<String> failures) { }
+}
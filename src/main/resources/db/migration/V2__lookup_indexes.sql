@@ -0,0 +1,23 @@
+-- Indexes for the lookups on the request paths. Hibernate's ddl-auto never created most of these.
+-- Index names differ from the constraint names Hibernate generated, so both may exist on older databases.
+
+-- Login and registration: findByEmail, findByUsername, findAllByEmailOrUsername, existsBy*
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_uq ON todo.users (email);
+CREATE UNIQUE INDEX IF NOT EXISTS users_username_uq ON todo.users (username);
+-- Two addresses differing only in case belong to the same mailbox
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_lower_uq ON todo.users (lower(email));
+
+CREATE UNIQUE INDEX IF NOT EXISTS pending_users_email_uq ON todo.pending_users (email);
+CREATE UNIQUE INDEX IF NOT EXISTS pending_users_username_uq ON todo.pending_users (username);
+CREATE INDEX IF NOT EXISTS pending_users_email_lower_idx ON todo.pending_users (lower(email));
+-- Verification: findByVerificationCode
+CREATE UNIQUE INDEX IF NOT EXISTS pending_users_verification_code_uq ON todo.pending_users (verification_code);
+
+-- Refresh: findByTokenHashWithUser; logout everywhere: revokeAllForUser
+CREATE UNIQUE INDEX IF NOT EXISTS refresh_tokens_token_hash_uq ON todo.refresh_tokens (token_hash);
+CREATE INDEX IF NOT EXISTS refresh_tokens_user_id_idx ON todo.refresh_tokens (user_id);
+CREATE INDEX IF NOT EXISTS refresh_tokens_family_id_idx ON todo.refresh_tokens (family_id);
+
+-- Revocation snapshot: findByExpiresAtAfter (full rebuild) and findByRevokedAtAfter (incremental refresh)
+CREATE INDEX IF NOT EXISTS revoked_tokens_expires_at_idx ON todo.revoked_tokens (expires_at);
+CREATE INDEX IF NOT EXISTS revoked_tokens_revoked_at_idx ON todo.revoked_tokens (revoked_at);
@@ -0,0 +1,2 @@
+-- Lets the pending-user sweeper find expired registrations oldest first without scanning the table
+CREATE INDEX IF NOT EXISTS pending_users_created_at_idx ON todo.pending_users (created_at);
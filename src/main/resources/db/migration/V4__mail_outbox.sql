@@ -0,0 +1,16 @@
+-- Transactional outbox for outgoing e-mail. Rows are written together with the change that causes the mail
+-- and drained by MailOutboxDispatcher; delivered rows are deleted, rows that exhaust their retries are kept
+-- with dead_at set for inspection.
+CREATE TABLE IF NOT EXISTS todo.mail_outbox (
+    message_id UUID PRIMARY KEY,
+    recipient TEXT NOT NULL,
+    subject TEXT NOT NULL,
+    body TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMPTZ NOT NULL,
+    last_error TEXT,
+    dead_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS mail_outbox_due_idx ON todo.mail_outbox (next_attempt_at) WHERE dead_at IS NULL;
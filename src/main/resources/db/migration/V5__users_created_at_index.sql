@@ -0,0 +1,2 @@
+-- Lets AvailabilityService pick up accounts created since its last refresh without scanning the table
+CREATE INDEX IF NOT EXISTS users_created_at_idx ON todo.users (created_at);
@@ -0,0 +1,2 @@
+-- Lets AccountPurger page through soft-deleted accounts by user_id without scanning live ones
+CREATE INDEX IF NOT EXISTS users_soft_deleted_idx ON todo.users (user_id) WHERE deleted_at IS NOT NULL;
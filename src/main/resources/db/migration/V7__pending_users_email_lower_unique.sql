@@ -0,0 +1,10 @@
+-- Two pending registrations whose e-mails differ only in case would both be promoted into the case-insensitive
+-- users_email_lower_uq; making the pending index unique too lets ON CONFLICT DO NOTHING turn the second away.
+-- Pending rows live for minutes, so any such duplicates left over are dropped, keeping the oldest.
+DELETE FROM todo.pending_users p
+USING todo.pending_users older
+WHERE lower(p.email) = lower(older.email)
+  AND (older.created_at, older.pending_id) < (p.created_at, p.pending_id);
+
+DROP INDEX IF EXISTS todo.pending_users_email_lower_idx;
+CREATE UNIQUE INDEX IF NOT EXISTS pending_users_email_lower_uq ON todo.pending_users (lower(email));
@@ -0,0 +1,34 @@
+-- Runs before each pending migration only. V2 makes e-mails (regardless of case) and usernames unique on
+-- todo.users; accounts cannot be merged or dropped automatically like pending rows in V7, so an older schema with
+-- clashing accounts fails here with the offending values instead of on the index build.
+-- Kept as a callback so the checksum of the already applied V2 does not change.
+DO $$
+DECLARE
+    clashes TEXT;
+BEGIN
+    IF to_regclass('todo.users') IS NULL
+            OR (to_regclass('todo.users_email_lower_uq') IS NOT NULL
+                AND to_regclass('todo.users_username_uq') IS NOT NULL) THEN
+        RETURN;
+    END IF;
+
+    SELECT string_agg(clash, ', ') INTO clashes
+    FROM (
+        SELECT 'e-mail ' || lower(email) || ' (' || count(*) || ' accounts)' AS clash
+        FROM todo.users
+        GROUP BY lower(email)
+        HAVING count(*) > 1
+        UNION ALL
+        SELECT 'username ' || username || ' (' || count(*) || ' accounts)'
+        FROM todo.users
+        GROUP BY username
+        HAVING count(*) > 1
+        LIMIT 20
+    ) found;
+
+    IF clashes IS NOT NULL THEN
+        RAISE EXCEPTION 'todo.users has accounts sharing an e-mail (ignoring case) or a username: %. '
+            'Merge, rename or delete them, then start again to create the unique indexes of V2.', clashes;
+    END IF;
+END
+$$;
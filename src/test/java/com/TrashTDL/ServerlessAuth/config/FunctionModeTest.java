@@ -0,0 +1,51 @@
+package com.TrashTDL.ServerlessAuth.config;
+
+import com.TrashTDL.ServerlessAuth.service.AccountPurger;
+import com.TrashTDL.ServerlessAuth.service.PendingUserSweeper;
+import com.TrashTDL.ServerlessAuth.service.UserImportService;
+import com.TrashTDL.ServerlessAuth.service.WarmupService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Function mode context Tests")
+class FunctionModeTest {
+
+    @Test
+    @DisplayName("should not create the timer and admin services until a function asks for them")
+    void rarelyUsedServices_areLazy() {
+        // Their dependencies are missing, so creating any of them eagerly would fail the context
+        new ApplicationContextRunner()
+                .withUserConfiguration(AccountPurger.class, PendingUserSweeper.class, UserImportService.class,
+                        WarmupService.class)
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context.getBeanFactory().getSingletonNames()).doesNotContain(
+                            "accountPurger", "pendingUserSweeper", "userImportService", "warmupService");
+                });
+    }
+
+    @Test
+    @DisplayName("should exclude the auto-configurations no function uses in the function profile only")
+    void functionProfile_excludesUnusedAutoConfigurations() throws Exception {
+        String excluded = PropertiesLoaderUtils.loadProperties(
+                        new ClassPathResource("application-" + SpringContextHolder.FUNCTION_PROFILE + ".properties"))
+                .getProperty("spring.autoconfigure.exclude");
+        List<String> names = Arrays.stream(excluded.split(",")).map(String::trim).toList();
+
+        assertThat(names).contains(SecurityAutoConfiguration.class.getName(),
+                UserDetailsServiceAutoConfiguration.class.getName(), JacksonAutoConfiguration.class.getName());
+        assertThat(PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties")))
+                .doesNotContainKey("spring.autoconfigure.exclude");
+    }
+}
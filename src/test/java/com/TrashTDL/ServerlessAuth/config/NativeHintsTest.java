@@ -0,0 +1,59 @@
+package com.TrashTDL.ServerlessAuth.config;
+
+import com.TrashTDL.ServerlessAuth.dto.SyncRequest;
+import com.TrashTDL.ServerlessAuth.dto.SyncResponse;
+import com.TrashTDL.ServerlessAuth.model.PendingUser;
+import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.repository.PendingUserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.core.DecoratingProxy;
+import org.springframework.data.projection.TargetAware;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("NativeHints Tests")
+class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeHintsTest() {
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("should register Jackson binding for the DTOs and reflection for the entities")
+    void registersReflection() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(SyncRequest.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(SyncResponse.class, "getConflicts").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(User.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(PendingUser.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+    }
+
+    @Test
+    @DisplayName("should register every jjwt class on the classpath for reflective construction")
+    void registersJjwt() {
+        for (String name : NativeHints.JJWT_CLASSES) {
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(name))
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints), name);
+        }
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/services/io.jsonwebtoken.io.Deserializer").test(hints));
+    }
+
+    @Test
+    @DisplayName("should register the JDK proxies behind the native query projections")
+    void registersProjectionProxies() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(PendingUserRepository.Availability.class,
+                TargetAware.class, SpringProxy.class, Advised.class, DecoratingProxy.class).test(hints));
+    }
+}
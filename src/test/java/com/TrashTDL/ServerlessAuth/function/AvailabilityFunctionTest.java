@@ -0,0 +1,73 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.dto.AvailabilityResponse;
+import com.TrashTDL.ServerlessAuth.service.AvailabilityService;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AvailabilityFunction Tests")
+class AvailabilityFunctionTest {
+
+    @Mock private AvailabilityService availabilityService;
+    @Mock private ExecutionContext context;
+    @Mock private HttpRequestMessage<Void> request;
+    @Mock private HttpResponseMessage.Builder responseBuilder;
+    @Mock private HttpResponseMessage httpResponse;
+
+    private final AvailabilityFunction availabilityFunction = new AvailabilityFunction();
+
+    @BeforeEach
+    void setUp() {
+        when(request.createResponseBuilder(any(HttpStatus.class))).thenReturn(responseBuilder);
+        lenient().when(responseBuilder.header(anyString(), anyString())).thenReturn(responseBuilder);
+        when(responseBuilder.body(any())).thenReturn(responseBuilder);
+        when(responseBuilder.build()).thenReturn(httpResponse);
+    }
+
+    @Test
+    @DisplayName("should return 200 OK with the availability of the requested values")
+    void availability_returns200() {
+        when(request.getQueryParameters()).thenReturn(Map.of("email", "john@example.com", "username", "johndoe"));
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(AvailabilityService.class)).thenReturn(availabilityService);
+            when(availabilityService.check("john@example.com", "johndoe"))
+                    .thenReturn(new AvailabilityService.Availability(true, false));
+
+            availabilityFunction.run(request, context);
+
+            verify(request).createResponseBuilder(HttpStatus.OK);
+            verify(responseBuilder).header("Cache-Control", "no-store");
+            verify(responseBuilder).body(new AvailabilityResponse(true, false));
+        }
+    }
+
+    @Test
+    @DisplayName("should return 400 Bad Request when nothing is asked for")
+    void availability_noParameters_returns400() {
+        when(request.getQueryParameters()).thenReturn(Map.of("email", " "));
+
+        availabilityFunction.run(request, context);
+
+        verify(request).createResponseBuilder(HttpStatus.BAD_REQUEST);
+        verify(responseBuilder).body("Please provide an email or username to check.");
+    }
+}
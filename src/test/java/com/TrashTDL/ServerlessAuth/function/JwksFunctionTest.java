@@ -0,0 +1,82 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.service.JwtService;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for JwksFunction
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JwksFunction Tests")
+class JwksFunctionTest {
+
+    @InjectMocks private JwksFunction jwksFunction;
+    @Mock private JwtService jwtService;
+    @Mock private ExecutionContext context;
+    @Mock private HttpRequestMessage<Void> request;
+    @Mock private HttpResponseMessage.Builder responseBuilder;
+    @Mock private HttpResponseMessage httpResponse;
+
+    @BeforeEach
+    void setUp() {
+        when(context.getLogger()).thenReturn(Logger.getLogger("test-logger"));
+        when(request.createResponseBuilder(any(HttpStatus.class))).thenReturn(responseBuilder);
+        lenient().when(responseBuilder.header(anyString(), anyString())).thenReturn(responseBuilder);
+        when(responseBuilder.body(any())).thenReturn(responseBuilder);
+        when(responseBuilder.build()).thenReturn(httpResponse);
+    }
+
+    @Test
+    @DisplayName("should return 200 OK with a cacheable JWKS document")
+    void jwks_success_returns200() {
+        String jwks = "{\"keys\":[{\"kty\":\"EC\",\"kid\":\"k1\"}]}";
+        when(jwtService.getPublicJwksJson()).thenReturn(jwks);
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.OK);
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(JwtService.class)).thenReturn(jwtService);
+
+            HttpResponseMessage response = jwksFunction.run(request, context);
+
+            assertEquals(HttpStatus.OK, response.getStatus());
+            verify(responseBuilder).header("Cache-Control", JwksFunction.CACHE_CONTROL);
+            verify(responseBuilder).body(jwks);
+        }
+    }
+
+    @Test
+    @DisplayName("should return 500 Internal Server Error when keys cannot be loaded")
+    void jwks_misconfiguredKeys_returns500() {
+        when(jwtService.getPublicJwksJson()).thenThrow(new IllegalStateException("No JWT signing key configured"));
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.INTERNAL_SERVER_ERROR);
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(JwtService.class)).thenReturn(jwtService);
+
+            HttpResponseMessage response = jwksFunction.run(request, context);
+
+            assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatus());
+            verify(responseBuilder).body("Public keys are unavailable.");
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.TrashTDL.ServerlessAuth.function;
 import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
 import com.TrashTDL.ServerlessAuth.dto.AuthResponse;
 import com.TrashTDL.ServerlessAuth.dto.LoginRequest;
+import com.TrashTDL.ServerlessAuth.exception.PasswordHashingUnavailableException;
 import com.TrashTDL.ServerlessAuth.service.AuthService;
+import com.TrashTDL.ServerlessAuth.service.LoginThrottle;
 import com.microsoft.azure.functions.ExecutionContext;
 import com.microsoft.azure.functions.HttpRequestMessage;
 import com.microsoft.azure.functions.HttpResponseMessage;
@@ -19,6 +21,7 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.AuthenticationException;
 
+import java.util.Map;
 import java.util.UUID;
 import java.util.logging.Logger;
 
@@ -35,6 +38,7 @@ class LoginFunctionTest {
 
     @InjectMocks private LoginFunction loginFunction;
     @Mock private AuthService authService;
+    @Mock private LoginThrottle loginThrottle;
     @Mock private ExecutionContext context;
     @Mock private HttpRequestMessage<LoginRequest> request;
     @Mock private HttpResponseMessage.Builder responseBuilder;
@@ -48,17 +52,23 @@ class LoginFunctionTest {
         when(responseBuilder.build()).thenReturn(httpResponse);
     }
 
+    private void setupMockServices(MockedStatic<SpringContextHolder> springMock) {
+        springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+        springMock.when(() -> SpringContextHolder.getBean(LoginThrottle.class)).thenReturn(loginThrottle);
+        when(loginThrottle.tryAcquire(any(), any())).thenReturn(new LoginThrottle.Decision(true, 0));
+    }
+
     @Test
     @DisplayName("should return 200 OK with AuthResponse on successful login")
     void login_success_returns200() {
         LoginRequest loginRequest = new LoginRequest("user", "pass", "");
-        AuthResponse authResponse = new AuthResponse("token", UUID.randomUUID());
+        AuthResponse authResponse = new AuthResponse("token", "refresh-token", UUID.randomUUID());
         when(request.getBody()).thenReturn(loginRequest);
         when(authService.login(loginRequest)).thenReturn(authResponse);
         when(httpResponse.getStatus()).thenReturn(HttpStatus.OK);
 
         try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
-            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+            setupMockServices(springMock);
             
             HttpResponseMessage response = loginFunction.run(request, context);
 
@@ -76,7 +86,7 @@ class LoginFunctionTest {
         when(httpResponse.getStatus()).thenReturn(HttpStatus.UNAUTHORIZED);
 
         try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
-            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+            setupMockServices(springMock);
 
             HttpResponseMessage response = loginFunction.run(request, context);
 
@@ -85,6 +95,48 @@ class LoginFunctionTest {
         }
     }
 
+    @Test
+    @DisplayName("should return 503 Service Unavailable when password hashing is saturated")
+    void login_hashingBusy_returns503() {
+        LoginRequest loginRequest = new LoginRequest("user", "pass", "");
+        when(request.getBody()).thenReturn(loginRequest);
+        when(authService.login(loginRequest)).thenThrow(new PasswordHashingUnavailableException("Too many sign-in requests, please retry shortly."));
+        when(responseBuilder.header("Retry-After", "1")).thenReturn(responseBuilder);
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.SERVICE_UNAVAILABLE);
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            setupMockServices(springMock);
+
+            HttpResponseMessage response = loginFunction.run(request, context);
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatus());
+            verify(request).createResponseBuilder(HttpStatus.SERVICE_UNAVAILABLE);
+            verify(responseBuilder).header("Retry-After", "1");
+        }
+    }
+
+    @Test
+    @DisplayName("should return 429 Too Many Requests before authenticating when throttled")
+    void login_throttled_returns429() {
+        LoginRequest loginRequest = new LoginRequest("test@example.com", null, "pass");
+        when(request.getBody()).thenReturn(loginRequest);
+        when(request.getHeaders()).thenReturn(Map.of("x-forwarded-for", "198.51.100.9, 203.0.113.7:51234"));
+        when(responseBuilder.header("Retry-After", "12")).thenReturn(responseBuilder);
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.TOO_MANY_REQUESTS);
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+            springMock.when(() -> SpringContextHolder.getBean(LoginThrottle.class)).thenReturn(loginThrottle);
+            when(loginThrottle.tryAcquire("test@example.com", "203.0.113.7")).thenReturn(new LoginThrottle.Decision(false, 11_200));
+
+            HttpResponseMessage response = loginFunction.run(request, context);
+
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatus());
+            verify(responseBuilder).header("Retry-After", "12");
+            verifyNoInteractions(authService);
+        }
+    }
+
     @Test
     @DisplayName("should return 400 Bad Request for null request body")
     void login_nullBody_returns400() {
@@ -145,7 +197,7 @@ class LoginFunctionTest {
         when(httpResponse.getStatus()).thenReturn(HttpStatus.INTERNAL_SERVER_ERROR);
 
         try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
-            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+            setupMockServices(springMock);
 
             HttpResponseMessage response = loginFunction.run(request, context);
 
@@ -163,7 +215,7 @@ class LoginFunctionTest {
         when(httpResponse.getStatus()).thenReturn(HttpStatus.INTERNAL_SERVER_ERROR);
 
         try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
-            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+            setupMockServices(springMock);
 
             HttpResponseMessage response = loginFunction.run(request, context);
 
@@ -0,0 +1,97 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.dto.AuthResponse;
+import com.TrashTDL.ServerlessAuth.dto.RefreshRequest;
+import com.TrashTDL.ServerlessAuth.exception.InvalidRefreshTokenException;
+import com.TrashTDL.ServerlessAuth.service.AuthService;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RefreshFunction
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshFunction Tests")
+class RefreshFunctionTest {
+
+    @InjectMocks private RefreshFunction refreshFunction;
+    @Mock private AuthService authService;
+    @Mock private ExecutionContext context;
+    @Mock private HttpRequestMessage<RefreshRequest> request;
+    @Mock private HttpResponseMessage.Builder responseBuilder;
+    @Mock private HttpResponseMessage httpResponse;
+
+    @BeforeEach
+    void setUp() {
+        when(context.getLogger()).thenReturn(Logger.getLogger("test-logger"));
+        when(request.createResponseBuilder(any(HttpStatus.class))).thenReturn(responseBuilder);
+        when(responseBuilder.body(any())).thenReturn(responseBuilder);
+        when(responseBuilder.build()).thenReturn(httpResponse);
+    }
+
+    @Test
+    @DisplayName("should return 200 OK with a new token pair")
+    void refresh_success_returns200() {
+        AuthResponse authResponse = new AuthResponse("access", "next-refresh", UUID.randomUUID());
+        when(request.getBody()).thenReturn(new RefreshRequest("refresh"));
+        when(authService.refresh("refresh")).thenReturn(authResponse);
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.OK);
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+
+            HttpResponseMessage response = refreshFunction.run(request, context);
+
+            assertEquals(HttpStatus.OK, response.getStatus());
+            verify(responseBuilder).body(authResponse);
+        }
+    }
+
+    @Test
+    @DisplayName("should return 401 Unauthorized for a reused or invalid refresh token")
+    void refresh_invalidToken_returns401() {
+        when(request.getBody()).thenReturn(new RefreshRequest("refresh"));
+        when(authService.refresh("refresh")).thenThrow(new InvalidRefreshTokenException("Refresh token has already been used."));
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.UNAUTHORIZED);
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+
+            HttpResponseMessage response = refreshFunction.run(request, context);
+
+            assertEquals(HttpStatus.UNAUTHORIZED, response.getStatus());
+            verify(responseBuilder).body("Refresh failed: Refresh token has already been used.");
+        }
+    }
+
+    @Test
+    @DisplayName("should return 400 Bad Request when the refresh token is missing")
+    void refresh_missingToken_returns400() {
+        when(request.getBody()).thenReturn(new RefreshRequest(""));
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.BAD_REQUEST);
+
+        HttpResponseMessage response = refreshFunction.run(request, context);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatus());
+        verify(responseBuilder).body("Please pass a refresh token in the request body.");
+    }
+}
@@ -2,6 +2,7 @@ package com.TrashTDL.ServerlessAuth.function;
 
 import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
 import com.TrashTDL.ServerlessAuth.dto.RegisterRequest;
+import com.TrashTDL.ServerlessAuth.exception.PasswordHashingUnavailableException;
 import com.TrashTDL.ServerlessAuth.service.AuthService;
 import com.microsoft.azure.functions.ExecutionContext;
 import com.microsoft.azure.functions.HttpRequestMessage;
@@ -82,6 +83,25 @@ class RegisterFunctionTest {
         }
     }
 
+    @Test
+    @DisplayName("should return 503 Service Unavailable when password hashing is saturated")
+    void register_hashingBusy_returns503() {
+        RegisterRequest registerRequest = new RegisterRequest("user", "user@email.com", "password");
+        when(request.getBody()).thenReturn(registerRequest);
+        when(authService.register(registerRequest)).thenThrow(new PasswordHashingUnavailableException("Too many sign-in requests, please retry shortly."));
+        when(responseBuilder.header("Retry-After", "1")).thenReturn(responseBuilder);
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.SERVICE_UNAVAILABLE);
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+
+            HttpResponseMessage response = registerFunction.run(request, context);
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatus());
+            verify(responseBuilder).body("Registration failed: Too many sign-in requests, please retry shortly.");
+        }
+    }
+
     @Test
     @DisplayName("should return 400 Bad Request for null request body")
     void register_nullBody_returns400() {
@@ -0,0 +1,120 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.service.AccountPurger;
+import com.TrashTDL.ServerlessAuth.service.MailOutboxDispatcher;
+import com.TrashTDL.ServerlessAuth.service.PendingUserSweeper;
+import com.microsoft.azure.functions.ExecutionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+/**
+ * The housekeeping timers share one shape: fetch a service from the context, run it once per tick and log the
+ * result. A failure is logged and rethrown, so the host records the run as failed. What each service does is
+ * covered by its own test.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Timer function Tests")
+class TimerFunctionsTest {
+
+    @Mock private ExecutionContext context;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(context.getLogger()).thenReturn(Logger.getLogger("test-logger"));
+        System.setProperty("application.use-mailer", "true");
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("application.use-mailer");
+    }
+
+    static Stream<Named<Timer<?>>> timers() {
+        return Stream.of(
+                timer("PendingUserSweep", PendingUserSweeper.class, PendingUserSweeper::sweep,
+                        new PendingUserSweeper.SweepResult(12, 1, 5), new PendingUserSweepFunction()::run),
+                timer("MailOutbox", MailOutboxDispatcher.class, MailOutboxDispatcher::dispatch,
+                        new MailOutboxDispatcher.DispatchResult(3, 1, 0, 40), new MailOutboxFunction()::run),
+                timer("AccountPurge", AccountPurger.class, AccountPurger::purge,
+                        new AccountPurger.PurgeResult(false, 2, 0, 40, Map.of("todo.tasks", 38L, "todo.users", 2L), 4, true, 5),
+                        new AccountPurgeFunction()::run));
+    }
+
+    @ParameterizedTest
+    @MethodSource("timers")
+    @DisplayName("should run the service once per timer tick")
+    void run_callsServiceOnce(Timer<?> timer) {
+        runsOnce(timer);
+    }
+
+    @ParameterizedTest
+    @MethodSource("timers")
+    @DisplayName("should log and rethrow failures so the host records the run as failed")
+    void run_failure_isRethrown(Timer<?> timer) {
+        rethrowsFailure(timer);
+    }
+
+    @Test
+    @DisplayName("should leave the mail outbox and the context alone while the mailer is off")
+    void mailOutbox_mailerOff_skips() {
+        System.setProperty("application.use-mailer", "false");
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+
+            new MailOutboxFunction().run("{}", context);
+
+            springMock.verifyNoInteractions();
+        }
+    }
+
+    private <T> void runsOnce(Timer<T> timer) {
+        T service = mock(timer.service());
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(timer.service())).thenReturn(service);
+            when(timer.work().apply(service)).thenReturn(timer.result());
+
+            timer.function().accept("{}", context);
+
+            timer.work().apply(verify(service));
+        }
+    }
+
+    private <T> void rethrowsFailure(Timer<T> timer) {
+        T service = mock(timer.service());
+        RuntimeException failure = new RuntimeException("connection refused");
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(timer.service())).thenReturn(service);
+            when(timer.work().apply(service)).thenThrow(failure);
+
+            assertSame(failure, assertThrows(RuntimeException.class, () -> timer.function().accept("{}", context)));
+        }
+    }
+
+    private static <T> Named<Timer<?>> timer(String name, Class<T> service, Function<T, Object> work, Object result,
+                                             BiConsumer<String, ExecutionContext> function) {
+        return Named.of(name, new Timer<>(service, work, result, function));
+    }
+
+    record Timer<T>(Class<T> service, Function<T, Object> work, Object result,
+                    BiConsumer<String, ExecutionContext> function) { }
+}
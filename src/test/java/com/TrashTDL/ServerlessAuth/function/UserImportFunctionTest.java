@@ -0,0 +1,100 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.dto.UserImportResponse;
+import com.TrashTDL.ServerlessAuth.service.UserImportService;
+import com.microsoft.azure.functions.ExecutionContext;
+import com.microsoft.azure.functions.HttpRequestMessage;
+import com.microsoft.azure.functions.HttpResponseMessage;
+import com.microsoft.azure.functions.HttpStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserImportFunction Tests")
+class UserImportFunctionTest {
+
+    @Mock private UserImportService importService;
+    @Mock private ExecutionContext context;
+    @Mock private HttpRequestMessage<Optional<String>> request;
+    @Mock private HttpResponseMessage.Builder responseBuilder;
+    @Mock private HttpResponseMessage httpResponse;
+
+    private final UserImportFunction importFunction = new UserImportFunction();
+
+    @BeforeEach
+    void setUp() {
+        when(request.createResponseBuilder(any(HttpStatus.class))).thenReturn(responseBuilder);
+        when(responseBuilder.body(any())).thenReturn(responseBuilder);
+        when(responseBuilder.build()).thenReturn(httpResponse);
+    }
+
+    @Test
+    @DisplayName("should import the body in the format named by the Content-Type and return the report")
+    void import_returns200WithReport() {
+        when(request.getBody()).thenReturn(Optional.of("{\"email\":\"ana@example.com\"}\n"));
+        when(request.getQueryParameters()).thenReturn(Map.of());
+        when(request.getHeaders()).thenReturn(Map.of("content-type", "application/x-ndjson; charset=utf-8"));
+        lenient().when(context.getLogger()).thenReturn(Logger.getGlobal());
+        UserImportService.RowError error = new UserImportService.RowError(1, "ana@example.com", "A username is required.");
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(UserImportService.class)).thenReturn(importService);
+            when(importService.getMaxBodyChars()).thenReturn(8 << 20);
+            when(importService.importUsers(any(), eq(UserImportService.Format.NDJSON), any())).thenAnswer(invocation -> {
+                UserImportService.ImportListener listener = invocation.getArgument(2);
+                listener.rowFailed(error);
+                return new UserImportService.ImportResult(1, 0, 1, 5);
+            });
+
+            importFunction.run(request, context);
+
+            verify(request).createResponseBuilder(HttpStatus.OK);
+            verify(responseBuilder).body(new UserImportResponse(1, 0, 1, 5, List.of(error)));
+        }
+    }
+
+    @Test
+    @DisplayName("should return 413 for a body above the per-upload limit without importing any of it")
+    void import_oversizedBody_returns413() {
+        when(request.getBody()).thenReturn(Optional.of("email,username,password\nana@example.com,ana,secret\n"));
+        when(request.getQueryParameters()).thenReturn(Map.of("format", "csv"));
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(UserImportService.class)).thenReturn(importService);
+            when(importService.getMaxBodyChars()).thenReturn(16);
+
+            importFunction.run(request, context);
+
+            verify(request).createResponseBuilder(HttpStatus.PAYLOAD_TOO_LARGE);
+            verify(importService, never()).importUsers(any(), any(), any());
+        }
+    }
+
+    @Test
+    @DisplayName("should return 400 Bad Request for an unknown format")
+    void import_unknownFormat_returns400() {
+        when(request.getBody()).thenReturn(Optional.of("<users/>"));
+        when(request.getQueryParameters()).thenReturn(Map.of("format", "xml"));
+
+        importFunction.run(request, context);
+
+        verify(request).createResponseBuilder(HttpStatus.BAD_REQUEST);
+        verify(responseBuilder).body("Use format=csv or format=ndjson.");
+    }
+}
@@ -1,6 +1,7 @@
 package com.TrashTDL.ServerlessAuth.function;
 
 import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.exception.AccountConflictException;
 import com.TrashTDL.ServerlessAuth.exception.VerificationCodeExpiredException;
 import com.TrashTDL.ServerlessAuth.service.AuthService;
 import com.microsoft.azure.functions.ExecutionContext;
@@ -83,6 +84,42 @@ class VerifyFunctionTest {
         }
     }
 
+    @Test
+    @DisplayName("should return 409 Conflict when an account already holds the e-mail or username")
+    void verify_accountConflict_returns409() {
+        String code = "late-code";
+        when(request.getQueryParameters()).thenReturn(Map.of("code", code));
+        when(authService.verify(code)).thenThrow(new AccountConflictException("An account with this email or username already exists."));
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.CONFLICT);
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+
+            HttpResponseMessage response = verifyFunction.run(request, context);
+
+            assertEquals(HttpStatus.CONFLICT, response.getStatus());
+            verify(request).createResponseBuilder(HttpStatus.CONFLICT);
+        }
+    }
+
+    @Test
+    @DisplayName("should return 400 Bad Request for an unknown verification code")
+    void verify_unknownCode_returns400() {
+        String unknownCode = "unknown-code";
+        when(request.getQueryParameters()).thenReturn(Map.of("code", unknownCode));
+        when(authService.verify(unknownCode)).thenThrow(new IllegalArgumentException("Invalid or expired verification code."));
+        when(httpResponse.getStatus()).thenReturn(HttpStatus.BAD_REQUEST);
+
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(AuthService.class)).thenReturn(authService);
+
+            HttpResponseMessage response = verifyFunction.run(request, context);
+
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatus());
+            verify(responseBuilder).body("Invalid or expired verification code.");
+        }
+    }
+
     @Test
     @DisplayName("should return 400 Bad Request when verification code is missing")
     void verify_missingCode_returns400() {
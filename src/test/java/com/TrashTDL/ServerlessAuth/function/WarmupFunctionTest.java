@@ -0,0 +1,93 @@
+package com.TrashTDL.ServerlessAuth.function;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.service.WarmupService;
+import com.microsoft.azure.functions.ExecutionContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WarmupFunction Tests")
+class WarmupFunctionTest {
+
+    @Mock private WarmupService warmupService;
+    @Mock private ExecutionContext context;
+
+    private final WarmupFunction function = new WarmupFunction();
+
+    @BeforeEach
+    void setUp() {
+        // Not read when the timer is off
+        lenient().when(context.getLogger()).thenReturn(Logger.getLogger("test-logger"));
+        System.setProperty("application.warmup.timer-enabled", "true");
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty("application.warmup.timer-enabled");
+    }
+
+    @Test
+    @DisplayName("should start the context and run one warm-up per trigger")
+    void run_warmsUpOnce() {
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(WarmupService.class)).thenReturn(warmupService);
+            when(warmupService.warmUp()).thenReturn(
+                    new WarmupService.WarmupResult(2, 4, 30, 5, 120, 8, 40, 203, List.of()));
+
+            function.run("{}", context);
+
+            verify(warmupService).warmUp();
+        }
+    }
+
+    @Test
+    @DisplayName("should not start the context when the timer is turned off")
+    void run_timerOff_skips() {
+        System.setProperty("application.warmup.timer-enabled", "false");
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+
+            function.run("{}", context);
+
+            springMock.verifyNoInteractions();
+        }
+    }
+
+    @Test
+    @DisplayName("should swallow failures so requests are served without a warm-up")
+    void run_failure_doesNotThrow() {
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(WarmupService.class))
+                    .thenThrow(new IllegalStateException("datasource unavailable"));
+
+            assertDoesNotThrow(() -> function.run("{}", context));
+        }
+    }
+
+    @Test
+    @DisplayName("should run the same warm-up when the host adds an instance")
+    void onScaleOut_warmsUp() {
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(WarmupService.class)).thenReturn(warmupService);
+            when(warmupService.warmUp()).thenReturn(new WarmupService.WarmupResult(2, 2, 30, 5, 120, 8, 40, 203,
+                    List.of("statement SELECT todo.merge_task_commands(?, ?::jsonb): function does not exist")));
+
+            function.onScaleOut(null, context);
+
+            verify(warmupService).warmUp();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.TrashTDL.ServerlessAuth.handler;
+
+import com.TrashTDL.ServerlessAuth.config.SpringContextHolder;
+import com.TrashTDL.ServerlessAuth.function.AccountPurgeFunction;
+import com.TrashTDL.ServerlessAuth.function.AvailabilityFunction;
+import com.TrashTDL.ServerlessAuth.function.FoldersFunction;
+import com.TrashTDL.ServerlessAuth.function.JwksFunction;
+import com.TrashTDL.ServerlessAuth.function.LoginFunction;
+import com.TrashTDL.ServerlessAuth.function.LogoutFunction;
+import com.TrashTDL.ServerlessAuth.function.MailOutboxFunction;
+import com.TrashTDL.ServerlessAuth.function.PendingUserSweepFunction;
+import com.TrashTDL.ServerlessAuth.function.RefreshFunction;
+import com.TrashTDL.ServerlessAuth.function.RegisterFunction;
+import com.TrashTDL.ServerlessAuth.function.SyncFunction;
+import com.TrashTDL.ServerlessAuth.function.UserImportFunction;
+import com.TrashTDL.ServerlessAuth.function.VerifyFunction;
+import com.TrashTDL.ServerlessAuth.function.WarmupFunction;
+import com.TrashTDL.ServerlessAuth.service.AuthService;
+import com.TrashTDL.ServerlessAuth.service.AvailabilityService;
+import com.TrashTDL.ServerlessAuth.service.PendingUserSweeper;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomHandler Tests")
+class CustomHandlerTest {
+
+    @Mock private AvailabilityService availabilityService;
+    @Mock private PendingUserSweeper sweeper;
+
+    @Test
+    @DisplayName("should answer 404 for unknown routes and methods")
+    void handle_unknownRoute_returns404() {
+        assertEquals(404, CustomHandler.handle("GET", URI.create("/api/auth/unknown"), Map.of(), "").status());
+        assertEquals(404, CustomHandler.handle("GET", URI.create("/api/auth/login"), Map.of(), "").status());
+        assertEquals(404, CustomHandler.handle("GET", URI.create("/PendingUserSweep"), Map.of(), "").status());
+    }
+
+    @Test
+    @DisplayName("should dispatch forwarded HTTP requests and render the body as the Java worker does")
+    void handle_httpRequest_rendersJson() {
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(AvailabilityService.class)).thenReturn(availabilityService);
+            when(availabilityService.check("john@example.com", null))
+                    .thenReturn(new AvailabilityService.Availability(true, null));
+
+            CustomHandler.Reply reply = CustomHandler.handle("GET",
+                    URI.create("/api/auth/availability?email=john%40example.com"), Map.of(), "");
+
+            assertEquals(200, reply.status());
+            assertEquals("application/json", reply.headers().get("content-type"));
+            assertEquals("no-store", reply.headers().get("cache-control"));
+            assertEquals("{\"emailAvailable\":true}", new String(reply.body(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("should run timer invocations and answer with an empty invocation result")
+    void handle_timerInvocation_runsFunction() {
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(PendingUserSweeper.class)).thenReturn(sweeper);
+            when(sweeper.sweep()).thenReturn(new PendingUserSweeper.SweepResult(3, 1, 2));
+
+            CustomHandler.Reply reply = CustomHandler.handle("POST", URI.create("/PendingUserSweep"), Map.of(),
+                    "{\"Data\":{},\"Metadata\":{}}");
+
+            assertEquals(200, reply.status());
+            assertEquals("{\"Outputs\":{},\"Logs\":[],\"ReturnValue\":null}",
+                    new String(reply.body(), StandardCharsets.UTF_8));
+            verify(sweeper).sweep();
+        }
+    }
+
+    @Test
+    @DisplayName("should answer 500 when an HTTP function throws")
+    void handle_httpFunctionThrows_returns500() {
+        try (MockedStatic<SpringContextHolder> springMock = Mockito.mockStatic(SpringContextHolder.class)) {
+            springMock.when(() -> SpringContextHolder.getBean(AuthService.class))
+                    .thenThrow(new IllegalStateException("context failed to start"));
+
+            CustomHandler.Reply reply = CustomHandler.handle("GET", URI.create("/api/auth/verify?code=abc"), Map.of(), "");
+
+            assertEquals(500, reply.status());
+            assertEquals("An unexpected error occurred.", new String(reply.body(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    @DisplayName("should fail a timer invocation whose function throws instead of reporting success")
+    void handle_timerThrows_reportsFailure() {
+        // The sweep catches its own failures, so make the one call outside its try block throw
+        Logger functionLog = Logger.getLogger("Function.PendingUserSweep");
+        Handler failing = new Handler() {
+            @Override public void publish(LogRecord record) { throw new IllegalStateException("log sink gone"); }
+            @Override public void flush() { }
+            @Override public void close() { }
+        };
+        functionLog.addHandler(failing);
+        try {
+            CustomHandler.Reply reply = CustomHandler.handle("POST", URI.create("/PendingUserSweep"), Map.of(), "{}");
+
+            assertEquals(500, reply.status());
+            assertEquals("{\"Outputs\":{},\"Logs\":[\"PendingUserSweep failed: log sink gone\"]}",
+                    new String(reply.body(), StandardCharsets.UTF_8));
+        } finally {
+            functionLog.removeHandler(failing);
+        }
+    }
+
+    @Test
+    @DisplayName("should serve every function the Java worker exposes")
+    void functionNames_matchAnnotatedFunctions() {
+        Set<String> annotated = Stream.of(RegisterFunction.class, VerifyFunction.class, LoginFunction.class,
+                        RefreshFunction.class, LogoutFunction.class, AvailabilityFunction.class, JwksFunction.class,
+                        FoldersFunction.class, SyncFunction.class, UserImportFunction.class,
+                        PendingUserSweepFunction.class, MailOutboxFunction.class, AccountPurgeFunction.class,
+                        WarmupFunction.class)
+                .flatMap(type -> Arrays.stream(type.getDeclaredMethods()))
+                .map(method -> method.getAnnotation(FunctionName.class))
+                .filter(annotation -> annotation != null)
+                .map(FunctionName::value)
+                .collect(Collectors.toSet());
+
+        assertEquals(annotated, Set.copyOf(CustomHandler.functionNames()));
+        assertEquals(annotated.size(), CustomHandler.functionNames().size());
+    }
+}
@@ -0,0 +1,136 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import com.TrashTDL.ServerlessAuth.exception.PasswordHashingUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BoundedPasswordEncoder Tests")
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    /**
+     * Encoder whose calls block until {@link #release} is counted down.
+     */
+    private static final class BlockingEncoder implements PasswordEncoder {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+
+    @Test
+    @DisplayName("should hash on the pool and return the delegate's results")
+    void delegatesToWrappedEncoder() {
+        BlockingEncoder delegate = new BlockingEncoder();
+        delegate.release.countDown();
+        encoder = new BoundedPasswordEncoder(delegate, 2, 4, 1000, 10_000);
+
+        assertEquals("hashed:secret", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "hashed:secret"));
+        assertFalse(encoder.matches("other", "hashed:secret"));
+
+        BoundedPasswordEncoder.Stats stats = encoder.stats();
+        assertEquals(3, stats.completed());
+        assertEquals(0, stats.rejected());
+        assertEquals(0, stats.queueDepth());
+    }
+
+    @Test
+    @DisplayName("should reject immediately when the wait queue is full")
+    void fullQueue_rejects() throws Exception {
+        BlockingEncoder delegate = new BlockingEncoder();
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 10_000, 10_000);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (encoder.stats().queueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("c"));
+        assertEquals(1, encoder.stats().rejected());
+
+        delegate.release.countDown();
+        assertEquals("hashed:a", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:b", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("should reject work that waited in the queue longer than the timeout")
+    void queueTimeout_rejects() throws Exception {
+        BlockingEncoder delegate = new BlockingEncoder();
+        encoder = new BoundedPasswordEncoder(delegate, 1, 4, 50, 10_000);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (encoder.stats().queueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+        Thread.sleep(100);
+        delegate.release.countDown();
+
+        assertEquals("hashed:a", running.get(5, TimeUnit.SECONDS));
+        Exception e = assertThrows(Exception.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingUnavailableException.class, e.getCause());
+        assertEquals(1, encoder.stats().timedOut());
+        assertEquals(1, encoder.stats().completed());
+    }
+
+    @Test
+    @DisplayName("should stop waiting for work that is still queued or hashing after both timeouts")
+    void callerTimeout_cancelsAndRejects() throws Exception {
+        BlockingEncoder delegate = new BlockingEncoder();
+        encoder = new BoundedPasswordEncoder(delegate, 1, 4, 50, 50);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        long start = System.nanoTime();
+        // Queued behind a hash that never finishes on its own
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.upgradeEncoding("hashed:b"));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Exception e = assertThrows(Exception.class, () -> running.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingUnavailableException.class, e.getCause());
+        assertTrue(waitedMillis < 5_000, () -> "waited " + waitedMillis + " ms");
+        assertEquals(2, encoder.stats().timedOut());
+    }
+
+    @Test
+    @DisplayName("should size the pool from the CPU share, never below one thread")
+    void threadsForCpuShare_isAtLeastOne() {
+        assertEquals(1, BoundedPasswordEncoder.threadsForCpuShare(0.0));
+        assertEquals(Runtime.getRuntime().availableProcessors(), BoundedPasswordEncoder.threadsForCpuShare(1.0));
+    }
+}
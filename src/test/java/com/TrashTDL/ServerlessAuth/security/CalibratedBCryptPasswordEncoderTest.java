@@ -0,0 +1,78 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CalibratedBCryptPasswordEncoder Tests")
+class CalibratedBCryptPasswordEncoderTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("should pick the highest cost that fits the budget")
+    void chooseCost_fitsBudget() {
+        // 50 ms at cost 10 -> 100 ms at 11 -> 200 ms at 12 -> 400 ms at 13
+        assertEquals(12, CalibratedBCryptPasswordEncoder.chooseCost(250 * MS, 10, 14, 50 * MS));
+        assertEquals(14, CalibratedBCryptPasswordEncoder.chooseCost(10_000 * MS, 10, 14, 50 * MS));
+    }
+
+    @Test
+    @DisplayName("should never go below the floor on slow machines")
+    void chooseCost_respectsFloor() {
+        assertEquals(10, CalibratedBCryptPasswordEncoder.chooseCost(250 * MS, 10, 14, 900 * MS));
+        assertThrows(IllegalArgumentException.class, () -> CalibratedBCryptPasswordEncoder.chooseCost(250 * MS, 12, 10, MS));
+    }
+
+    @Test
+    @DisplayName("should only ask to rehash BCrypt hashes weaker than the current cost")
+    void upgradeEncoding_onlyWhenWeaker() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        // Written by an instance that calibrated higher; rehashing it down would flip-flop between instances
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding("not-a-bcrypt-hash"));
+    }
+
+    @Test
+    @DisplayName("should hash at the floor without upgrades until calibrated, and reject bad bounds when created")
+    void calibrated_floorUntilCalibrated() {
+        CalibratedBCryptPasswordEncoder encoder = CalibratedBCryptPasswordEncoder.calibrated(250, 4, 6);
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertEquals(4, CalibratedBCryptPasswordEncoder.costOf(encoder.encode("secret")));
+        assertTrue(encoder.matches("secret", weak));
+        assertFalse(encoder.upgradeEncoding(weak));
+        assertFalse(encoder.isCalibrated());
+
+        encoder.calibrate();
+
+        assertTrue(encoder.isCalibrated());
+        assertEquals(encoder.getCost(), CalibratedBCryptPasswordEncoder.costOf(encoder.encode("secret")));
+        assertTrue(encoder.getCost() >= 4 && encoder.getCost() <= 6);
+        assertThrows(IllegalArgumentException.class, () -> CalibratedBCryptPasswordEncoder.calibrated(250, 12, 10));
+    }
+
+    @Test
+    @DisplayName("should match legacy unprefixed hashes and flag them for rehashing")
+    void delegating_acceptsLegacyHashes() {
+        CalibratedBCryptPasswordEncoder bcrypt = new CalibratedBCryptPasswordEncoder(5);
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        String legacy = new BCryptPasswordEncoder(5).encode("secret");
+        String current = encoder.encode("secret");
+
+        assertTrue(current.startsWith("{bcrypt}$2a$05$"));
+        assertTrue(encoder.matches("secret", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+        assertFalse(encoder.upgradeEncoding(current));
+    }
+}
@@ -0,0 +1,72 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.service.JwtService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares sign + verify through {@link JwtService} with and without the HMAC fast path.
+ * Run with {@code mvn test -Dtest=HmacTokenCodecBenchmarkTest -Dbenchmarks=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("HmacTokenCodec Benchmark")
+class HmacTokenCodecBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HmacTokenCodecBenchmarkTest.class);
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    private static JwtService service(boolean fastPath) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKeyString", "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437");
+        ReflectionTestUtils.setField(service, "jwtExpiration", 900000L);
+        ReflectionTestUtils.setField(service, "fastPathEnabled", fastPath);
+        return service;
+    }
+
+    @Test
+    @DisplayName("fast path should beat jjwt on time and allocation")
+    void fastPathBeatsJjwt() {
+        User user = User.builder().userId(UUID.randomUUID()).email("bench@example.com").build();
+        Result jjwt = measure(service(false), user);
+        Result fast = measure(service(true), user);
+
+        String report = String.format("jjwt: %,d ns/op %,d B/op; fast path: %,d ns/op %,d B/op",
+                jjwt.nanosPerOp, jjwt.bytesPerOp, fast.nanosPerOp, fast.bytesPerOp);
+        log.info(report);
+
+        assertTrue(fast.nanosPerOp < jjwt.nanosPerOp, report);
+        assertTrue(fast.bytesPerOp < jjwt.bytesPerOp, report);
+    }
+
+    private static Result measure(JwtService service, User user) {
+        for (int i = 0; i < WARMUP; i++) {
+            service.verify(service.generateToken(user));
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += service.verify(service.generateToken(user)).subject().length();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+        assertTrue(sink > 0);
+        return new Result(elapsed / ITERATIONS, allocated / ITERATIONS);
+    }
+
+    private record Result(long nanosPerOp, long bytesPerOp) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("HmacTokenCodec Tests")
+class HmacTokenCodecTest {
+
+    private static final long IAT = 1_700_000_000L;
+    private static final long EXP = IAT + 900;
+    private static final long NOW_MILLIS = (IAT + 60) * 1000;
+
+    private static SecretKey key(int bytes) {
+        byte[] secret = new byte[bytes];
+        new SecureRandom().nextBytes(secret);
+        return Keys.hmacShaKeyFor(secret);
+    }
+
+    // Mirrors the jjwt pipeline in JwtService.buildToken
+    private static String jjwtToken(SecretKey key, UUID userId, int version, String jti, String subject, long iat, long exp) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", userId);
+        claims.put("ver", version);
+        return Jwts.builder()
+                .claims(claims)
+                .id(jti)
+                .subject(subject)
+                .issuedAt(new Date(iat * 1000))
+                .expiration(new Date(exp * 1000))
+                .signWith(key)
+                .compact();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {32, 48, 64})
+    @DisplayName("should produce byte-identical tokens to jjwt for every HMAC key size")
+    void sign_matchesJjwt(int keyBytes) {
+        SecretKey key = key(keyBytes);
+        HmacTokenCodec codec = HmacTokenCodec.forKey(key);
+
+        for (int i = 0; i < 50; i++) {
+            UUID userId = UUID.randomUUID();
+            String jti = UUID.randomUUID().toString();
+            String subject = "user" + i + "+tag@example.com";
+            int version = i * 7;
+
+            assertEquals(jjwtToken(key, userId, version, jti, subject, IAT + i, EXP + i),
+                    codec.sign(userId, version, jti, subject, IAT + i, EXP + i));
+        }
+    }
+
+    @Test
+    @DisplayName("should verify jjwt tokens into the same view jjwt produces")
+    void verify_readsJjwtTokens() {
+        SecretKey key = key(32);
+        HmacTokenCodec codec = HmacTokenCodec.forKey(key);
+        UUID userId = UUID.randomUUID();
+        String token = jjwtToken(key, userId, 3, "jti-1", "test@example.com", IAT, EXP);
+
+        VerifiedToken verified = codec.verify(token, NOW_MILLIS);
+        Claims expected = Jwts.parser().verifyWith(key).clock(() -> new Date(NOW_MILLIS)).build()
+                .parseSignedClaims(token).getPayload();
+
+        assertNotNull(verified);
+        assertEquals(expected.getSubject(), verified.subject());
+        assertEquals(userId, verified.userId());
+        assertEquals(expected.getIssuedAt().toInstant(), verified.issuedAt());
+        assertEquals(expected.getExpiration().toInstant(), verified.expiresAt());
+        assertEquals("jti-1", verified.tokenId());
+        assertEquals(3, verified.tokenVersion());
+        assertEquals(expected.keySet(), verified.claims().keySet());
+    }
+
+    @Test
+    @DisplayName("should leave tampered, foreign and expired tokens to jjwt")
+    void verify_fallsBackOnAnythingUnusual() {
+        SecretKey key = key(32);
+        HmacTokenCodec codec = HmacTokenCodec.forKey(key);
+        UUID userId = UUID.randomUUID();
+        String token = codec.sign(userId, 0, "jti-1", "test@example.com", IAT, EXP);
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        String otherKey = jjwtToken(key(32), userId, 0, "jti-1", "test@example.com", IAT, EXP);
+        String otherAlgorithm = jjwtToken(key(64), userId, 0, "jti-1", "test@example.com", IAT, EXP);
+        String extraClaim = Jwts.builder().subject("test@example.com").claim("userId", userId.toString())
+                .claim("aud", "someone-else").issuedAt(new Date(IAT * 1000)).expiration(new Date(EXP * 1000))
+                .signWith(key).compact();
+
+        assertNull(codec.verify(tampered, NOW_MILLIS));
+        assertNull(codec.verify(otherKey, NOW_MILLIS));
+        assertNull(codec.verify(otherAlgorithm, NOW_MILLIS));
+        assertNull(codec.verify(extraClaim, NOW_MILLIS));
+        assertNull(codec.verify(token, EXP * 1000));
+        assertNull(codec.verify("not.a.jwt", NOW_MILLIS));
+        assertNull(codec.verify(token + ".extra", NOW_MILLIS));
+        assertNotNull(codec.verify(token, NOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("should refuse to sign values that would need JSON escaping")
+    void sign_escapingNeeded_returnsNull() {
+        HmacTokenCodec codec = HmacTokenCodec.forKey(key(32));
+
+        assertNull(codec.sign(UUID.randomUUID(), 0, "jti", "quote\"@example.com", IAT, EXP));
+        assertNull(codec.sign(UUID.randomUUID(), 0, "jti", "josé@example.com", IAT, EXP));
+    }
+}
@@ -0,0 +1,100 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenBucketTable Tests")
+class TokenBucketTableTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("should allow a burst up to capacity, then report the wait for the next token")
+    void burstThenWait() {
+        TokenBucketTable table = new TokenBucketTable(3, 6, 100, T0); // one token every 10 s
+
+        assertEquals(0, table.tryAcquire("a", T0));
+        assertEquals(0, table.tryAcquire("a", T0));
+        assertEquals(0, table.tryAcquire("a", T0));
+        assertEquals(10_000, table.tryAcquire("a", T0));
+        assertEquals(4_000, table.tryAcquire("a", T0 + 6_000));
+        assertEquals(0, table.tryAcquire("a", T0 + 10_000));
+
+        // Other keys have their own bucket
+        assertEquals(0, table.tryAcquire("b", T0));
+    }
+
+    @Test
+    @DisplayName("should never refill above capacity")
+    void refillIsCapped() {
+        TokenBucketTable table = new TokenBucketTable(2, 60, 100, T0);
+        table.tryAcquire("a", T0);
+
+        long later = T0 + 3_600_000;
+        assertEquals(0, table.tryAcquire("a", later));
+        assertEquals(0, table.tryAcquire("a", later));
+        assertTrue(table.tryAcquire("a", later) > 0);
+    }
+
+    @Test
+    @DisplayName("should drop buckets that have been idle long enough to refill")
+    void idleBucketsAreSwept() {
+        TokenBucketTable table = new TokenBucketTable(1, 60, 100, T0); // full refill in 1 s
+        for (int i = 0; i < 50; i++) {
+            table.tryAcquire("key-" + i, T0);
+        }
+        assertEquals(50, table.size());
+
+        table.tryAcquire("fresh", T0 + 5_000);
+
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    @DisplayName("should send new keys to a shared overflow bucket when the table is full")
+    void fullTable_usesOverflowBucket() {
+        TokenBucketTable table = new TokenBucketTable(2, 1, 2, T0);
+        table.tryAcquire("a", T0);
+        table.tryAcquire("b", T0);
+
+        assertEquals(0, table.tryAcquire("c", T0));
+        assertEquals(0, table.tryAcquire("d", T0));
+        assertTrue(table.tryAcquire("e", T0) > 0);
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    @DisplayName("should hand out exactly capacity tokens under contention")
+    void concurrentAcquire_isExact() throws Exception {
+        TokenBucketTable table = new TokenBucketTable(1_000, 0.001, 100, T0);
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        if (table.tryAcquire("shared", T0) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1_000, granted.get());
+    }
+}
@@ -0,0 +1,82 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures what {@link TokenPrecheck} costs per token once warm, and what the first rejection costs in this JVM.
+ * Run with {@code mvn test -Dtest=TokenPrecheckBenchmarkTest -Dbenchmarks=true}; the first-rejection figure is
+ * only cold when this is the first test in a fresh JVM.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@DisplayName("TokenPrecheck Benchmark")
+class TokenPrecheckBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenPrecheckBenchmarkTest.class);
+
+    private static final int WARMUP = 50_000;
+    private static final int ITERATIONS = 200_000;
+
+    private static final JwtKeyRing RING = JwtKeyRing.create(
+            "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437", null, null);
+
+    private static String segment(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("rejections should cost microseconds")
+    void rejectionsAreCheap() {
+        long now = System.currentTimeMillis() / 1000;
+        String expired = segment("{\"alg\":\"HS256\"}") + "." + segment("{\"sub\":\"a\",\"exp\":" + (now - 60) + "}") + ".c2ln";
+        String forged = segment("{\"alg\":\"HS256\"}") + "." + segment("{\"sub\":\"a\",\"exp\":" + (now + 3600) + "}") + ".c2ln";
+        String valid = HmacTokenCodec.forKey(RING.getHmacKey())
+                .sign(UUID.randomUUID(), 0, UUID.randomUUID().toString(), "bench@example.com", now, now + 3600);
+        TokenPrecheck precheck = new TokenPrecheck(true, RING);
+
+        long start = System.nanoTime();
+        assertEquals(TokenPrecheck.Verdict.INVALID, precheck.check("not-a-jwt"));
+        long firstJunk = System.nanoTime() - start;
+        start = System.nanoTime();
+        assertEquals(TokenPrecheck.Verdict.INVALID, precheck.check(forged));
+        long firstForged = System.nanoTime() - start;
+
+        long junk = measure(precheck, "not-a-jwt", TokenPrecheck.Verdict.INVALID);
+        long expiredCost = measure(precheck, expired, TokenPrecheck.Verdict.EXPIRED);
+        long forgedCost = measure(precheck, forged, TokenPrecheck.Verdict.INVALID);
+        long validCost = measure(precheck, valid, TokenPrecheck.Verdict.PASS);
+
+        String report = String.format("first junk rejection: %,d us; first forged rejection: %,d us; "
+                        + "warm junk: %,d ns/op; expired: %,d ns/op; forged: %,d ns/op; valid (passed on): %,d ns/op",
+                firstJunk / 1000, firstForged / 1000, junk, expiredCost, forgedCost, validCost);
+        log.info(report);
+
+        assertTrue(junk < 100_000 && expiredCost < 100_000 && forgedCost < 100_000, report);
+    }
+
+    private static long measure(TokenPrecheck precheck, String token, TokenPrecheck.Verdict expected) {
+        for (int i = 0; i < WARMUP; i++) {
+            precheck.check(token);
+        }
+        long start = System.nanoTime();
+        int matched = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (precheck.check(token) == expected) {
+                matched++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertEquals(ITERATIONS, matched);
+        return elapsed / ITERATIONS;
+    }
+}
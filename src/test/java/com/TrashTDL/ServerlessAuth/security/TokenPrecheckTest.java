@@ -0,0 +1,145 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
+import io.jsonwebtoken.security.EcPrivateJwk;
+import io.jsonwebtoken.security.Jwks;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("TokenPrecheck Tests")
+class TokenPrecheckTest {
+
+    private static final String SECRET = "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437";
+    private static final long IAT = 1_700_000_000L;
+    private static final long EXP = IAT + 900;
+    private static final long NOW_MILLIS = (IAT + 60) * 1000;
+
+    private static final JwtKeyRing HMAC_RING = JwtKeyRing.create(SECRET, null, null);
+
+    private static String segment(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String unsigned(String header, String payload) {
+        return segment(header) + "." + segment(payload) + ".c2lnbmF0dXJl";
+    }
+
+    private static String hmacToken(long exp) {
+        return HmacTokenCodec.forKey(HMAC_RING.getHmacKey())
+                .sign(UUID.randomUUID(), 0, UUID.randomUUID().toString(), "test@example.com", IAT, exp);
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {"not-a-jwt", "a.b", "a.b.c.d", ".e30.c2ln", "e30..c2ln", "eyJhbGciOiJIUzI1NiJ9.e30.",
+            "eyJhbGciOiJIUzI1NiJ9.e30.c2ln!", "e30.e30.c2ln", "eyJhbGciOiJub25lIn0.e30.c2ln", "eyJhbGciOiJIUzI1NiJ9.W10.c2ln",
+            "eyJhbGciOiJIUzI1NiJ9.e30gZ2FyYmFnZQ.c2ln"})
+    @DisplayName("should reject tokens that are not a signed JWT without needing a key")
+    void malformed_isInvalid(String token) {
+        assertEquals(TokenPrecheck.Verdict.INVALID, new TokenPrecheck(true, null).check(token, NOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("should reject oversized tokens before decoding them")
+    void oversized_isInvalid() {
+        String token = unsigned("{\"alg\":\"HS256\"}", "{\"pad\":\"" + "x".repeat(TokenPrecheck.MAX_TOKEN_LENGTH) + "\"}");
+
+        assertEquals(TokenPrecheck.Verdict.INVALID, new TokenPrecheck(true, null).check(token, NOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("should reject expired tokens from the payload alone")
+    void expired_isExpired() {
+        String token = unsigned("{\"alg\":\"HS256\"}", "{\"sub\":\"a\",\"exp\":" + IAT + "}");
+
+        assertEquals(TokenPrecheck.Verdict.EXPIRED, new TokenPrecheck(true, null).check(token, NOW_MILLIS));
+        assertEquals(TokenPrecheck.Verdict.EXPIRED, new TokenPrecheck(true, HMAC_RING).check(hmacToken(IAT + 30), NOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("should only check shape and expiry when no keys are configured")
+    void noKeys_passesWellFormedTokens() {
+        String token = unsigned("{\"alg\":\"HS256\"}", "{\"sub\":\"a\",\"exp\":" + EXP + "}");
+
+        assertEquals(TokenPrecheck.Verdict.PASS, new TokenPrecheck(true, null).check(token, NOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("should pass a valid HMAC token and reject a forged or tampered one")
+    void hmac_verifiesSignature() {
+        TokenPrecheck precheck = new TokenPrecheck(true, HMAC_RING);
+        String token = hmacToken(EXP);
+        String forged = unsigned("{\"alg\":\"HS256\"}", "{\"sub\":\"a\",\"exp\":" + EXP + "}");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BA" : "AA");
+
+        assertEquals(TokenPrecheck.Verdict.PASS, precheck.check(token, NOW_MILLIS));
+        assertEquals(TokenPrecheck.Verdict.INVALID, precheck.check(forged, NOW_MILLIS));
+        assertEquals(TokenPrecheck.Verdict.INVALID, precheck.check(tampered, NOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("should reject a token signed with another secret")
+    void hmac_wrongKey_isInvalid() {
+        JwtKeyRing other = JwtKeyRing.create(SECRET.replace('5', '6'), null, null);
+        String token = HmacTokenCodec.forKey(other.getHmacKey())
+                .sign(UUID.randomUUID(), 0, "jti", "test@example.com", IAT, EXP);
+
+        assertEquals(TokenPrecheck.Verdict.INVALID, new TokenPrecheck(true, HMAC_RING).check(token, NOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("should verify asymmetric tokens by kid and reject unknown kids")
+    void jwks_verifiesByKid() {
+        EcPrivateJwk current = Jwks.builder().ecKeyPair(Jwts.SIG.ES256.keyPair().build()).idFromThumbprint().build();
+        EcPrivateJwk unknown = Jwks.builder().ecKeyPair(Jwts.SIG.ES256.keyPair().build()).idFromThumbprint().build();
+        TokenPrecheck precheck = new TokenPrecheck(true, JwtKeyRing.create(null, jwkSetJson(current), current.getId()));
+        // Expiry far enough ahead that jjwt, which reads the real clock, accepts it
+        Date expiration = new Date(System.currentTimeMillis() + 3_600_000);
+
+        String token = Jwts.builder().header().keyId(current.getId()).and()
+                .subject("test@example.com").expiration(expiration).signWith(current.toKey()).compact();
+        String stranger = Jwts.builder().header().keyId(unknown.getId()).and()
+                .subject("test@example.com").expiration(expiration).signWith(unknown.toKey()).compact();
+
+        assertEquals(TokenPrecheck.Verdict.PASS, precheck.check(token));
+        assertEquals(TokenPrecheck.Verdict.INVALID, precheck.check(stranger));
+    }
+
+    @Test
+    @DisplayName("should pass everything when disabled")
+    void disabled_passesEverything() {
+        assertEquals(TokenPrecheck.Verdict.PASS, new TokenPrecheck(false, HMAC_RING).check("not-a-jwt", NOW_MILLIS));
+    }
+
+    @Test
+    @DisplayName("should take its keys and switch from the settings it is given, not the environment")
+    void fromSettings_usesGivenSettings() {
+        TokenPrecheck keyed = TokenPrecheck.fromSettings(Map.of("security.jwt.secret-key", SECRET)::get);
+        TokenPrecheck disabled = TokenPrecheck.fromSettings(Map.of("security.jwt.precheck.enabled", "false")::get);
+        String forged = unsigned("{\"alg\":\"HS256\"}", "{\"sub\":\"a\",\"exp\":" + EXP + "}");
+
+        assertEquals(TokenPrecheck.Verdict.PASS, keyed.check(hmacToken(EXP), NOW_MILLIS));
+        assertEquals(TokenPrecheck.Verdict.INVALID, keyed.check(forged, NOW_MILLIS));
+        assertEquals(TokenPrecheck.Verdict.PASS, disabled.check("not-a-jwt", NOW_MILLIS));
+    }
+
+    private static String jwkSetJson(EcPrivateJwk key) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JacksonSerializer<Map<String, ?>>().serialize(Map.of("keys", List.of(key)), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
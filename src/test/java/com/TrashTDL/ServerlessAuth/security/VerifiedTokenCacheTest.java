@@ -0,0 +1,88 @@
+package com.TrashTDL.ServerlessAuth.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VerifiedTokenCache Tests")
+class VerifiedTokenCacheTest {
+
+    private static VerifiedToken tokenExpiringAt(Instant expiresAt) {
+        return new VerifiedToken("test@example.com", UUID.randomUUID(), Instant.now(), expiresAt, Map.of());
+    }
+
+    @Test
+    @DisplayName("should verify once and serve repeated lookups from the cache")
+    void repeatedLookups_hitCache() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        AtomicInteger verifications = new AtomicInteger();
+        VerifiedToken verified = tokenExpiringAt(Instant.now().plusSeconds(60));
+        Function<String, VerifiedToken> verifier = token -> {
+            verifications.incrementAndGet();
+            return verified;
+        };
+
+        assertSame(verified, cache.getOrVerify("a.b.c", verifier));
+        assertSame(verified, cache.getOrVerify("a.b.c", verifier));
+        assertSame(verified, cache.getOrVerify("a.b.c", verifier));
+
+        assertEquals(1, verifications.get());
+        VerifiedTokenCache.Stats stats = cache.stats();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.size());
+    }
+
+    @Test
+    @DisplayName("should not serve an entry past the token's expiry")
+    void expiredEntry_isEvicted() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        AtomicInteger verifications = new AtomicInteger();
+        Function<String, VerifiedToken> verifier = token -> {
+            verifications.incrementAndGet();
+            return tokenExpiringAt(Instant.now().plusMillis(verifications.get() == 1 ? 20 : 60_000));
+        };
+
+        cache.getOrVerify("a.b.c", verifier);
+        try {
+            Thread.sleep(40);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        cache.getOrVerify("a.b.c", verifier);
+
+        assertEquals(2, verifications.get());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("should not cache failed verifications")
+    void failedVerification_isNotCached() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cache.getOrVerify("bad", token -> { throw new IllegalArgumentException("bad token"); }));
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    @DisplayName("should stay within its capacity")
+    void capacity_isBounded() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        VerifiedToken verified = tokenExpiringAt(Instant.now().plusSeconds(60));
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.getOrVerify("token-" + i, token -> verified);
+        }
+
+        assertTrue(cache.stats().size() <= 100);
+        assertTrue(cache.stats().evictions() >= 900);
+    }
+}
@@ -0,0 +1,148 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AccountPurger Tests")
+class AccountPurgerTest {
+
+    private static final UUID ALICE = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID BOB = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private static final String TASK_DELETE = "delete from todo.tasks where ctid = any(array("
+            + "select ctid from todo.tasks where user_id = ? limit ?))";
+    private static final String USER_DELETE = "delete from todo.users where user_id = ? and deleted_at < ?";
+
+    @InjectMocks private AccountPurger purger;
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private AvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(purger, "retentionDays", 30);
+        ReflectionTestUtils.setField(purger, "dependents", new String[] {"todo.tasks.user_id", "todo.folders.owner_id"});
+        ReflectionTestUtils.setField(purger, "batchSize", 2);
+        ReflectionTestUtils.setField(purger, "throttleMs", 0L);
+        ReflectionTestUtils.setField(purger, "maxUsers", 10);
+        ReflectionTestUtils.setField(purger, "maxDurationMs", 60_000L);
+        ReflectionTestUtils.setField(purger, "dryRun", false);
+        // todo.tasks.user_id exists, todo.folders.owner_id does not
+        lenient().when(jdbcTemplate.queryForObject(contains("information_schema"), eq(Boolean.class),
+                eq("todo"), eq("tasks"), eq("user_id"))).thenReturn(true);
+        lenient().when(jdbcTemplate.queryForObject(contains("information_schema"), eq(Boolean.class),
+                eq("todo"), eq("folders"), eq("owner_id"))).thenReturn(false);
+    }
+
+    @Test
+    @DisplayName("should delete dependent rows in bounded batches before the user row")
+    void purge_deletesInBatches() {
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(OffsetDateTime.class), any(UUID.class), anyInt()))
+                .thenReturn(List.of(ALICE));
+        when(jdbcTemplate.update(TASK_DELETE, ALICE, 2)).thenReturn(2, 2, 1);
+        when(jdbcTemplate.update(eq(USER_DELETE), eq(ALICE), any(OffsetDateTime.class))).thenReturn(1);
+
+        AccountPurger.PurgeResult result = purger.purge();
+
+        assertEquals(1, result.users());
+        assertEquals(6, result.rows());
+        assertEquals(Map.of("todo.tasks", 5L, "todo.users", 1L), result.rowsByTable());
+        assertEquals(4, result.batches());
+        assertTrue(result.complete());
+        verify(jdbcTemplate, never()).update(contains("todo.folders"), any(Object[].class));
+        verify(availabilityService).requestRebuild();
+    }
+
+    @Test
+    @DisplayName("should page through candidates by user id")
+    void purge_pagesWithKeyset() {
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(OffsetDateTime.class), any(UUID.class), anyInt()))
+                .thenReturn(List.of(ALICE, BOB)).thenReturn(List.of());
+        when(jdbcTemplate.update(eq(TASK_DELETE), any(UUID.class), eq(2))).thenReturn(0);
+        when(jdbcTemplate.update(eq(USER_DELETE), any(UUID.class), any(OffsetDateTime.class))).thenReturn(1);
+
+        AccountPurger.PurgeResult result = purger.purge();
+
+        assertEquals(2, result.users());
+        verify(jdbcTemplate).queryForList(anyString(), eq(UUID.class), any(OffsetDateTime.class), eq(new UUID(0L, 0L)), eq(2));
+        verify(jdbcTemplate).queryForList(anyString(), eq(UUID.class), any(OffsetDateTime.class), eq(BOB), eq(2));
+    }
+
+    @Test
+    @DisplayName("should only count rows in a dry run")
+    void purge_dryRun_deletesNothing() {
+        ReflectionTestUtils.setField(purger, "dryRun", true);
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(OffsetDateTime.class), any(UUID.class), anyInt()))
+                .thenReturn(List.of(ALICE));
+        when(jdbcTemplate.queryForObject("select count(*) from todo.tasks where user_id = ?", Long.class, ALICE))
+                .thenReturn(7L);
+
+        AccountPurger.PurgeResult result = purger.purge();
+
+        assertTrue(result.dryRun());
+        assertEquals(Map.of("todo.tasks", 7L, "todo.users", 1L), result.rowsByTable());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verifyNoInteractions(availabilityService);
+    }
+
+    @Test
+    @DisplayName("should skip an account whose delete fails and carry on with the next")
+    void purge_failureIsolatedPerUser() {
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(OffsetDateTime.class), any(UUID.class), anyInt()))
+                .thenReturn(List.of(ALICE, BOB)).thenReturn(List.of());
+        when(jdbcTemplate.update(TASK_DELETE, ALICE, 2)).thenThrow(new DataIntegrityViolationException("fk"));
+        when(jdbcTemplate.update(TASK_DELETE, BOB, 2)).thenReturn(0);
+        when(jdbcTemplate.update(eq(USER_DELETE), eq(BOB), any(OffsetDateTime.class))).thenReturn(1);
+
+        AccountPurger.PurgeResult result = purger.purge();
+
+        assertEquals(1, result.users());
+        assertEquals(1, result.failedUsers());
+        verify(jdbcTemplate, never()).update(eq(USER_DELETE), eq(ALICE), any(OffsetDateTime.class));
+    }
+
+    @Test
+    @DisplayName("should stop at max-users and report the run as incomplete")
+    void purge_boundedByMaxUsers() {
+        ReflectionTestUtils.setField(purger, "maxUsers", 1);
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), any(OffsetDateTime.class), any(UUID.class), eq(1)))
+                .thenReturn(List.of(ALICE));
+        when(jdbcTemplate.update(TASK_DELETE, ALICE, 2)).thenReturn(0);
+        when(jdbcTemplate.update(eq(USER_DELETE), eq(ALICE), any(OffsetDateTime.class))).thenReturn(1);
+
+        AccountPurger.PurgeResult result = purger.purge();
+
+        assertEquals(1, result.users());
+        assertFalse(result.complete());
+    }
+
+    @Test
+    @DisplayName("should refuse dependents that are not plain identifiers")
+    void resolveDependents_rejectsInjection() {
+        ReflectionTestUtils.setField(purger, "dependents", new String[] {"todo.tasks.user_id; drop table x"});
+
+        assertThrows(IllegalStateException.class, () -> purger.resolveDependents());
+        verify(jdbcTemplate, never()).update(startsWith("delete"), any(Object[].class));
+    }
+}
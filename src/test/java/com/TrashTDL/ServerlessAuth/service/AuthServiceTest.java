@@ -0,0 +1,398 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.dto.AuthResponse;
+import com.TrashTDL.ServerlessAuth.dto.LoginRequest;
+import com.TrashTDL.ServerlessAuth.dto.RegisterRequest;
+import com.TrashTDL.ServerlessAuth.exception.AccountConflictException;
+import com.TrashTDL.ServerlessAuth.exception.PasswordHashingUnavailableException;
+import com.TrashTDL.ServerlessAuth.exception.VerificationCodeExpiredException;
+import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.repository.PendingUserRepository;
+import com.TrashTDL.ServerlessAuth.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuthService Tests")
+class AuthServiceTest {
+
+    @InjectMocks private AuthService authService;
+    @Mock private UserRepository userRepository;
+    @Mock private PendingUserRepository pendingUserRepository;
+    @Mock private PasswordEncoder passwordEncoder;
+    @Mock private JwtService jwtService;
+    @Mock private RefreshTokenService refreshTokenService;
+    @Mock private TokenRevocationService tokenRevocationService;
+    @Mock private MailOutboxDispatcher mailOutboxDispatcher;
+    @Mock private AvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(authService, "pendingTtlMinutes", 15);
+    }
+
+    private User existingUser(String passwordHash) {
+        return User.builder()
+                .userId(UUID.randomUUID())
+                .username("testuser")
+                .email("test@example.com")
+                .password(passwordHash)
+                .build();
+    }
+
+    @Test
+    @DisplayName("should rehash and persist a password stored with outdated parameters")
+    void login_outdatedHash_isRehashed() {
+        User user = existingUser("$2a$10$old");
+        when(userRepository.findAllByEmailOrUsername("test@example.com")).thenReturn(List.of(user));
+        when(passwordEncoder.matches("secret", "$2a$10$old")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$10$old")).thenReturn(true);
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}$2a$12$new");
+        when(jwtService.generateToken(user)).thenReturn("jwt");
+        when(refreshTokenService.issue(user)).thenReturn("refresh");
+
+        AuthResponse response = authService.login(new LoginRequest("test@example.com", null, "secret"));
+
+        assertEquals("jwt", response.getToken());
+        assertEquals("{bcrypt}$2a$12$new", user.getPassword());
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    @DisplayName("should leave current hashes alone")
+    void login_currentHash_isNotRehashed() {
+        User user = existingUser("{bcrypt}$2a$12$current");
+        when(userRepository.findAllByEmailOrUsername("test@example.com")).thenReturn(List.of(user));
+        when(passwordEncoder.matches("secret", "{bcrypt}$2a$12$current")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("{bcrypt}$2a$12$current")).thenReturn(false);
+        when(jwtService.generateToken(user)).thenReturn("jwt");
+        when(refreshTokenService.issue(user)).thenReturn("refresh");
+
+        authService.login(new LoginRequest("test@example.com", null, "secret"));
+
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("should still log in when the rehash cannot be saved")
+    void login_rehashFailure_doesNotBlockLogin() {
+        User user = existingUser("$2a$10$old");
+        when(userRepository.findAllByEmailOrUsername("test@example.com")).thenReturn(List.of(user));
+        when(passwordEncoder.matches("secret", "$2a$10$old")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$10$old")).thenReturn(true);
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}$2a$12$new");
+        when(userRepository.save(user)).thenThrow(new RuntimeException("database unavailable"));
+        when(jwtService.generateToken(user)).thenReturn("jwt");
+        when(refreshTokenService.issue(user)).thenReturn("refresh");
+
+        AuthResponse response = authService.login(new LoginRequest("test@example.com", null, "secret"));
+
+        assertEquals("jwt", response.getToken());
+    }
+
+    @Test
+    @DisplayName("should still log in when the hashing pool rejects the upgrade check")
+    void login_upgradeCheckRejected_doesNotBlockLogin() {
+        User user = existingUser("$2a$10$old");
+        when(userRepository.findAllByEmailOrUsername("test@example.com")).thenReturn(List.of(user));
+        when(passwordEncoder.matches("secret", "$2a$10$old")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$10$old"))
+                .thenThrow(new PasswordHashingUnavailableException("Too many sign-in requests, please retry shortly."));
+        when(jwtService.generateToken(user)).thenReturn("jwt");
+        when(refreshTokenService.issue(user)).thenReturn("refresh");
+
+        AuthResponse response = authService.login(new LoginRequest("test@example.com", null, "secret"));
+
+        assertEquals("jwt", response.getToken());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("should log in by username with a single repository query")
+    void login_byUsername_singleQuery() {
+        User user = existingUser("{bcrypt}$2a$12$current");
+        when(userRepository.findAllByEmailOrUsername("testuser")).thenReturn(List.of(user));
+        when(passwordEncoder.matches("secret", "{bcrypt}$2a$12$current")).thenReturn(true);
+        when(jwtService.generateToken(user)).thenReturn("jwt");
+        when(refreshTokenService.issue(user)).thenReturn("refresh");
+
+        AuthResponse response = authService.login(new LoginRequest(null, "testuser", "secret"));
+
+        assertEquals(user.getUserId(), response.getUserId());
+        // Previously: findByEmail + findByUsername in the UserDetailsService, then both again in login
+        verify(userRepository, times(1)).findAllByEmailOrUsername("testuser");
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("should prefer the account whose e-mail matches over one whose username does")
+    void login_prefersEmailMatch() {
+        User byUsername = existingUser("hash-a");
+        byUsername.setUsername("shared@example.com");
+        User byEmail = existingUser("hash-b");
+        byEmail.setEmail("shared@example.com");
+        when(userRepository.findAllByEmailOrUsername("shared@example.com")).thenReturn(List.of(byUsername, byEmail));
+        when(passwordEncoder.matches("secret", "hash-b")).thenReturn(true);
+        when(jwtService.generateToken(byEmail)).thenReturn("jwt");
+        when(refreshTokenService.issue(byEmail)).thenReturn("refresh");
+
+        AuthResponse response = authService.login(new LoginRequest("shared@example.com", null, "secret"));
+
+        assertEquals(byEmail.getUserId(), response.getUserId());
+    }
+
+    @Test
+    @DisplayName("should match the e-mail regardless of case, still preferring it over a username match")
+    void login_emailInOtherCase_prefersEmailMatch() {
+        User byUsername = existingUser("hash-a");
+        byUsername.setUsername("Shared@Example.com");
+        User byEmail = existingUser("hash-b");
+        byEmail.setEmail("shared@example.com");
+        when(userRepository.findAllByEmailOrUsername("Shared@Example.com")).thenReturn(List.of(byUsername, byEmail));
+        when(passwordEncoder.matches("secret", "hash-b")).thenReturn(true);
+        when(jwtService.generateToken(byEmail)).thenReturn("jwt");
+        when(refreshTokenService.issue(byEmail)).thenReturn("refresh");
+
+        AuthResponse response = authService.login(new LoginRequest("Shared@Example.com", null, "secret"));
+
+        assertEquals(byEmail.getUserId(), response.getUserId());
+    }
+
+    @Test
+    @DisplayName("should reject a wrong password without issuing tokens")
+    void login_wrongPassword_throws() {
+        User user = existingUser("{bcrypt}$2a$12$current");
+        when(userRepository.findAllByEmailOrUsername("test@example.com")).thenReturn(List.of(user));
+        when(passwordEncoder.matches("wrong", "{bcrypt}$2a$12$current")).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class,
+                () -> authService.login(new LoginRequest("test@example.com", null, "wrong")));
+        verifyNoInteractions(jwtService, refreshTokenService);
+    }
+
+    @Test
+    @DisplayName("should still run a password check for unknown accounts")
+    void login_unknownUser_checksDummyHash() {
+        when(userRepository.findAllByEmailOrUsername("ghost@example.com")).thenReturn(List.of());
+        when(passwordEncoder.encode(any())).thenReturn("{bcrypt}$2a$12$dummy");
+
+        assertThrows(BadCredentialsException.class,
+                () -> authService.login(new LoginRequest("ghost@example.com", null, "secret")));
+        verify(passwordEncoder).matches("secret", "{bcrypt}$2a$12$dummy");
+    }
+
+    @Test
+    @DisplayName("should reject soft-deleted accounts even with the right password")
+    void login_deletedUser_throws() {
+        User user = existingUser("{bcrypt}$2a$12$current");
+        user.setDeletedAt(OffsetDateTime.now());
+        when(userRepository.findAllByEmailOrUsername("test@example.com")).thenReturn(List.of(user));
+        when(passwordEncoder.matches("secret", "{bcrypt}$2a$12$current")).thenReturn(true);
+
+        assertThrows(BadCredentialsException.class,
+                () -> authService.login(new LoginRequest("test@example.com", null, "secret")));
+    }
+
+    private static PendingUserRepository.Availability availability(boolean emailTaken, boolean usernameTaken) {
+        return new PendingUserRepository.Availability() {
+            @Override public boolean getEmailTaken() { return emailTaken; }
+            @Override public boolean getUsernameTaken() { return usernameTaken; }
+        };
+    }
+
+    @Test
+    @DisplayName("should hash the password before touching the database and insert in one statement")
+    void register_hashesFirst_thenChecksAndInserts() {
+        ReflectionTestUtils.setField(authService, "baseUrl", "http://localhost");
+        RegisterRequest request = new RegisterRequest("newuser", "new@example.com", "secret");
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}hash");
+        when(pendingUserRepository.checkAvailability("new@example.com", "newuser")).thenReturn(availability(false, false));
+        when(pendingUserRepository.insertIfAbsent(any(), eq("newuser"), eq("new@example.com"), eq("{bcrypt}hash"), anyString()))
+                .thenReturn(1);
+
+        String code = authService.register(request);
+
+        InOrder order = inOrder(passwordEncoder, pendingUserRepository);
+        order.verify(passwordEncoder).encode("secret");
+        order.verify(pendingUserRepository).checkAvailability("new@example.com", "newuser");
+        order.verify(pendingUserRepository).insertIfAbsent(any(), eq("newuser"), eq("new@example.com"), eq("{bcrypt}hash"), eq(code));
+        verifyNoMoreInteractions(pendingUserRepository);
+        verifyNoInteractions(userRepository);
+        verify(availabilityService).recordTaken("new@example.com", "newuser");
+    }
+
+    @Test
+    @DisplayName("should reject a taken e-mail before inserting")
+    void register_emailTaken_throws() {
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}hash");
+        when(pendingUserRepository.checkAvailability("taken@example.com", "newuser")).thenReturn(availability(true, true));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> authService.register(new RegisterRequest("newuser", "taken@example.com", "secret")));
+
+        assertEquals("Email already in use.", e.getMessage());
+        verify(pendingUserRepository, never()).insertIfAbsent(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("should reject a taken username before inserting")
+    void register_usernameTaken_throws() {
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}hash");
+        when(pendingUserRepository.checkAvailability("new@example.com", "taken")).thenReturn(availability(false, true));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> authService.register(new RegisterRequest("taken", "new@example.com", "secret")));
+
+        assertEquals("Username already in use.", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("should report the lost race for a username as already in use")
+    void register_conflictOnInsert_mapsToInUse() {
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}hash");
+        when(pendingUserRepository.checkAvailability("new@example.com", "newuser"))
+                .thenReturn(availability(false, false), availability(false, true));
+        when(pendingUserRepository.insertIfAbsent(any(), any(), any(), any(), any())).thenReturn(0);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> authService.register(new RegisterRequest("newuser", "new@example.com", "secret")));
+
+        assertEquals("Username already in use.", e.getMessage());
+        verifyNoInteractions(mailOutboxDispatcher);
+    }
+
+    @Test
+    @DisplayName("should report the lost race for an e-mail differing only in case as already in use")
+    void register_conflictOnInsert_email() {
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}hash");
+        when(pendingUserRepository.checkAvailability("New@Example.com", "newuser"))
+                .thenReturn(availability(false, false), availability(true, false));
+        when(pendingUserRepository.insertIfAbsent(any(), any(), any(), any(), any())).thenReturn(0);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> authService.register(new RegisterRequest("newuser", "New@Example.com", "secret")));
+
+        assertEquals("Email already in use.", e.getMessage());
+        verify(pendingUserRepository, times(1)).insertIfAbsent(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("should retry with a new code when the conflicting row is gone by the second check")
+    void register_conflictGoneOnRecheck_retries() {
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}hash");
+        when(pendingUserRepository.checkAvailability("new@example.com", "newuser")).thenReturn(availability(false, false));
+        when(pendingUserRepository.insertIfAbsent(any(), any(), any(), any(), any())).thenReturn(0, 1);
+
+        String code = authService.register(new RegisterRequest("newuser", "new@example.com", "secret"));
+
+        verify(pendingUserRepository, times(2)).insertIfAbsent(any(), any(), any(), any(), any());
+        verify(pendingUserRepository).insertIfAbsent(any(), any(), any(), any(), eq(code));
+        verify(availabilityService).recordTaken("new@example.com", "newuser");
+    }
+
+    @Test
+    @DisplayName("should not blame the e-mail when the insert keeps conflicting on nothing the check can see")
+    void register_conflictUnexplained_asksToRetry() {
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}hash");
+        when(pendingUserRepository.checkAvailability("new@example.com", "newuser")).thenReturn(availability(false, false));
+        when(pendingUserRepository.insertIfAbsent(any(), any(), any(), any(), any())).thenReturn(0);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> authService.register(new RegisterRequest("newuser", "new@example.com", "secret")));
+
+        assertEquals("Registration conflicted with another request. Please try again.", e.getMessage());
+        verifyNoInteractions(availabilityService);
+    }
+
+    private static PendingUserRepository.Promotion promotion(PendingUserRepository.VerificationOutcome outcome, UUID userId) {
+        return new PendingUserRepository.Promotion() {
+            @Override public PendingUserRepository.VerificationOutcome getOutcome() { return outcome; }
+            @Override public UUID getUserId() { return userId; }
+            @Override public String getEmail() { return outcome == PendingUserRepository.VerificationOutcome.UNKNOWN ? null : "new@example.com"; }
+            @Override public String getUsername() { return outcome == PendingUserRepository.VerificationOutcome.UNKNOWN ? null : "newuser"; }
+        };
+    }
+
+    @Test
+    @DisplayName("should promote a pending user with a single statement")
+    void verify_freshCode_promotes() {
+        UUID userId = UUID.randomUUID();
+        when(pendingUserRepository.promote("code", 15))
+                .thenReturn(promotion(PendingUserRepository.VerificationOutcome.VERIFIED, userId));
+
+        assertEquals("User verified successfully. You can now log in.", authService.verify("code"));
+
+        verify(availabilityService).recordTaken("new@example.com", "newuser");
+        verifyNoMoreInteractions(pendingUserRepository);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("should report an expired code")
+    void verify_expiredCode_throws() {
+        when(pendingUserRepository.promote("old", 15))
+                .thenReturn(promotion(PendingUserRepository.VerificationOutcome.EXPIRED, null));
+
+        assertThrows(VerificationCodeExpiredException.class, () -> authService.verify("old"));
+        verifyNoInteractions(availabilityService);
+    }
+
+    @Test
+    @DisplayName("should report a conflict when an account took the e-mail or username before verification")
+    void verify_takenMeanwhile_throwsConflict() {
+        when(pendingUserRepository.promote("late", 15))
+                .thenReturn(promotion(PendingUserRepository.VerificationOutcome.TAKEN, null));
+
+        assertThrows(AccountConflictException.class, () -> authService.verify("late"));
+        verifyNoInteractions(availabilityService);
+    }
+
+    @Test
+    @DisplayName("should reject an unknown code")
+    void verify_unknownCode_throws() {
+        when(pendingUserRepository.promote("nope", 15))
+                .thenReturn(promotion(PendingUserRepository.VerificationOutcome.UNKNOWN, null));
+
+        assertThrows(IllegalArgumentException.class, () -> authService.verify("nope"));
+    }
+
+    @Test
+    @DisplayName("should queue the verification e-mail with the pending row and dispatch it off the request thread")
+    void register_withMailer_queuesMail() {
+        ReflectionTestUtils.setField(authService, "baseUrl", "https://auth.example.com");
+        ReflectionTestUtils.setField(authService, "useMailer", true);
+        when(passwordEncoder.encode("secret")).thenReturn("{bcrypt}hash");
+        when(pendingUserRepository.checkAvailability("new@example.com", "newuser")).thenReturn(availability(false, false));
+        when(pendingUserRepository.insertIfAbsentWithMail(any(), eq("newuser"), eq("new@example.com"), eq("{bcrypt}hash"),
+                anyString(), any(), eq("Verify Your Email Address"), anyString())).thenReturn(1);
+
+        String code = authService.register(new RegisterRequest("newuser", "new@example.com", "secret"));
+
+        verify(pendingUserRepository).insertIfAbsentWithMail(any(), any(), any(), any(), eq(code), any(), any(),
+                argThat((String body) -> body.endsWith("https://auth.example.com/api/auth/verify?code=" + code)));
+        verify(pendingUserRepository, never()).insertIfAbsent(any(), any(), any(), any(), any());
+        verify(mailOutboxDispatcher).dispatchSoon();
+    }
+}
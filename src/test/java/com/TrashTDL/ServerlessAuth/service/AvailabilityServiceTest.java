@@ -0,0 +1,152 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.repository.PendingUserRepository;
+import com.TrashTDL.ServerlessAuth.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AvailabilityService Tests")
+class AvailabilityServiceTest {
+
+    @InjectMocks private AvailabilityService availabilityService;
+    @Mock private PendingUserRepository pendingUserRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    // Maintenance the service asked for; held back so nothing runs behind the test's back
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(availabilityService, "expectedEntries", 1000L);
+        ReflectionTestUtils.setField(availabilityService, "falsePositiveRate", 0.001);
+        // Keep maintenance out of the way; tests drive rebuild() and refresh() directly
+        ReflectionTestUtils.setField(availabilityService, "refreshIntervalMs", Long.MAX_VALUE);
+        ReflectionTestUtils.setField(availabilityService, "rebuildIntervalMs", Long.MAX_VALUE);
+        availabilityService.setMaintenanceExecutor(scheduled::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        availabilityService.shutdown();
+    }
+
+    private static PendingUserRepository.Identity identity(String email, String username) {
+        return new PendingUserRepository.Identity() {
+            @Override public String getEmail() { return email; }
+            @Override public String getUsername() { return username; }
+        };
+    }
+
+    private static PendingUserRepository.Availability taken(boolean email, boolean username) {
+        return new PendingUserRepository.Availability() {
+            @Override public boolean getEmailTaken() { return email; }
+            @Override public boolean getUsernameTaken() { return username; }
+        };
+    }
+
+    private void buildWith(PendingUserRepository.Identity... identities) {
+        when(pendingUserRepository.streamIdentitiesCreatedAfter(any())).thenReturn(Stream.of(identities));
+        availabilityService.rebuild();
+    }
+
+    @Test
+    @DisplayName("should answer free names from the filters without a database query")
+    void check_unseenNames_noDatabase() {
+        buildWith(identity("taken@example.com", "taken"));
+
+        AvailabilityService.Availability result = availabilityService.check("free@example.com", "free");
+
+        assertEquals(Boolean.TRUE, result.emailAvailable());
+        assertEquals(Boolean.TRUE, result.usernameAvailable());
+        verify(pendingUserRepository, never()).checkAvailability(any(), any());
+        assertEquals(1, availabilityService.stats().answeredFromFilter());
+    }
+
+    @Test
+    @DisplayName("should confirm possible matches with one query, ignoring case in the filter")
+    void check_possibleMatch_confirmedInDatabase() {
+        buildWith(identity("taken@example.com", "taken"));
+        when(pendingUserRepository.checkAvailability("Taken@Example.com", null)).thenReturn(taken(true, false));
+
+        AvailabilityService.Availability result = availabilityService.check("Taken@Example.com", "free");
+
+        assertEquals(Boolean.FALSE, result.emailAvailable());
+        assertEquals(Boolean.TRUE, result.usernameAvailable());
+        verify(pendingUserRepository).checkAvailability("Taken@Example.com", null);
+    }
+
+    @Test
+    @DisplayName("should fall back to the database until the filters are built, and build them in the background")
+    void check_beforeBuild_usesDatabase() {
+        when(pendingUserRepository.checkAvailability("a@example.com", "a")).thenReturn(taken(false, true));
+
+        AvailabilityService.Availability result = availabilityService.check("a@example.com", "a");
+
+        assertEquals(Boolean.TRUE, result.emailAvailable());
+        assertEquals(Boolean.FALSE, result.usernameAvailable());
+        assertEquals(1, availabilityService.stats().answeredFromDatabase());
+        assertEquals(1, scheduled.size());
+        verifyNoInteractions(userRepository);
+        verify(pendingUserRepository, never()).streamIdentitiesCreatedAfter(any());
+
+        when(pendingUserRepository.streamIdentitiesCreatedAfter(any())).thenReturn(Stream.of());
+        scheduled.get(0).run();
+
+        verify(userRepository).count();
+        verify(pendingUserRepository).streamIdentitiesCreatedAfter(any());
+    }
+
+    @Test
+    @DisplayName("should only check the values that were asked for")
+    void check_usernameOnly() {
+        buildWith();
+
+        AvailabilityService.Availability result = availabilityService.check(null, "someone");
+
+        assertNull(result.emailAvailable());
+        assertEquals(Boolean.TRUE, result.usernameAvailable());
+    }
+
+    @Test
+    @DisplayName("should stop reporting a name as free once it is registered here")
+    void recordTaken_marksNameAsPossiblyTaken() {
+        buildWith();
+        availabilityService.recordTaken("new@example.com", "newuser");
+        when(pendingUserRepository.checkAvailability(isNull(), eq("newuser"))).thenReturn(taken(false, true));
+
+        assertEquals(Boolean.FALSE, availabilityService.check(null, "newuser").usernameAvailable());
+    }
+
+    @Test
+    @DisplayName("should pick up accounts created on other instances when refreshing")
+    void refresh_addsNewAccounts() {
+        buildWith();
+        when(pendingUserRepository.streamIdentitiesCreatedAfter(any()))
+                .thenReturn(Stream.of(identity("elsewhere@example.com", "elsewhere")));
+        availabilityService.refresh((AvailabilityService.Filters) ReflectionTestUtils.getField(availabilityService, "filters"));
+        when(pendingUserRepository.checkAvailability("elsewhere@example.com", null)).thenReturn(taken(true, false));
+
+        assertEquals(Boolean.FALSE, availabilityService.check("elsewhere@example.com", null).emailAvailable());
+        assertEquals(1, availabilityService.stats().entries());
+    }
+}
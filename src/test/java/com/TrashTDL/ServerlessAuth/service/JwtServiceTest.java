@@ -1,10 +1,24 @@
 package com.TrashTDL.ServerlessAuth.service;
 
 import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.security.VerifiedToken;
+import com.TrashTDL.ServerlessAuth.security.VerifiedTokenCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.jackson.io.JacksonSerializer;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,4 +61,175 @@ class JwtServiceTest {
             jwtService.extractUserId("invalid.token.here");
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testVerifyReturnsParsedView() {
+        UUID expectedUserId = UUID.randomUUID();
+        User user = User.builder()
+                .userId(expectedUserId)
+                .email("test@example.com")
+                .username("testuser")
+                .password("password")
+                .build();
+
+        VerifiedToken verified = jwtService.verify(jwtService.generateToken(user));
+
+        assertEquals("test@example.com", verified.subject());
+        assertEquals(expectedUserId, verified.userId());
+        assertNotNull(verified.issuedAt());
+        assertTrue(verified.expiresAt().isAfter(verified.issuedAt()));
+        assertEquals(expectedUserId.toString(), verified.claims().get("userId"));
+        assertFalse(verified.isExpired());
+        assertTrue(jwtService.isTokenValid(verified, user));
+    }
+
+    @Test
+    void testVerifyRejectsTamperedToken() {
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .email("test@example.com")
+                .build();
+        String token = jwtService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThrows(Exception.class, () -> jwtService.verify(tampered));
+    }
+
+    @Test
+    void testVerifyUsesCacheWhenEnabled() {
+        ReflectionTestUtils.setField(jwtService, "tokenCacheMaxEntries", 100);
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .email("test@example.com")
+                .build();
+        String token = jwtService.generateToken(user);
+
+        VerifiedToken first = jwtService.verify(token);
+        VerifiedToken second = jwtService.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, jwtService.getTokenCacheStats().hits());
+        assertEquals(1, jwtService.getTokenCacheStats().misses());
+    }
+
+    @Test
+    void testVerifyUncachedLeavesCacheAlone() {
+        ReflectionTestUtils.setField(jwtService, "tokenCacheMaxEntries", 100);
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .email("test@example.com")
+                .build();
+
+        VerifiedToken verified = jwtService.verifyUncached(jwtService.generateToken(user));
+
+        assertEquals(user.getUserId(), verified.userId());
+        assertEquals(new VerifiedTokenCache.Stats(0, 0, 0, 0), jwtService.getTokenCacheStats());
+    }
+
+    @Test
+    void testFastPathTokensMatchJjwtTokens() {
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .email("test@example.com")
+                .tokenVersion(4)
+                .build();
+        JwtService fast = newHmacService();
+        ReflectionTestUtils.setField(fast, "fastPathEnabled", true);
+
+        String fastToken = fast.generateToken(user);
+        String jjwtToken = jwtService.generateToken(user);
+
+        // Each service reads the other's tokens and both produce the same view
+        VerifiedToken viaJjwt = jwtService.verify(fastToken);
+        VerifiedToken viaFastPath = fast.verify(jjwtToken);
+        assertEquals(user.getUserId(), viaJjwt.userId());
+        assertEquals(4, viaJjwt.tokenVersion());
+        assertEquals(user.getUserId(), viaFastPath.userId());
+        assertEquals(4, viaFastPath.tokenVersion());
+        assertEquals(jwtService.verify(jjwtToken).claims().keySet(), viaFastPath.claims().keySet());
+        assertEquals(jjwtToken.substring(0, jjwtToken.indexOf('.')), fastToken.substring(0, fastToken.indexOf('.')));
+    }
+
+    @Test
+    void testFastPathStillRejectsExpiredAndTamperedTokens() {
+        JwtService fast = newHmacService();
+        ReflectionTestUtils.setField(fast, "fastPathEnabled", true);
+        ReflectionTestUtils.setField(fast, "jwtExpiration", -1000L);
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .email("test@example.com")
+                .build();
+        String expired = fast.generateToken(user);
+
+        assertThrows(ExpiredJwtException.class, () -> fast.verify(expired));
+        assertThrows(SignatureException.class, () -> fast.verify(expired.substring(0, expired.length() - 2) + (expired.endsWith("A") ? "BB" : "AA")));
+    }
+
+    @Test
+    void testAsymmetricSigningCarriesKidAndVerifies() {
+        Jwk<?> es256 = Jwks.builder().ecKeyPair(Jwts.SIG.ES256.keyPair().build()).idFromThumbprint().build();
+        ReflectionTestUtils.setField(jwtService, "signingJwks", jwkSetJson(List.of(es256)));
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .email("test@example.com")
+                .build();
+
+        String token = jwtService.generateToken(user);
+        String header = new String(Base64.getUrlDecoder().decode(token.substring(0, token.indexOf('.'))), StandardCharsets.UTF_8);
+
+        assertTrue(header.contains("\"kid\":\"" + es256.getId() + "\""));
+        assertTrue(header.contains("ES256"));
+        assertEquals(user.getUserId(), jwtService.verify(token).userId());
+    }
+
+    @Test
+    void testRotationKeepsAcceptingTokensFromRetiredKey() {
+        Jwk<?> oldKey = Jwks.builder().ecKeyPair(Jwts.SIG.ES256.keyPair().build()).idFromThumbprint().build();
+        Jwk<?> newKey = Jwks.builder().octetKeyPair(Jwks.CRV.Ed25519.keyPair().build()).idFromThumbprint().build();
+        User user = User.builder()
+                .userId(UUID.randomUUID())
+                .email("test@example.com")
+                .build();
+
+        ReflectionTestUtils.setField(jwtService, "signingJwks", jwkSetJson(List.of(oldKey)));
+        String oldToken = jwtService.generateToken(user);
+        String legacyHmacToken = newHmacService().generateToken(user);
+
+        JwtService rotated = newHmacService();
+        ReflectionTestUtils.setField(rotated, "signingJwks", jwkSetJson(List.of(newKey, oldKey)));
+        ReflectionTestUtils.setField(rotated, "activeKid", newKey.getId());
+
+        assertEquals(user.getUserId(), rotated.verify(oldToken).userId());
+        assertEquals(user.getUserId(), rotated.verify(rotated.generateToken(user)).userId());
+        assertEquals(user.getUserId(), rotated.verify(legacyHmacToken).userId());
+    }
+
+    @Test
+    void testPublicJwksNeverExposesPrivateKeyMaterial() throws Exception {
+        Jwk<?> es256 = Jwks.builder().ecKeyPair(Jwts.SIG.ES256.keyPair().build()).idFromThumbprint().build();
+        ReflectionTestUtils.setField(jwtService, "signingJwks", jwkSetJson(List.of(es256)));
+
+        Map<?, ?> jwks = new ObjectMapper().readValue(jwtService.getPublicJwksJson(), Map.class);
+        List<?> keys = (List<?>) jwks.get("keys");
+
+        assertEquals(1, keys.size());
+        Map<?, ?> key = (Map<?, ?>) keys.get(0);
+        assertEquals(es256.getId(), key.get("kid"));
+        assertEquals("ES256", key.get("alg"));
+        assertEquals("sig", key.get("use"));
+        assertFalse(key.containsKey("d"));
+    }
+
+    private static String jwkSetJson(List<Jwk<?>> keys) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new JacksonSerializer<Map<String, ?>>().serialize(Map.of("keys", keys), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static JwtService newHmacService() {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "secretKeyString", "5367566B59703373367639792F423F4528482B4D6251655468576D5A71347437");
+        ReflectionTestUtils.setField(service, "jwtExpiration", 3600000L);
+        return service;
+    }
+}
@@ -0,0 +1,42 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LoginThrottle Tests")
+class LoginThrottleTest {
+
+    @Test
+    @DisplayName("should prefer the address the Azure front end saw over x-forwarded-for")
+    void clientIp_prefersAzureClientIp() {
+        assertEquals("203.0.113.7", LoginThrottle.clientIp(Map.of(
+                "x-azure-clientip", "203.0.113.7",
+                "x-forwarded-for", "198.51.100.1, 203.0.113.7:51234")));
+    }
+
+    @Test
+    @DisplayName("should key on the last x-forwarded-for hop, so a spoofed first entry does not change it")
+    void clientIp_spoofedForwardedFor_sameKey() {
+        String real = LoginThrottle.clientIp(Map.of("x-forwarded-for", "203.0.113.7:51234"));
+        String spoofed = LoginThrottle.clientIp(Map.of("x-forwarded-for", "198.51.100.1, 203.0.113.7:51234"));
+        String spoofedAgain = LoginThrottle.clientIp(Map.of("x-forwarded-for", "192.0.2.44,198.51.100.1, 203.0.113.7:51234"));
+
+        assertEquals("203.0.113.7", real);
+        assertEquals(real, spoofed);
+        assertEquals(real, spoofedAgain);
+    }
+
+    @Test
+    @DisplayName("should strip ports and brackets and return null without usable headers")
+    void clientIp_formats() {
+        assertEquals("2001:db8::1", LoginThrottle.clientIp(Map.of("x-forwarded-for", "[2001:db8::1]:443")));
+        assertEquals("2001:db8::1", LoginThrottle.clientIp(Map.of("x-azure-clientip", "2001:db8::1")));
+        assertNull(LoginThrottle.clientIp(Map.of("x-forwarded-for", "198.51.100.1, ")));
+        assertNull(LoginThrottle.clientIp(Map.of()));
+        assertNull(LoginThrottle.clientIp(null));
+    }
+}
@@ -0,0 +1,175 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.model.MailOutboxMessage;
+import com.TrashTDL.ServerlessAuth.repository.MailOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MailOutboxDispatcher Tests")
+class MailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock private MailOutboxRepository outboxRepository;
+
+    private MailOutboxDispatcher dispatcher(JavaMailSender mailSender) {
+        MailOutboxDispatcher dispatcher = new MailOutboxDispatcher(outboxRepository, mailSender);
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "maxBatches", 3);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMs", 30_000L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffMs", 3_600_000L);
+        ReflectionTestUtils.setField(dispatcher, "leaseMs", 300_000L);
+        return dispatcher;
+    }
+
+    private static JavaMailSenderImpl smtp(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(port);
+        return sender;
+    }
+
+    private static MailOutboxMessage queued(String recipient, int attempts) {
+        return MailOutboxMessage.builder()
+                .messageId(UUID.randomUUID())
+                .recipient(recipient)
+                .subject("Verify Your Email Address")
+                .body("Please click the following link: https://auth.example.com/api/auth/verify?code=" + recipient)
+                .createdAt(OffsetDateTime.now())
+                .attempts(attempts)
+                .nextAttemptAt(OffsetDateTime.now())
+                .build();
+    }
+
+    @Test
+    @DisplayName("should deliver a claimed batch over SMTP and delete it from the outbox")
+    void dispatch_deliversBatchAndDeletes() throws Exception {
+        List<MailOutboxMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            batch.add(queued("user" + i + "@example.com", 0));
+        }
+        when(outboxRepository.claimDue(eq(10), any())).thenReturn(batch);
+
+        MailOutboxDispatcher.DispatchResult result = dispatcher(smtp(greenMail.getSmtp().getPort())).dispatch();
+
+        assertEquals(4, result.delivered());
+        assertEquals(0, result.retried());
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(4, received.length);
+        assertEquals("Verify Your Email Address", received[0].getSubject());
+        assertTrue(GreenMailUtil.getBody(received[0]).contains("/api/auth/verify?code="));
+        verify(outboxRepository).deleteDelivered(argThat((Collection<UUID> ids) -> ids.size() == 4));
+        verify(outboxRepository, never()).recordFailure(any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("should keep draining while batches come back full")
+    void dispatch_drainsFullBatches() {
+        List<MailOutboxMessage> full = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            full.add(queued("bulk" + i + "@example.com", 0));
+        }
+        when(outboxRepository.claimDue(eq(10), any())).thenReturn(full).thenReturn(List.of(queued("last@example.com", 0)));
+
+        MailOutboxDispatcher.DispatchResult result = dispatcher(smtp(greenMail.getSmtp().getPort())).dispatch();
+
+        assertEquals(11, result.delivered());
+        assertEquals(11, greenMail.getReceivedMessages().length);
+        verify(outboxRepository, times(2)).claimDue(eq(10), any());
+    }
+
+    @Test
+    @DisplayName("should schedule a retry with backoff when the mail server is unreachable")
+    void dispatch_serverDown_retriesWithBackoff() {
+        MailOutboxMessage message = queued("user@example.com", 1);
+        when(outboxRepository.claimDue(eq(10), any())).thenReturn(List.of(message));
+
+        OffsetDateTime before = OffsetDateTime.now();
+        // Nothing listens on port 1
+        MailOutboxDispatcher.DispatchResult result = dispatcher(smtp(1)).dispatch();
+
+        assertEquals(0, result.delivered());
+        assertEquals(1, result.retried());
+        // Second attempt failed: 30 s doubled once
+        verify(outboxRepository).recordFailure(eq(message.getMessageId()), eq(2),
+                argThat((OffsetDateTime next) -> !next.isBefore(before.plusSeconds(60))), anyString(), isNull());
+        verify(outboxRepository, never()).deleteDelivered(any());
+    }
+
+    @Test
+    @DisplayName("should dead-letter a message that has used up its attempts")
+    void dispatch_lastAttemptFails_deadLetters() {
+        MailOutboxMessage message = queued("user@example.com", 2);
+        when(outboxRepository.claimDue(eq(10), any())).thenReturn(List.of(message));
+
+        MailOutboxDispatcher.DispatchResult result = dispatcher(smtp(1)).dispatch();
+
+        assertEquals(1, result.deadLettered());
+        verify(outboxRepository).recordFailure(eq(message.getMessageId()), eq(3), any(), anyString(), notNull());
+    }
+
+    @Test
+    @DisplayName("should retry only the messages the mail server rejected")
+    void dispatch_partialFailure_retriesRejectedOnly() {
+        MailOutboxMessage good = queued("good@example.com", 0);
+        MailOutboxMessage bad = queued("bad@example.com", 0);
+        when(outboxRepository.claimDue(eq(10), any())).thenReturn(List.of(good, bad));
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        doAnswer(inv -> {
+            SimpleMailMessage rejected = inv.getArgument(1);
+            throw new MailSendException(Map.of(rejected, new RuntimeException("550 mailbox unavailable")));
+        }).when(mailSender).send(any(SimpleMailMessage.class), any(SimpleMailMessage.class));
+
+        MailOutboxDispatcher.DispatchResult result = dispatcher(mailSender).dispatch();
+
+        assertEquals(1, result.delivered());
+        assertEquals(1, result.retried());
+        verify(outboxRepository).deleteDelivered(List.of(good.getMessageId()));
+        verify(outboxRepository).recordFailure(eq(bad.getMessageId()), eq(1), any(), eq("550 mailbox unavailable"), isNull());
+    }
+
+    @Test
+    @DisplayName("should double the backoff per failure up to the cap")
+    void backoffMillis_doublesAndCaps() {
+        assertEquals(30_000, MailOutboxDispatcher.backoffMillis(1, 30_000, 3_600_000));
+        assertEquals(60_000, MailOutboxDispatcher.backoffMillis(2, 30_000, 3_600_000));
+        assertEquals(240_000, MailOutboxDispatcher.backoffMillis(4, 30_000, 3_600_000));
+        assertEquals(3_600_000, MailOutboxDispatcher.backoffMillis(20, 30_000, 3_600_000));
+        assertEquals(3_600_000, MailOutboxDispatcher.backoffMillis(500, 30_000, 3_600_000));
+    }
+}
@@ -0,0 +1,75 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.repository.PendingUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PendingUserSweeper Tests")
+class PendingUserSweeperTest {
+
+    @InjectMocks private PendingUserSweeper sweeper;
+    @Mock private PendingUserRepository pendingUserRepository;
+    @Mock private AvailabilityService availabilityService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sweeper, "pendingTtlMinutes", 15);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 100);
+        ReflectionTestUtils.setField(sweeper, "maxBatches", 5);
+    }
+
+    @Test
+    @DisplayName("should keep deleting full batches until one comes back short")
+    void sweep_stopsAtPartialBatch() {
+        when(pendingUserRepository.deleteExpiredBatch(any(), eq(100))).thenReturn(100, 100, 42);
+
+        PendingUserSweeper.SweepResult result = sweeper.sweep();
+
+        assertEquals(242, result.purged());
+        assertEquals(3, result.batches());
+        verify(pendingUserRepository, times(3)).deleteExpiredBatch(any(), eq(100));
+        verify(availabilityService).requestRebuild();
+    }
+
+    @Test
+    @DisplayName("should stop after the configured number of batches")
+    void sweep_boundedByMaxBatches() {
+        when(pendingUserRepository.deleteExpiredBatch(any(), eq(100))).thenReturn(100);
+
+        PendingUserSweeper.SweepResult result = sweeper.sweep();
+
+        assertEquals(500, result.purged());
+        assertEquals(5, result.batches());
+    }
+
+    @Test
+    @DisplayName("should only target registrations older than the retention window")
+    void sweep_usesRetentionCutoff() {
+        ArgumentCaptor<OffsetDateTime> cutoff = ArgumentCaptor.forClass(OffsetDateTime.class);
+        when(pendingUserRepository.deleteExpiredBatch(cutoff.capture(), eq(100))).thenReturn(0);
+
+        OffsetDateTime before = OffsetDateTime.now().minusMinutes(15);
+        PendingUserSweeper.SweepResult result = sweeper.sweep();
+        OffsetDateTime after = OffsetDateTime.now().minusMinutes(15);
+
+        assertEquals(0, result.purged());
+        verifyNoInteractions(availabilityService);
+        assertTrue(!cutoff.getValue().isBefore(before) && !cutoff.getValue().isAfter(after));
+    }
+}
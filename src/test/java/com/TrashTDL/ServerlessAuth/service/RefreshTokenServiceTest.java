@@ -0,0 +1,147 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.exception.InvalidRefreshTokenException;
+import com.TrashTDL.ServerlessAuth.model.RefreshToken;
+import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    @InjectMocks private RefreshTokenService refreshTokenService;
+    @Mock private RefreshTokenRepository refreshTokenRepository;
+
+    private final User user = User.builder()
+            .userId(UUID.randomUUID())
+            .email("test@example.com")
+            .username("testuser")
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", 1209600000L);
+    }
+
+    private RefreshToken storedToken(String rawToken) {
+        return RefreshToken.builder()
+                .tokenId(UUID.randomUUID())
+                .user(user)
+                .familyId(UUID.randomUUID())
+                .tokenHash(RefreshTokenService.hash(rawToken))
+                .expiresAt(OffsetDateTime.now().plusDays(1))
+                .build();
+    }
+
+    @Test
+    @DisplayName("should store only the hash of an issued token")
+    void issue_storesHashOnly() {
+        String rawToken = refreshTokenService.issue(user);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertNotEquals(rawToken, saved.getValue().getTokenHash());
+        assertEquals(RefreshTokenService.hash(rawToken), saved.getValue().getTokenHash());
+        assertTrue(saved.getValue().getExpiresAt().isAfter(OffsetDateTime.now().plusDays(13)));
+    }
+
+    @Test
+    @DisplayName("should rotate a valid token within the same family")
+    void rotate_validToken_issuesNextInFamily() {
+        RefreshToken current = storedToken("raw-token");
+        when(refreshTokenRepository.findByTokenHashWithUser(current.getTokenHash())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markRotated(eq(current.getTokenId()), any())).thenReturn(1);
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate("raw-token");
+
+        assertSame(user, rotation.user());
+        assertNotEquals("raw-token", rotation.refreshToken());
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(current.getFamilyId(), saved.getValue().getFamilyId());
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any());
+    }
+
+    @Test
+    @DisplayName("should revoke the whole family when a rotated token is replayed")
+    void rotate_reusedToken_revokesFamily() {
+        RefreshToken current = storedToken("raw-token");
+        current.setRotatedAt(OffsetDateTime.now().minusMinutes(5));
+        when(refreshTokenRepository.findByTokenHashWithUser(current.getTokenHash())).thenReturn(Optional.of(current));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw-token"));
+
+        verify(refreshTokenRepository).revokeFamily(eq(current.getFamilyId()), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("should treat losing a concurrent rotation as reuse")
+    void rotate_concurrentRotation_revokesFamily() {
+        RefreshToken current = storedToken("raw-token");
+        when(refreshTokenRepository.findByTokenHashWithUser(current.getTokenHash())).thenReturn(Optional.of(current));
+        when(refreshTokenRepository.markRotated(eq(current.getTokenId()), any())).thenReturn(0);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw-token"));
+
+        verify(refreshTokenRepository).revokeFamily(eq(current.getFamilyId()), any());
+    }
+
+    @Test
+    @DisplayName("should reject an expired token")
+    void rotate_expiredToken_throws() {
+        RefreshToken current = storedToken("raw-token");
+        current.setExpiresAt(OffsetDateTime.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHashWithUser(current.getTokenHash())).thenReturn(Optional.of(current));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("raw-token"));
+        verify(refreshTokenRepository, never()).save(any());
+        verify(refreshTokenRepository, never()).markRotated(any(), any());
+    }
+
+    @Test
+    @DisplayName("should keep rejecting an expired token as expired, not as reuse, when it is presented again")
+    void rotate_expiredTokenTwice_changesNothing() {
+        RefreshToken current = storedToken("raw-token");
+        current.setExpiresAt(OffsetDateTime.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHashWithUser(current.getTokenHash())).thenReturn(Optional.of(current));
+
+        InvalidRefreshTokenException first = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenService.rotate("raw-token"));
+        InvalidRefreshTokenException second = assertThrows(InvalidRefreshTokenException.class,
+                () -> refreshTokenService.rotate("raw-token"));
+
+        assertEquals(first.getMessage(), second.getMessage());
+        assertTrue(second.getMessage().contains("expired"));
+        verify(refreshTokenRepository, never()).markRotated(any(), any());
+        verify(refreshTokenRepository, never()).revokeFamily(any(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("should reject an unknown token")
+    void rotate_unknownToken_throws() {
+        when(refreshTokenRepository.findByTokenHashWithUser(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("unknown"));
+    }
+}
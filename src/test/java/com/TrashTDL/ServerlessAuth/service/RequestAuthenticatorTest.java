@@ -0,0 +1,186 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.repository.UserRepository;
+import com.TrashTDL.ServerlessAuth.security.AuthResult;
+import com.TrashTDL.ServerlessAuth.security.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RequestAuthenticator Tests")
+class RequestAuthenticatorTest {
+
+    @InjectMocks private RequestAuthenticator authenticator;
+    @Mock private JwtService jwtService;
+    @Mock private TokenRevocationService revocationService;
+    @Mock private UserRepository userRepository;
+
+    private final UUID userId = UUID.randomUUID();
+    private final String token = "header.payload.signature";
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(authenticator, "userVersionTtlMs", 60_000L);
+        ReflectionTestUtils.setField(authenticator, "userVersionMaxEntries", 100);
+    }
+
+    private VerifiedToken verifiedToken(int version) {
+        return new VerifiedToken("test@example.com", userId, Instant.now(), Instant.now().plusSeconds(900),
+                Map.of("jti", "jti-1", "ver", version));
+    }
+
+    @Test
+    @DisplayName("should extract the token only from Bearer headers")
+    void bearerToken_parsesHeader() {
+        assertEquals(token, RequestAuthenticator.bearerToken("Bearer " + token));
+        assertNull(RequestAuthenticator.bearerToken(null));
+        assertNull(RequestAuthenticator.bearerToken("Basic dXNlcjpwYXNz"));
+        assertNull(RequestAuthenticator.bearerToken("Bearer "));
+        assertEquals(AuthResult.Status.MISSING, authenticator.authenticateHeader(null).status());
+        verifyNoInteractions(jwtService);
+    }
+
+    @Test
+    @DisplayName("should authenticate from the claims and read the token version only once")
+    void validToken_readsVersionOnce() {
+        VerifiedToken verified = verifiedToken(2);
+        when(jwtService.verify(token)).thenReturn(verified);
+        when(userRepository.findActiveTokenVersion(userId)).thenReturn(Optional.of(2));
+
+        for (int i = 0; i < 5; i++) {
+            AuthResult result = authenticator.authenticate(token);
+            assertTrue(result.isAuthenticated());
+            assertEquals(userId, result.userId());
+            assertEquals("test@example.com", result.subject());
+        }
+
+        verify(userRepository, times(1)).findActiveTokenVersion(userId);
+    }
+
+    @Test
+    @DisplayName("should reject tokens issued before the current token version")
+    void staleVersion_isInvalid() {
+        when(jwtService.verify(token)).thenReturn(verifiedToken(1));
+        when(userRepository.findActiveTokenVersion(userId)).thenReturn(Optional.of(2));
+
+        assertEquals(AuthResult.Status.INVALID, authenticator.authenticate(token).status());
+    }
+
+    @Test
+    @DisplayName("should reload the version when a token is newer than the cached one")
+    void newerVersion_reloads() {
+        when(jwtService.verify("old")).thenReturn(verifiedToken(0));
+        when(jwtService.verify("new")).thenReturn(verifiedToken(1));
+        when(userRepository.findActiveTokenVersion(userId)).thenReturn(Optional.of(0)).thenReturn(Optional.of(1));
+
+        assertTrue(authenticator.authenticate("old").isAuthenticated());
+        assertTrue(authenticator.authenticate("new").isAuthenticated());
+        assertFalse(authenticator.authenticate("old").isAuthenticated());
+        verify(userRepository, times(2)).findActiveTokenVersion(userId);
+    }
+
+    @Test
+    @DisplayName("should share one version query between concurrent requests of the same user")
+    void concurrentMisses_shareOneQuery() throws Exception {
+        when(jwtService.verify(token)).thenReturn(verifiedToken(2));
+        CountDownLatch release = new CountDownLatch(1);
+        when(userRepository.findActiveTokenVersion(userId)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(2);
+        });
+        ExecutorService requests = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<AuthResult>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(requests.submit(() -> authenticator.authenticate(token)));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (authenticator.stats().sharedLoads() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<AuthResult> result : results) {
+                assertTrue(result.get(5, TimeUnit.SECONDS).isAuthenticated());
+            }
+        } finally {
+            requests.shutdownNow();
+        }
+
+        verify(userRepository, times(1)).findActiveTokenVersion(userId);
+        RequestAuthenticator.Stats stats = authenticator.stats();
+        assertEquals(1, stats.loads());
+        assertEquals(3, stats.sharedLoads());
+        assertTrue(authenticator.authenticate(token).isAuthenticated());
+        assertEquals(1, authenticator.stats().hits());
+    }
+
+    @Test
+    @DisplayName("should read the version again after it was evicted")
+    void evict_forcesReload() {
+        when(jwtService.verify(token)).thenReturn(verifiedToken(2));
+        when(userRepository.findActiveTokenVersion(userId)).thenReturn(Optional.of(2)).thenReturn(Optional.of(3));
+
+        assertTrue(authenticator.authenticate(token).isAuthenticated());
+        authenticator.evict(userId);
+
+        assertFalse(authenticator.authenticate(token).isAuthenticated());
+        verify(userRepository, times(2)).findActiveTokenVersion(userId);
+        assertEquals(2, authenticator.stats().loads());
+    }
+
+    @Test
+    @DisplayName("should reject tokens of deleted users")
+    void deletedUser_isInvalid() {
+        when(jwtService.verify(token)).thenReturn(verifiedToken(0));
+        when(userRepository.findActiveTokenVersion(userId)).thenReturn(Optional.empty());
+
+        assertEquals(AuthResult.Status.INVALID, authenticator.authenticate(token).status());
+    }
+
+    @Test
+    @DisplayName("should reject revoked tokens without reading the user")
+    void revokedToken_isInvalid() {
+        VerifiedToken verified = verifiedToken(0);
+        when(jwtService.verify(token)).thenReturn(verified);
+        when(revocationService.isRevoked(verified)).thenReturn(true);
+
+        assertEquals(AuthResult.Status.INVALID, authenticator.authenticate(token).status());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @DisplayName("should distinguish expired tokens from invalid ones")
+    void expiredAndMalformedTokens() {
+        when(jwtService.verify("expired")).thenThrow(new ExpiredJwtException(null, null, "expired"));
+        when(jwtService.verify("garbage")).thenThrow(new MalformedJwtException("bad"));
+
+        assertEquals(AuthResult.Status.EXPIRED, authenticator.authenticate("expired").status());
+        assertEquals(AuthResult.Status.INVALID, authenticator.authenticate("garbage").status());
+        assertNull(authenticator.authenticate("garbage").token());
+        verifyNoInteractions(userRepository);
+    }
+}
@@ -0,0 +1,219 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.model.RevokedToken;
+import com.TrashTDL.ServerlessAuth.model.UserTokenRevocation;
+import com.TrashTDL.ServerlessAuth.repository.RefreshTokenRepository;
+import com.TrashTDL.ServerlessAuth.repository.RevokedTokenRepository;
+import com.TrashTDL.ServerlessAuth.repository.UserRepository;
+import com.TrashTDL.ServerlessAuth.repository.UserTokenRevocationRepository;
+import com.TrashTDL.ServerlessAuth.security.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenRevocationService Tests")
+class TokenRevocationServiceTest {
+
+    @InjectMocks private TokenRevocationService revocationService;
+    @Mock private RevokedTokenRepository revokedTokenRepository;
+    @Mock private UserTokenRevocationRepository userTokenRevocationRepository;
+    @Mock private RefreshTokenRepository refreshTokenRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private ObjectProvider<RequestAuthenticator> requestAuthenticator;
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(revocationService, "refreshIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(revocationService, "rebuildIntervalMs", 600_000L);
+        ReflectionTestUtils.setField(revocationService, "expectedEntries", 1_000L);
+        ReflectionTestUtils.setField(revocationService, "accessTokenExpirationMs", 900_000L);
+        revocationService.setMaintenanceExecutor(scheduled::add);
+    }
+
+    private static VerifiedToken token(UUID userId, String jti, Instant issuedAt) {
+        return new VerifiedToken("test@example.com", userId, issuedAt, issuedAt.plusSeconds(900), Map.of("jti", jti));
+    }
+
+    @Test
+    @DisplayName("should accept tokens that were never revoked")
+    void unrevokedToken_isAccepted() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(userTokenRevocationRepository.findByRevokedBeforeAfter(any())).thenReturn(List.of());
+
+        assertFalse(revocationService.isRevoked(token(UUID.randomUUID(), "jti-1", Instant.now())));
+    }
+
+    @Test
+    @DisplayName("should reject a token whose jti is in the revocation table")
+    void persistedRevokedToken_isRejected() {
+        UUID userId = UUID.randomUUID();
+        RevokedToken revoked = RevokedToken.builder()
+                .jti("jti-1")
+                .userId(userId)
+                .expiresAt(OffsetDateTime.now().plusMinutes(10))
+                .revokedAt(OffsetDateTime.now())
+                .build();
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of(revoked));
+        when(userTokenRevocationRepository.findByRevokedBeforeAfter(any())).thenReturn(List.of());
+
+        assertTrue(revocationService.isRevoked(token(userId, "jti-1", Instant.now())));
+        assertFalse(revocationService.isRevoked(token(userId, "jti-2", Instant.now())));
+    }
+
+    @Test
+    @DisplayName("should reject tokens issued before the user's revoked-before cut-off")
+    void tokensBeforeCutoff_areRejected() {
+        UUID userId = UUID.randomUUID();
+        Instant cutoff = Instant.now().minusSeconds(60);
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(userTokenRevocationRepository.findByRevokedBeforeAfter(any())).thenReturn(List.of(UserTokenRevocation.builder()
+                .userId(userId)
+                .revokedBefore(cutoff.atOffset(ZoneOffset.UTC))
+                .updatedAt(cutoff.atOffset(ZoneOffset.UTC))
+                .build()));
+
+        assertTrue(revocationService.isRevoked(token(userId, "old", cutoff.minusSeconds(120))));
+        assertFalse(revocationService.isRevoked(token(userId, "new", cutoff.plusSeconds(30))));
+        assertFalse(revocationService.isRevoked(token(UUID.randomUUID(), "other", cutoff.minusSeconds(120))));
+    }
+
+    @Test
+    @DisplayName("should accept a token issued in the same second as the cut-off, such as a login right after logout")
+    void tokenInCutoffSecond_isAccepted() {
+        UUID userId = UUID.randomUUID();
+        Instant cutoff = Instant.parse("2026-01-01T12:00:00.750Z");
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(userTokenRevocationRepository.findByRevokedBeforeAfter(any())).thenReturn(List.of(UserTokenRevocation.builder()
+                .userId(userId)
+                .revokedBefore(cutoff.atOffset(ZoneOffset.UTC))
+                .updatedAt(cutoff.atOffset(ZoneOffset.UTC))
+                .build()));
+
+        // iat carries whole seconds only
+        assertFalse(revocationService.isRevoked(token(userId, "same-second", Instant.parse("2026-01-01T12:00:00Z"))));
+        assertTrue(revocationService.isRevoked(token(userId, "second-before", Instant.parse("2026-01-01T11:59:59Z"))));
+    }
+
+    @Test
+    @DisplayName("should apply local revocations immediately without reloading")
+    void localRevocation_isVisibleImmediately() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(userTokenRevocationRepository.findByRevokedBeforeAfter(any())).thenReturn(List.of());
+        UUID userId = UUID.randomUUID();
+        VerifiedToken current = token(userId, "jti-1", Instant.now().minusSeconds(5));
+        assertFalse(revocationService.isRevoked(current));
+
+        revocationService.revoke(current);
+
+        assertTrue(revocationService.isRevoked(current));
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        verify(revokedTokenRepository, times(1)).findByExpiresAtAfter(any());
+    }
+
+    @Test
+    @DisplayName("should revoke access and refresh tokens when logging out everywhere")
+    void revokeAllForUser_revokesEverything() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(userTokenRevocationRepository.findByRevokedBeforeAfter(any())).thenReturn(List.of());
+        UUID userId = UUID.randomUUID();
+        VerifiedToken current = token(userId, "jti-1", Instant.now().minusSeconds(5));
+        assertFalse(revocationService.isRevoked(current));
+
+        revocationService.revokeAllForUser(userId);
+
+        assertTrue(revocationService.isRevoked(current));
+        verify(refreshTokenRepository).revokeAllForUser(eq(userId), any());
+        verify(userRepository).incrementTokenVersion(userId);
+    }
+
+    @Test
+    @DisplayName("should forget the cached token version on this instance when logging out everywhere")
+    void revokeAllForUser_evictsCachedVersion() {
+        RequestAuthenticator authenticator = mock(RequestAuthenticator.class);
+        when(requestAuthenticator.getIfAvailable()).thenReturn(authenticator);
+        UUID userId = UUID.randomUUID();
+
+        revocationService.revokeAllForUser(userId);
+
+        verify(authenticator).evict(userId);
+    }
+
+    @Test
+    @DisplayName("should keep serving the current list while a due refresh runs in the background")
+    void dueRefresh_runsInBackground() {
+        UUID userId = UUID.randomUUID();
+        VerifiedToken elsewhere = token(userId, "jti-1", Instant.now().minusSeconds(5));
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(userTokenRevocationRepository.findByRevokedBeforeAfter(any())).thenReturn(List.of());
+        assertFalse(revocationService.isRevoked(elsewhere));
+
+        // Another instance revokes the token, and this one's list falls due for a refresh
+        when(revokedTokenRepository.findByRevokedAtAfter(any())).thenReturn(List.of(RevokedToken.builder()
+                .jti("jti-1")
+                .userId(userId)
+                .expiresAt(OffsetDateTime.now().plusMinutes(10))
+                .revokedAt(OffsetDateTime.now())
+                .build()));
+        when(userTokenRevocationRepository.findByUpdatedAtAfter(any())).thenReturn(List.of());
+        ReflectionTestUtils.setField(revocationService, "lastRefreshMillis", System.currentTimeMillis() - 120_000L);
+
+        assertFalse(revocationService.isRevoked(elsewhere));
+        assertFalse(revocationService.isRevoked(elsewhere));
+        assertEquals(1, scheduled.size());
+        verify(revokedTokenRepository, never()).findByRevokedAtAfter(any());
+
+        scheduled.get(0).run();
+
+        assertTrue(revocationService.isRevoked(elsewhere));
+        verify(revokedTokenRepository, times(1)).findByExpiresAtAfter(any());
+    }
+
+    @Test
+    @DisplayName("should only load, and keep, user cut-offs younger than the access token lifetime")
+    void rebuild_prunesExpiredUserCutoffs() {
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(userTokenRevocationRepository.findByRevokedBeforeAfter(any())).thenReturn(List.of());
+
+        revocationService.isRevoked(token(UUID.randomUUID(), "jti-1", Instant.now()));
+
+        ArgumentCaptor<OffsetDateTime> pruned = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(userTokenRevocationRepository).deleteRevokedBefore(pruned.capture());
+        verify(userTokenRevocationRepository).findByRevokedBeforeAfter(pruned.getValue());
+        Duration age = Duration.between(pruned.getValue(), OffsetDateTime.now());
+        assertTrue(age.compareTo(Duration.ofMinutes(15)) >= 0 && age.compareTo(Duration.ofMinutes(16)) < 0, age::toString);
+        verify(userTokenRevocationRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("should reject revoking a token without a jti")
+    void revoke_tokenWithoutJti_throws() {
+        VerifiedToken legacy = new VerifiedToken("test@example.com", UUID.randomUUID(),
+                Instant.now(), Instant.now().plusSeconds(900), Map.of());
+
+        assertThrows(IllegalArgumentException.class, () -> revocationService.revoke(legacy));
+    }
+}
@@ -0,0 +1,186 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.StringReader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserImportService Tests")
+class UserImportServiceTest {
+
+    // Cost 4 keeps the suite fast; the import never depends on the cost
+    private static final String EXISTING_HASH = new BCryptPasswordEncoder(4).encode("legacy-secret");
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private AvailabilityService availabilityService;
+
+    private final PasswordEncoder passwordEncoder =
+            new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", new BCryptPasswordEncoder(4)));
+
+    private UserImportService importService;
+    private final List<Object[]> inserted = new ArrayList<>();
+    private final List<UserImportService.RowError> errors = new ArrayList<>();
+    private final UserImportService.ImportListener listener = new UserImportService.ImportListener() {
+        @Override
+        public void rowFailed(UserImportService.RowError error) {
+            errors.add(error);
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        importService = new UserImportService(jdbcTemplate, passwordEncoder, availabilityService);
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+    }
+
+    private void insertAllExcept(Set<String> takenEmails) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(1);
+            int[] counts = new int[rows.size()];
+            for (int i = 0; i < counts.length; i++) {
+                inserted.add(rows.get(i));
+                counts[i] = takenEmails.contains((String) rows.get(i)[2]) ? 0 : 1;
+            }
+            return counts;
+        });
+    }
+
+    @Test
+    @DisplayName("should hash plaintext passwords and insert every row in batches")
+    void importCsv_hashesAndInserts() {
+        insertAllExcept(Set.of());
+        String csv = """
+                email,username,password
+                ana@example.com,ana,secret-1
+                "bob@example.com","Bob ""B"" Jones",secret-2
+                carl@example.com,carl,"pass,with,commas"
+                """;
+
+        UserImportService.ImportResult result = importService.importUsers(
+                new StringReader(csv), UserImportService.Format.CSV, listener);
+
+        assertEquals(3, result.read());
+        assertEquals(3, result.imported());
+        assertEquals(0, result.failed());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        assertEquals("Bob \"B\" Jones", inserted.get(1)[1]);
+        assertTrue(passwordEncoder.matches("pass,with,commas", (String) inserted.get(2)[3]));
+        verify(availabilityService).requestRebuild();
+    }
+
+    @Test
+    @DisplayName("should store existing bcrypt hashes without re-hashing them")
+    void importNdjson_keepsExistingHash() {
+        insertAllExcept(Set.of());
+        String ndjson = "{\"email\":\"ana@example.com\",\"username\":\"ana\",\"passwordHash\":\"" + EXISTING_HASH + "\"}\n";
+
+        UserImportService.ImportResult result = importService.importUsers(
+                new StringReader(ndjson), UserImportService.Format.NDJSON, listener);
+
+        assertEquals(1, result.imported());
+        assertEquals("{bcrypt}" + EXISTING_HASH, inserted.get(0)[3]);
+        assertTrue(passwordEncoder.matches("legacy-secret", (String) inserted.get(0)[3]));
+    }
+
+    @Test
+    @DisplayName("should report invalid rows with their line number and keep going")
+    void importCsv_reportsInvalidRows() {
+        insertAllExcept(Set.of());
+        String csv = """
+                email,username,password,password_hash
+                not-an-email,ana,secret,
+                bob@example.com,,secret,
+                carl@example.com,carl,,
+                dora@example.com,dora,,$2a$10$tooShort
+                "eve@example.com,eve,secret,
+                fred@example.com,fred,secret,
+                """;
+
+        UserImportService.ImportResult result = importService.importUsers(
+                new StringReader(csv), UserImportService.Format.CSV, listener);
+
+        assertEquals(6, result.read());
+        assertEquals(1, result.imported());
+        assertEquals(5, result.failed());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), errors.stream().map(UserImportService.RowError::line).toList());
+        assertEquals("password_hash is not a bcrypt hash.", errors.get(3).message());
+    }
+
+    @Test
+    @DisplayName("should count rows the database already holds as failed, not imported")
+    void importNdjson_reportsDuplicates() {
+        insertAllExcept(Set.of("taken@example.com"));
+        String ndjson = """
+                {"email":"taken@example.com","username":"taken","password":"secret"}
+                not json
+                {"email":"new@example.com","username":"new","password":"secret"}
+                """;
+
+        UserImportService.ImportResult result = importService.importUsers(
+                new StringReader(ndjson), UserImportService.Format.NDJSON, listener);
+
+        assertEquals(3, result.read());
+        assertEquals(1, result.imported());
+        assertEquals(2, result.failed());
+        assertEquals("Malformed JSON.", errors.get(0).message());
+        assertEquals(1L, errors.get(1).line());
+        assertEquals("taken@example.com", errors.get(1).email());
+    }
+
+    @Test
+    @DisplayName("should skip rows whose e-mail or username a pending registration holds")
+    void import_checksPendingRegistrations() {
+        insertAllExcept(Set.of());
+        String ndjson = """
+                {"email":"Ana@Example.com","username":"ana","password_hash":"%s"}
+                """.formatted(EXISTING_HASH);
+
+        importService.importUsers(new StringReader(ndjson), UserImportService.Format.NDJSON, listener);
+
+        verify(jdbcTemplate).batchUpdate(contains("not exists (select 1 from todo.pending_users"), anyList());
+        assertArrayEquals(new Object[] {"Ana@Example.com", "ana"}, Arrays.copyOfRange(inserted.get(0), 4, 6));
+    }
+
+    @Test
+    @DisplayName("should treat a batch count without row information as inserted")
+    void importCsv_successNoInfoCountsAsImported() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[] {Statement.SUCCESS_NO_INFO});
+
+        UserImportService.ImportResult result = importService.importUsers(
+                new StringReader("email,username,password_hash\nana@example.com,ana," + EXISTING_HASH + "\n"),
+                UserImportService.Format.CSV, listener);
+
+        assertEquals(1, result.imported());
+    }
+
+    @Test
+    @DisplayName("should reject CSV without the required header columns")
+    void importCsv_missingHeader_throws() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importUsers(
+                new StringReader("ana@example.com,ana,secret\n"), UserImportService.Format.CSV, listener));
+        verifyNoInteractions(jdbcTemplate, availabilityService);
+    }
+}
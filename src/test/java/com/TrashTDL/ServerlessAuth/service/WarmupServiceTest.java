@@ -0,0 +1,131 @@
+package com.TrashTDL.ServerlessAuth.service;
+
+import com.TrashTDL.ServerlessAuth.model.User;
+import com.TrashTDL.ServerlessAuth.security.VerifiedToken;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WarmupService Tests")
+class WarmupServiceTest {
+
+    @Mock private DataSource dataSource;
+    @Mock private JwtService jwtService;
+    @Mock private Connection connection;
+    @Mock private PreparedStatement statement;
+
+    private final VerifiedToken verifiedToken = new VerifiedToken("warmup@localhost", UUID.randomUUID(),
+            Instant.now(), Instant.now().plusSeconds(900), Map.of());
+
+    private WarmupService newService(DataSource source) {
+        WarmupService service = new WarmupService(source, jwtService, new SyncValidationService(), new DBHandler());
+        ReflectionTestUtils.setField(service, "connections", 2);
+        ReflectionTestUtils.setField(service, "iterations", 3);
+        return service;
+    }
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(jwtService.generateToken(any(User.class))).thenReturn("token");
+        lenient().when(jwtService.verifyUncached("token")).thenReturn(verifiedToken);
+        lenient().when(jwtService.isTokenValid(eq(verifiedToken), any(User.class))).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("should open the configured connections together and prepare the hot statements on each")
+    void warmUp_preparesStatementsOnEveryConnection() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        WarmupService.WarmupResult result = newService(dataSource).warmUp();
+
+        assertEquals(2, result.connections());
+        assertEquals(2 * DBHandler.HOT_STATEMENTS.size(), result.statementsPrepared());
+        assertTrue(result.failures().isEmpty(), () -> result.failures().toString());
+        for (String sql : DBHandler.HOT_STATEMENTS) {
+            verify(connection, times(2)).prepareStatement(sql);
+        }
+        verify(statement, times(4)).getParameterMetaData();
+        verify(connection, times(2)).close();
+        verify(jwtService, times(3)).generateToken(any(User.class));
+    }
+
+    @Test
+    @DisplayName("should report a missing database function once and still warm everything else")
+    void warmUp_missingFunction_reportedOnce() throws Exception {
+        PreparedStatement folders = mock(PreparedStatement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(connection.prepareStatement(DBHandler.ACCESSIBLE_FOLDERS_SQL)).thenReturn(folders);
+        when(folders.getParameterMetaData()).thenThrow(new SQLException("function todo.get_accessible_folders does not exist"));
+
+        WarmupService.WarmupResult result = newService(dataSource).warmUp();
+
+        assertEquals(2, result.statementsPrepared());
+        assertEquals(1, result.failures().size());
+        assertTrue(result.failures().get(0).contains("get_accessible_folders"));
+        verify(jwtService, times(3)).verifyUncached("token");
+        verify(jwtService, never()).verify(anyString());
+    }
+
+    @Test
+    @DisplayName("should return connections already opened when the pool runs dry and carry on in memory")
+    void warmUp_connectionFailure_continues() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection).thenThrow(new SQLException("too many clients"));
+
+        WarmupService.WarmupResult result = newService(dataSource).warmUp();
+
+        assertEquals(1, result.connections());
+        assertEquals(0, result.statementsPrepared());
+        assertTrue(result.failures().get(0).startsWith("connections:"));
+        verify(connection).close();
+        verify(jwtService, times(3)).generateToken(any(User.class));
+    }
+
+    @Test
+    @DisplayName("should not ask for more connections than the pool holds")
+    void warmUp_cappedByPoolSize() throws Exception {
+        HikariDataSource pool = mock(HikariDataSource.class);
+        when(pool.getMaximumPoolSize()).thenReturn(1);
+        when(pool.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        WarmupService.WarmupResult result = newService(pool).warmUp();
+
+        assertEquals(1, result.connections());
+        verify(pool, times(1)).getConnection();
+    }
+
+    @Test
+    @DisplayName("should report a token round trip that does not verify")
+    void warmUp_tokenMismatch_reported() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        when(jwtService.isTokenValid(eq(verifiedToken), any(User.class))).thenReturn(false);
+
+        WarmupService.WarmupResult result = newService(dataSource).warmUp();
+
+        assertEquals(1, result.failures().size());
+        assertTrue(result.failures().get(0).startsWith("tokens:"));
+    }
+}